@@ -21,6 +21,40 @@ import {
 import Header from '../components/Header';
 import { DeckPriceDisplay, CompactPriceDisplay } from './PriceDisplay';
 
+const SECTION_KEYS = { MAIN: 'mainDeck', EXTRA: 'extraDeck', SIDE: 'sideDeck' };
+
+// Patch the loaded deck with a compact mutation response instead of reloading it
+const applyDeckDelta = (deck, delta) => {
+    const patched = {
+        ...deck,
+        version: delta.version,
+        mainDeckCount: delta.mainDeckCount,
+        extraDeckCount: delta.extraDeckCount,
+        sideDeckCount: delta.sideDeckCount,
+        totalCards: delta.mainDeckCount + delta.extraDeckCount + delta.sideDeckCount,
+        valid: delta.valid,
+        validationErrors: delta.validationErrors,
+    };
+
+    for (const change of delta.changes) {
+        const key = SECTION_KEYS[change.deckType];
+        const section = (patched[key] || []).filter((dc) => dc.cardId !== change.cardId);
+        if (change.quantity > 0) {
+            const index = (patched[key] || []).findIndex((dc) => dc.cardId === change.cardId);
+            if (index >= 0) {
+                section.splice(index, 0, change);
+            } else {
+                section.push(change);
+            }
+        }
+        patched[key] = section;
+    }
+    return patched;
+};
+
+// Deck changed in another tab or session since it was loaded
+const isVersionConflict = (err) => err.status === 409 || err.status === 412;
+
 const DeckBuilderPage = () => {
     const { deckId } = useParams();
     const navigate = useNavigate();
@@ -149,18 +183,23 @@ const DeckBuilderPage = () => {
 
         setIsAddingCard(true);
         try {
-            const updated = await apiService.addCardToDeck(
+            const delta = await apiService.addCardToDeck(
                 deckId,
                 searchResult.id,
                 1,
-                selectedDeckType
+                selectedDeckType,
+                true,
+                deck.version
             );
-            setDeck(updated);
+            setDeck((current) => applyDeckDelta(current, delta));
             setSearchResult(null);
             setSearchTerm('');
             closeAddCardModal();
             showSuccess('Card added to deck');
         } catch (err) {
+            if (isVersionConflict(err)) {
+                await fetchDeck();
+            }
             setError(err.message || 'Failed to add card');
         } finally {
             setIsAddingCard(false);
@@ -169,10 +208,15 @@ const DeckBuilderPage = () => {
 
     const handleRemoveCard = async (cardId, deckType, quantity = 1) => {
         try {
-            const updated = await apiService.removeCardFromDeck(deckId, cardId, deckType, quantity);
-            setDeck(updated);
+            const delta = await apiService.removeCardFromDeck(deckId, cardId, deckType, quantity, true, deck.version);
+            setDeck((current) => applyDeckDelta(current, delta));
             showSuccess('Card removed');
         } catch (err) {
+            if (isVersionConflict(err)) {
+                await fetchDeck();
+                setError('The deck was changed elsewhere and has been reloaded');
+                return;
+            }
             setError('Failed to remove card');
         }
     };
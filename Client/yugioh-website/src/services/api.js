@@ -28,6 +28,16 @@ const clearTokens = () => {
   localStorage.removeItem('refreshToken');
 };
 
+// If-Match header for a write based on a known deck version (412 if the deck changed since)
+const versionHeaders = (version) => (version != null ? { 'If-Match': `"${version}"` } : {});
+
+// Error carrying the HTTP status, so callers can reload on 409/412 version conflicts
+const httpError = (response, message) => {
+  const error = new Error(message);
+  error.status = response.status;
+  return error;
+};
+
 // Helper for authenticated requests
 const authFetch = async (url, options = {}) => {
   const headers = {
@@ -237,29 +247,48 @@ export const apiService = {
     return true;
   },
 
-  addCardToDeck: async (deckId, cardId, quantity = 1, deckType = 'MAIN') => {
-    const response = await authFetch(`${API_BASE_URL}/decks/${deckId}/cards`, {
+  // compact: return only the changed entry and new counters (see applyDeckDelta in DeckBuilderPage)
+  addCardToDeck: async (deckId, cardId, quantity = 1, deckType = 'MAIN', compact = false, version = null) => {
+    const query = compact ? '?compact=true' : '';
+    const response = await authFetch(`${API_BASE_URL}/decks/${deckId}/cards${query}`, {
       method: 'POST',
+      headers: versionHeaders(version),
       body: JSON.stringify({ cardId, quantity, deckType }),
     });
     const data = await response.json();
     if (!response.ok) {
-      throw new Error(data.message || 'Failed to add card');
+      throw httpError(response, data.message || 'Failed to add card');
     }
     return data.data;
   },
 
-  removeCardFromDeck: async (deckId, cardId, deckType = 'MAIN', quantity = null) => {
+  removeCardFromDeck: async (deckId, cardId, deckType = 'MAIN', quantity = null, compact = false, version = null) => {
     let url = `${API_BASE_URL}/decks/${deckId}/cards/${cardId}?deckType=${deckType}`;
     if (quantity) {
       url += `&quantity=${quantity}`;
     }
-    const response = await authFetch(url, { method: 'DELETE' });
-    if (!response.ok) throw new Error('Failed to remove card');
+    if (compact) {
+      url += '&compact=true';
+    }
+    const response = await authFetch(url, { method: 'DELETE', headers: versionHeaders(version) });
+    if (!response.ok) throw httpError(response, 'Failed to remove card');
     const data = await response.json();
     return data.data;
   },
 
+  // operations: [{ type: 'ADD' | 'REMOVE' | 'MOVE', cardId, quantity, deckType, targetDeckType }]
+  applyDeckBatch: async (deckId, operations) => {
+    const response = await authFetch(`${API_BASE_URL}/decks/${deckId}/cards/batch`, {
+      method: 'POST',
+      body: JSON.stringify({ operations }),
+    });
+    const data = await response.json();
+    if (!response.ok) {
+      throw new Error(data.message || 'Failed to update deck');
+    }
+    return data.data;
+  },
+
   validateDeck: async (deckId) => {
     const response = await authFetch(`${API_BASE_URL}/decks/${deckId}/validate`);
     if (!response.ok) throw new Error('Failed to validate deck');
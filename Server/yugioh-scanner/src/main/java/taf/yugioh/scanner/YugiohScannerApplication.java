@@ -2,8 +2,10 @@ package taf.yugioh.scanner;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class YugiohScannerApplication {
 
 	public static void main(String[] args) {
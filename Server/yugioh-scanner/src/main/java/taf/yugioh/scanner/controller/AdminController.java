@@ -0,0 +1,199 @@
+package taf.yugioh.scanner.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import taf.yugioh.scanner.dto.ApiResponse;
+import taf.yugioh.scanner.entity.ImageBlob;
+import taf.yugioh.scanner.entity.User;
+import taf.yugioh.scanner.service.ImageDedupMigrationService;
+import taf.yugioh.scanner.service.ImagePrefetchService;
+import taf.yugioh.scanner.service.ImageStorageMigrationService;
+import taf.yugioh.scanner.service.OcrWorkerPool;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private ImagePrefetchService imagePrefetchService;
+
+    @Autowired
+    private ImageDedupMigrationService imageDedupMigrationService;
+
+    @Autowired
+    private ImageStorageMigrationService imageStorageMigrationService;
+
+    @Autowired
+    private OcrWorkerPool ocrWorkerPool;
+
+    @Value("${app.admin.usernames:}")
+    private String adminUsernames;
+
+    // ==================== Image Maintenance ====================
+
+    /**
+     * Start an image prefetch run (whole catalog, one set, or one deck)
+     * POST /api/admin/images/prefetch
+     */
+    @PostMapping("/images/prefetch")
+    public ResponseEntity<ApiResponse<ImagePrefetchService.PrefetchStatus>> startImagePrefetch(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String set,
+            @RequestParam(required = false) Long deckId) {
+
+        if (!isAdmin(user)) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Admin access required"));
+        }
+
+        if (!imagePrefetchService.startPrefetch(set, deckId)) {
+            return ResponseEntity.status(409).body(new ApiResponse<>(
+                    false, "Image prefetch already running", imagePrefetchService.getStatus()));
+        }
+
+        return ResponseEntity.accepted().body(
+                ApiResponse.success("Image prefetch started", imagePrefetchService.getStatus()));
+    }
+
+    /**
+     * Get progress of the current (or last) prefetch run
+     * GET /api/admin/images/prefetch
+     */
+    @GetMapping("/images/prefetch")
+    public ResponseEntity<ApiResponse<ImagePrefetchService.PrefetchStatus>> getImagePrefetchStatus(
+            @AuthenticationPrincipal User user) {
+
+        if (!isAdmin(user)) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Admin access required"));
+        }
+
+        return ResponseEntity.ok(ApiResponse.success("Image prefetch status", imagePrefetchService.getStatus()));
+    }
+
+    /**
+     * Start moving inline card_images bytes into the deduplicated blob store (safe to re-run)
+     * POST /api/admin/images/dedupe
+     */
+    @PostMapping("/images/dedupe")
+    public ResponseEntity<ApiResponse<ImageDedupMigrationService.DedupReport>> startImageDedup(
+            @AuthenticationPrincipal User user) {
+
+        if (!isAdmin(user)) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Admin access required"));
+        }
+
+        if (!imageDedupMigrationService.start()) {
+            return ResponseEntity.status(409).body(new ApiResponse<>(
+                    false, "Image dedup migration already running", imageDedupMigrationService.getReport()));
+        }
+
+        return ResponseEntity.accepted().body(ApiResponse.success(
+                "Image dedup migration started", imageDedupMigrationService.getReport()));
+    }
+
+    /**
+     * Get progress of the current (or last) dedup migration
+     * GET /api/admin/images/dedupe
+     */
+    @GetMapping("/images/dedupe")
+    public ResponseEntity<ApiResponse<ImageDedupMigrationService.DedupReport>> getImageDedupStatus(
+            @AuthenticationPrincipal User user) {
+
+        if (!isAdmin(user)) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Admin access required"));
+        }
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Image dedup migration status", imageDedupMigrationService.getReport()));
+    }
+
+    /**
+     * Start moving image blobs between storage backends (resumes from the last checkpoint)
+     * POST /api/admin/images/storage-migration
+     */
+    @PostMapping("/images/storage-migration")
+    public ResponseEntity<ApiResponse<ImageStorageMigrationService.MigrationStatus>> startStorageMigration(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "DATABASE") ImageBlob.StorageLocation source,
+            @RequestParam(defaultValue = "FILESYSTEM") ImageBlob.StorageLocation target) {
+
+        if (!isAdmin(user)) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Admin access required"));
+        }
+
+        if (!imageStorageMigrationService.start(source, target)) {
+            return ResponseEntity.status(409).body(new ApiResponse<>(
+                    false, "Image storage migration already running", imageStorageMigrationService.getStatus()));
+        }
+
+        return ResponseEntity.accepted().body(ApiResponse.success(
+                "Image storage migration started", imageStorageMigrationService.getStatus()));
+    }
+
+    /**
+     * Get progress of the current (or last) storage migration
+     * GET /api/admin/images/storage-migration
+     */
+    @GetMapping("/images/storage-migration")
+    public ResponseEntity<ApiResponse<ImageStorageMigrationService.MigrationStatus>> getStorageMigrationStatus(
+            @AuthenticationPrincipal User user) {
+
+        if (!isAdmin(user)) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Admin access required"));
+        }
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Image storage migration status", imageStorageMigrationService.getStatus()));
+    }
+
+    /**
+     * Stop a running storage migration (progress is checkpointed)
+     * DELETE /api/admin/images/storage-migration
+     */
+    @DeleteMapping("/images/storage-migration")
+    public ResponseEntity<ApiResponse<Void>> stopStorageMigration(@AuthenticationPrincipal User user) {
+        if (!isAdmin(user)) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Admin access required"));
+        }
+
+        imageStorageMigrationService.stop();
+        return ResponseEntity.ok(ApiResponse.success("Image storage migration stopping"));
+    }
+
+    // ==================== OCR Workers ====================
+
+    /**
+     * State, load and restart count of every OCR worker
+     * GET /api/admin/ocr/workers
+     */
+    @GetMapping("/ocr/workers")
+    public ResponseEntity<ApiResponse<List<OcrWorkerPool.WorkerStatus>>> getOcrWorkers(
+            @AuthenticationPrincipal User user) {
+
+        if (!isAdmin(user)) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Admin access required"));
+        }
+
+        return ResponseEntity.ok(ApiResponse.success("OCR workers", ocrWorkerPool.getStatus()));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private boolean isAdmin(User user) {
+        if (user == null) {
+            return false;
+        }
+        Set<String> admins = Arrays.stream(adminUsernames.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        return admins.contains(user.getUsername());
+    }
+}
@@ -1,41 +1,88 @@
 // CardController.java
 package taf.yugioh.scanner.controller;
 
+import taf.yugioh.scanner.exception.ImageUploadRejectedException;
+import taf.yugioh.scanner.exception.OcrOverloadedException;
+import taf.yugioh.scanner.service.BatchScanService;
+import taf.yugioh.scanner.service.CardImagePreprocessor;
 import taf.yugioh.scanner.service.CardOCRService;
+import taf.yugioh.scanner.service.ScanJobService;
+import taf.yugioh.scanner.service.StreamingImageDecoder;
 import taf.yugioh.scanner.service.YugiohApiService;
 import taf.yugioh.scanner.model.CardResponse;
+import taf.yugioh.scanner.model.ScanJob;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/cards")
 @CrossOrigin(origins = "http://localhost:3000") // Adjust for your React app URL
 public class CardController {
 
+    // Multipart limits are sized for batch uploads - single images stay capped here
+    private static final long MAX_IMAGE_BYTES = 10 * 1024 * 1024;
+
     @Autowired
     private CardOCRService cardOcrService;
 
     @Autowired
     private YugiohApiService yugiohApiService;
 
+    @Autowired
+    private ScanJobService scanJobService;
+
+    @Autowired
+    private BatchScanService batchScanService;
+
+    @Autowired
+    private StreamingImageDecoder streamingImageDecoder;
+
+    /**
+     * Scan one card, or every card in the photo with ?multi=true (deck spread, binder page).
+     * Accepts an "image" multipart part or a raw image body. The upload is decoded while it
+     * streams in and is never buffered whole on heap or disk.
+     */
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadCard(@RequestParam("image") MultipartFile imageFile) {
+    public ResponseEntity<?> uploadCard(HttpServletRequest request) {
         try {
-            // Validate file
-            if (imageFile.isEmpty()) {
-                return ResponseEntity.badRequest().body("No image file provided");
+            // Query string only - request.getParameter() would make the container parse the whole multipart body
+            boolean multi = Boolean.parseBoolean(UriComponentsBuilder.newInstance()
+                    .query(request.getQueryString()).build().getQueryParams().getFirst("multi"));
+
+            StreamingImageDecoder.DecodedUpload upload = streamingImageDecoder.decodeRequest(
+                    request.getContentType(), request.getContentLengthLong(), request.getInputStream(), "image");
+
+            if (multi) {
+                return uploadMultipleCards(upload);
             }
 
-            // Check file type
-            String contentType = imageFile.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest().body("File must be an image");
+            // Same bytes scanned before, or art recognised by perceptual hash - skip OCR
+            String imageHash = upload.getSha256();
+            CardImagePreprocessor.PreparedImage prepared = cardOcrService.prepare(upload.getImage());
+            Optional<Long> knownCardId = cardOcrService.findCardIdWithoutOcr(imageHash, prepared);
+            if (knownCardId.isPresent()) {
+                CardResponse knownCard = yugiohApiService.getCardById(knownCardId.get());
+                if (knownCard != null) {
+                    return ResponseEntity.ok(new ApiResponse(true, "Card found successfully", knownCard));
+                }
             }
 
             // Extract card name using OCR
-            String cardName = cardOcrService.extractCardName(imageFile);
+            String cardName = cardOcrService.extractCardName(prepared, upload.getImage(), upload.getFilename());
             
             if (cardName == null || cardName.trim().isEmpty()) {
                 return ResponseEntity.badRequest().body("Could not extract card name from image");
@@ -52,14 +99,81 @@ public class CardController {
                 ));
             }
 
+            cardOcrService.cacheResult(imageHash, cardDetails.getId());
             return ResponseEntity.ok(new ApiResponse(true, "Card found successfully", cardDetails));
 
+        } catch (OcrOverloadedException | ImageUploadRejectedException e) {
+            // Let GlobalExceptionHandler answer with the right status (503 + Retry-After, 413, 415...)
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(new ApiResponse(false, "Error processing image: " + e.getMessage(), null));
         }
     }
 
+    /**
+     * Start a scan in the background and return immediately
+     * Progress: GET /api/cards/scans/{jobId} or SSE on /api/cards/scans/{jobId}/events
+     */
+    @PostMapping("/scans")
+    public ResponseEntity<?> startScan(@RequestParam("image") MultipartFile imageFile) {
+        String validationError = validateImage(imageFile);
+        if (validationError != null) {
+            return ResponseEntity.badRequest().body(validationError);
+        }
+
+        byte[] imageData;
+        try {
+            // Copy the upload now - the multipart temp file is gone once this request ends
+            imageData = imageFile.getBytes();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(new ApiResponse(false, "Error reading image: " + e.getMessage(), null));
+        }
+
+        ScanJob job = scanJobService.submit(imageData, imageFile.getOriginalFilename());
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("jobId", job.getId());
+        data.put("statusUrl", "/api/cards/scans/" + job.getId());
+        data.put("eventsUrl", "/api/cards/scans/" + job.getId() + "/events");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ApiResponse(true, "Scan started", data));
+    }
+
+    /**
+     * Scan many photos at once (several "images" parts and/or one ZIP "archive")
+     * Results stream back as NDJSON, one line per image in completion order
+     */
+    @PostMapping(value = "/batch", produces = "application/x-ndjson")
+    public void batchScan(
+            @RequestParam(value = "images", required = false) List<MultipartFile> images,
+            @RequestParam(value = "archive", required = false) MultipartFile archive,
+            HttpServletResponse response) throws IOException {
+
+        boolean hasImages = images != null && images.stream().anyMatch(image -> !image.isEmpty());
+        if (!hasImages && (archive == null || archive.isEmpty())) {
+            response.sendError(400, "No images or archive provided");
+            return;
+        }
+
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        batchScanService.scanBatch(images, archive, response.getOutputStream());
+    }
+
+    @GetMapping("/scans/{jobId}")
+    public ResponseEntity<?> getScan(@PathVariable String jobId) {
+        return scanJobService.getJob(jobId)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(new ApiResponse(true, job.getMessage(), job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/scans/{jobId}/events", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> streamScan(@PathVariable String jobId) {
+        return scanJobService.subscribe(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
     @GetMapping("/search")
     public ResponseEntity<?> searchCard(@RequestParam("name") String cardName) {
@@ -78,6 +192,63 @@ public class CardController {
         }
     }
 
+    private ResponseEntity<?> uploadMultipleCards(StreamingImageDecoder.DecodedUpload upload) {
+        List<CardOCRService.RegionMatch> matches = cardOcrService.recognizeCards(upload.getImage());
+
+        // Resolve every card with one lookup by id and one by name
+        List<Long> cardIds = new ArrayList<>();
+        List<String> cardNames = new ArrayList<>();
+        for (CardOCRService.RegionMatch match : matches) {
+            if (match.getCardId() != null) {
+                cardIds.add(match.getCardId());
+            } else if (match.getCardName() != null) {
+                cardNames.add(match.getCardName());
+            }
+        }
+        Map<Long, CardResponse> cardsById = yugiohApiService.getCardsByIds(cardIds);
+        Map<String, CardResponse> cardsByName = yugiohApiService.getCardsByNames(cardNames);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        int found = 0;
+        for (CardOCRService.RegionMatch match : matches) {
+            CardResponse card = match.getCardId() != null
+                    ? cardsById.get(match.getCardId())
+                    : (match.getCardName() != null ? cardsByName.get(match.getCardName().trim()) : null);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("index", match.getIndex());
+            result.put("bounds", match.getBounds());
+            result.put("found", card != null);
+            result.put("cardName", card != null ? card.getName() : match.getCardName());
+            result.put("matchedBy", match.getMatchedBy());
+            result.put("card", card);
+            if (match.getError() != null) {
+                result.put("error", match.getError());
+            }
+            results.add(result);
+            if (card != null) {
+                found++;
+            }
+        }
+
+        return ResponseEntity.ok(new ApiResponse(found > 0,
+                "Found " + found + " of " + matches.size() + " cards", results));
+    }
+
+    private String validateImage(MultipartFile imageFile) {
+        if (imageFile.isEmpty()) {
+            return "No image file provided";
+        }
+        if (imageFile.getSize() > MAX_IMAGE_BYTES) {
+            return "Image must be 10MB or smaller";
+        }
+        String contentType = imageFile.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return "File must be an image";
+        }
+        return null;
+    }
+
     // Response wrapper class
     public static class ApiResponse {
         private boolean success;
@@ -6,6 +6,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import taf.yugioh.scanner.service.CardArtIndex;
 import taf.yugioh.scanner.service.DatabaseImageService;
 
 import java.util.Optional;
@@ -18,6 +19,9 @@ public class DatabaseImageController {
     @Autowired
     private DatabaseImageService databaseImageService;
 
+    @Autowired
+    private CardArtIndex cardArtIndex;
+
     /**
      * Get regular-sized image from database
      */
@@ -111,6 +115,7 @@ public class DatabaseImageController {
         try {
             if (databaseImageService.imageExists(cardId)) {
                 databaseImageService.deleteCardImage(cardId);
+                cardArtIndex.remove(cardId);
                 return ResponseEntity.ok("Image deleted successfully for card " + cardId);
             } else {
                 return ResponseEntity.notFound().build();
@@ -1,24 +1,49 @@
 package taf.yugioh.scanner.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import taf.yugioh.scanner.dto.*;
 import taf.yugioh.scanner.entity.DeckCard;
 import taf.yugioh.scanner.entity.User;
+import taf.yugioh.scanner.entity.UserDeck;
+import taf.yugioh.scanner.service.DeckArchiveService;
 import taf.yugioh.scanner.service.DeckService;
+import taf.yugioh.scanner.service.DeckSpriteService;
+import taf.yugioh.scanner.service.PublicDeckPayloadCache;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/decks")
 public class DeckController {
 
+    // Deck versions start at 0, so an If-Match that can't match maps to a version no deck has
+    private static final long NO_MATCHING_VERSION = -1L;
+
     @Autowired
     private DeckService deckService;
 
+    @Autowired
+    private DeckSpriteService deckSpriteService;
+
+    @Autowired
+    private DeckArchiveService deckArchiveService;
+
+    @Autowired
+    private PublicDeckPayloadCache publicDeckPayloadCache;
+
     // ==================== Deck CRUD Operations ====================
 
     /**
@@ -60,23 +85,37 @@ public class DeckController {
     }
 
     /**
-     * Get a specific deck by ID
+     * Get a specific deck by ID (ETag is the deck version; 304 if If-None-Match still matches)
      * GET /api/decks/{deckId}
      */
     @GetMapping("/{deckId}")
     public ResponseEntity<ApiResponse<DeckResponse>> getDeck(
             @AuthenticationPrincipal User user,
             @PathVariable Long deckId,
-            @RequestParam(defaultValue = "true") boolean includeCards) {
+            @RequestParam(defaultValue = "true") boolean includeCards,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Authentication required"));
         }
 
+        // Cheap check first: the version only needs the deck row
+        Optional<UserDeck> deck = deckService.findUserDeck(user, deckId);
+        if (deck.isEmpty()) {
+            return ResponseEntity.status(404).body(ApiResponse.error("Deck not found"));
+        }
+        String etag = DeckEtags.forRead(deck.get().getVersion(), includeCards);
+        if (DeckEtags.matchesIfNoneMatch(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
         ApiResponse<DeckResponse> response = deckService.getDeck(user, deckId, includeCards);
 
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(DeckEtags.forRead(response.getData().getVersion(), includeCards))
+                    .body(response);
         } else {
             return ResponseEntity.status(404).body(response);
         }
@@ -84,25 +123,21 @@ public class DeckController {
 
     /**
      * Update deck info (name, description, visibility)
-     * PUT /api/decks/{deckId}
+     * PUT /api/decks/{deckId} (optional If-Match: deck version, 412 if stale)
      */
     @PutMapping("/{deckId}")
     public ResponseEntity<ApiResponse<DeckResponse>> updateDeck(
             @AuthenticationPrincipal User user,
             @PathVariable Long deckId,
-            @Valid @RequestBody DeckRequest request) {
+            @Valid @RequestBody DeckRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Authentication required"));
         }
 
-        ApiResponse<DeckResponse> response = deckService.updateDeck(user, deckId, request);
-
-        if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.status(404).body(response);
-        }
+        ApiResponse<DeckResponse> response = deckService.updateDeck(user, deckId, request, expectedVersion(user, deckId, ifMatch));
+        return buildWriteResponse(response, HttpStatus.NOT_FOUND, DeckResponse::getVersion);
     }
 
     /**
@@ -112,13 +147,14 @@ public class DeckController {
     @DeleteMapping("/{deckId}")
     public ResponseEntity<ApiResponse<Void>> deleteDeck(
             @AuthenticationPrincipal User user,
-            @PathVariable Long deckId) {
+            @PathVariable Long deckId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Authentication required"));
         }
 
-        ApiResponse<Void> response = deckService.deleteDeck(user, deckId);
+        ApiResponse<Void> response = deckService.deleteDeck(user, deckId, expectedVersion(user, deckId, ifMatch));
 
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -131,38 +167,61 @@ public class DeckController {
 
     /**
      * Add a card to deck
-     * POST /api/decks/{deckId}/cards
+     * POST /api/decks/{deckId}/cards?compact=true returns only the changed entry and counters
      */
     @PostMapping("/{deckId}/cards")
-    public ResponseEntity<ApiResponse<DeckResponse>> addCardToDeck(
+    public ResponseEntity<?> addCardToDeck(
             @AuthenticationPrincipal User user,
             @PathVariable Long deckId,
-            @Valid @RequestBody AddCardRequest request) {
+            @Valid @RequestBody AddCardRequest request,
+            @RequestParam(defaultValue = "false") boolean compact,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Authentication required"));
         }
 
-        ApiResponse<DeckResponse> response = deckService.addCardToDeck(user, deckId, request);
+        Long expectedVersion = expectedVersion(user, deckId, ifMatch);
+        if (compact) {
+            return buildWriteResponse(deckService.addCardToDeckDelta(user, deckId, request, expectedVersion),
+                    HttpStatus.BAD_REQUEST, DeckDeltaResponse::getVersion);
+        }
+        return buildWriteResponse(deckService.addCardToDeck(user, deckId, request, expectedVersion),
+                HttpStatus.BAD_REQUEST, DeckResponse::getVersion);
+    }
 
-        if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.badRequest().body(response);
+    /**
+     * Apply several add/remove/move operations at once (all or nothing)
+     * POST /api/decks/{deckId}/cards/batch
+     */
+    @PostMapping("/{deckId}/cards/batch")
+    public ResponseEntity<ApiResponse<DeckBatchResponse>> applyBatch(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long deckId,
+            @Valid @RequestBody DeckBatchRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        if (user == null) {
+            return ResponseEntity.status(401).body(ApiResponse.error("Authentication required"));
         }
+
+        ApiResponse<DeckBatchResponse> response = deckService.applyBatch(user, deckId, request, expectedVersion(user, deckId, ifMatch));
+        return buildWriteResponse(response, HttpStatus.BAD_REQUEST, DeckBatchResponse::getVersion);
     }
 
     /**
      * Remove a card from deck
-     * DELETE /api/decks/{deckId}/cards/{cardId}
+     * DELETE /api/decks/{deckId}/cards/{cardId}?compact=true returns only the changed entry and counters
      */
     @DeleteMapping("/{deckId}/cards/{cardId}")
-    public ResponseEntity<ApiResponse<DeckResponse>> removeCardFromDeck(
+    public ResponseEntity<?> removeCardFromDeck(
             @AuthenticationPrincipal User user,
             @PathVariable Long deckId,
             @PathVariable Long cardId,
             @RequestParam(required = false) DeckCard.DeckType deckType,
-            @RequestParam(required = false) Integer quantity) {
+            @RequestParam(required = false) Integer quantity,
+            @RequestParam(defaultValue = "false") boolean compact,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Authentication required"));
@@ -173,15 +232,15 @@ public class DeckController {
             deckType = DeckCard.DeckType.MAIN;
         }
 
-        ApiResponse<DeckResponse> response = deckService.removeCardFromDeck(
-                user, deckId, cardId, deckType, quantity
-        );
-
-        if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.badRequest().body(response);
+        Long expectedVersion = expectedVersion(user, deckId, ifMatch);
+        if (compact) {
+            return buildWriteResponse(
+                    deckService.removeCardFromDeckDelta(user, deckId, cardId, deckType, quantity, expectedVersion),
+                    HttpStatus.BAD_REQUEST, DeckDeltaResponse::getVersion);
         }
+        return buildWriteResponse(
+                deckService.removeCardFromDeck(user, deckId, cardId, deckType, quantity, expectedVersion),
+                HttpStatus.BAD_REQUEST, DeckResponse::getVersion);
     }
 
     // ==================== Validation ====================
@@ -208,10 +267,75 @@ public class DeckController {
         }
     }
 
+    // ==================== Deck Images ====================
+
+    /**
+     * Get all of a deck's thumbnails as a single JPEG atlas
+     * GET /api/decks/{deckId}/sprite
+     */
+    @GetMapping("/{deckId}/sprite")
+    public ResponseEntity<byte[]> getDeckSprite(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long deckId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        if (deckService.findUserDeck(user, deckId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return buildSpriteImageResponse(deckId, ifNoneMatch, "private, max-age=3600");
+    }
+
+    /**
+     * Get the card coordinates inside the deck atlas
+     * GET /api/decks/{deckId}/sprite/map
+     */
+    @GetMapping("/{deckId}/sprite/map")
+    public ResponseEntity<ApiResponse<DeckSpriteResponse>> getDeckSpriteMap(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long deckId) {
+
+        if (user == null) {
+            return ResponseEntity.status(401).body(ApiResponse.error("Authentication required"));
+        }
+        if (deckService.findUserDeck(user, deckId).isEmpty()) {
+            return ResponseEntity.status(404).body(ApiResponse.error("Deck not found"));
+        }
+
+        DeckSpriteResponse response = deckSpriteService.getSpriteMap(deckId, false);
+        return ResponseEntity.ok(ApiResponse.success("Deck sprite map retrieved", response));
+    }
+
+    /**
+     * Download every image in a deck as a ZIP (streamed, not buffered)
+     * GET /api/decks/{deckId}/images.zip
+     */
+    @GetMapping("/{deckId}/images.zip")
+    public void downloadDeckImages(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long deckId,
+            @RequestParam(defaultValue = "false") boolean small,
+            HttpServletResponse response) throws IOException {
+
+        if (user == null) {
+            response.sendError(401, "Authentication required");
+            return;
+        }
+        if (deckService.findUserDeck(user, deckId).isEmpty()) {
+            response.sendError(404, "Deck not found");
+            return;
+        }
+
+        streamDeckArchive(deckId, small, response);
+    }
+
     // ==================== Public Decks ====================
 
     /**
-     * Get all public decks (no auth required)
+     * Get all public decks, newest first (no auth required)
      * GET /api/decks/public
      */
     @GetMapping("/public")
@@ -221,17 +345,179 @@ public class DeckController {
     }
 
     /**
-     * Get a specific public deck (no auth required)
+     * Get a page of public decks, newest first (no auth required)
+     * GET /api/decks/public/feed?cursor=...&limit=20
+     */
+    @GetMapping("/public/feed")
+    public ResponseEntity<ApiResponse<PublicDeckPage>> getPublicDeckPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        ApiResponse<PublicDeckPage> response = deckService.getPublicDeckPage(cursor, limit);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic())
+                .body(response);
+    }
+
+    /**
+     * Get a public deck's thumbnails as a single JPEG atlas (no auth required)
+     * GET /api/decks/public/{deckId}/sprite
+     */
+    @GetMapping("/public/{deckId}/sprite")
+    public ResponseEntity<byte[]> getPublicDeckSprite(
+            @PathVariable Long deckId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        if (deckService.findPublicDeck(deckId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return buildSpriteImageResponse(deckId, ifNoneMatch, "public, max-age=3600");
+    }
+
+    /**
+     * Get the card coordinates inside a public deck's atlas (no auth required)
+     * GET /api/decks/public/{deckId}/sprite/map
+     */
+    @GetMapping("/public/{deckId}/sprite/map")
+    public ResponseEntity<ApiResponse<DeckSpriteResponse>> getPublicDeckSpriteMap(@PathVariable Long deckId) {
+        if (deckService.findPublicDeck(deckId).isEmpty()) {
+            return ResponseEntity.status(404).body(ApiResponse.error("Deck not found"));
+        }
+
+        DeckSpriteResponse response = deckSpriteService.getSpriteMap(deckId, true);
+        return ResponseEntity.ok(ApiResponse.success("Deck sprite map retrieved", response));
+    }
+
+    /**
+     * Download every image in a public deck as a ZIP (no auth required)
+     * GET /api/decks/public/{deckId}/images.zip
+     */
+    @GetMapping("/public/{deckId}/images.zip")
+    public void downloadPublicDeckImages(
+            @PathVariable Long deckId,
+            @RequestParam(defaultValue = "false") boolean small,
+            HttpServletResponse response) throws IOException {
+
+        if (deckService.findPublicDeck(deckId).isEmpty()) {
+            response.sendError(404, "Deck not found");
+            return;
+        }
+
+        streamDeckArchive(deckId, small, response);
+    }
+
+    /**
+     * Get a specific public deck (no auth required). Served from the serialized payload
+     * cache; ETag is the deck version plus a body checksum (card data can change without
+     * a deck write), 304 if If-None-Match still matches.
      * GET /api/decks/public/{deckId}
      */
     @GetMapping("/public/{deckId}")
-    public ResponseEntity<ApiResponse<DeckResponse>> getPublicDeck(@PathVariable Long deckId) {
-        ApiResponse<DeckResponse> response = deckService.getPublicDeck(deckId);
+    public ResponseEntity<?> getPublicDeck(
+            @PathVariable Long deckId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
-        if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+        Optional<UserDeck> deck = deckService.findPublicDeck(deckId);
+        if (deck.isEmpty()) {
+            return ResponseEntity.status(404).body(ApiResponse.error("Deck not found"));
+        }
+
+        // A cache hit is cheap, so the 304 check can use the payload's own tag
+        PublicDeckPayloadCache.Payload payload = publicDeckPayloadCache.get(
+                deckId, deck.get().getVersion(), () -> deckService.getPublicDeck(deckId));
+        if (payload == null) {
+            return ResponseEntity.status(404).body(ApiResponse.error("Deck not found"));
+        }
+        if (DeckEtags.matchesIfNoneMatch(ifNoneMatch, payload.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(payload.getEtag()).build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setCacheControl(CacheControl.noCache().cachePublic());
+        headers.setETag(payload.getEtag());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+
+        byte[] body = payload.getJson();
+        if (payload.getGzipped() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            // Already compressed: the container skips responses that carry a Content-Encoding
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = payload.getGzipped();
+        }
+        headers.setContentLength(body.length);
+
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Expected deck version for a conditional write (see {@link DeckEtags}), or null without If-Match.
+     * With several tags the one naming the current version is used; the write re-checks it atomically.
+     */
+    private Long expectedVersion(User user, Long deckId, String ifMatch) {
+        List<Long> versions = DeckEtags.parseIfMatch(ifMatch);
+        if (versions == null) {
+            return null;
+        }
+        if (versions.isEmpty()) {
+            return NO_MATCHING_VERSION;
+        }
+        if (versions.size() > 1) {
+            Optional<UserDeck> deck = deckService.findUserDeck(user, deckId);
+            if (deck.isPresent() && versions.contains(deck.get().getVersion())) {
+                return deck.get().getVersion();
+            }
+        }
+        return versions.get(0);
+    }
+
+    /**
+     * Successful writes carry the deck's new version as their ETag, for the next If-Match
+     */
+    private <T> ResponseEntity<ApiResponse<T>> buildWriteResponse(ApiResponse<T> response, HttpStatus failureStatus,
+                                                                  Function<T, Long> version) {
+        if (!response.isSuccess()) {
+            return ResponseEntity.status(failureStatus).body(response);
+        }
+        return ResponseEntity.ok()
+                .eTag(DeckEtags.forWrite(version.apply(response.getData())))
+                .body(response);
+    }
+
+    private void streamDeckArchive(Long deckId, boolean small, HttpServletResponse response) throws IOException {
+        // No Content-Length: the archive is written entry by entry (chunked)
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"deck-" + deckId + (small ? "-small" : "") + ".zip\"");
+        deckArchiveService.writeDeckArchive(deckId, small, response.getOutputStream());
+    }
+
+    private ResponseEntity<byte[]> buildSpriteImageResponse(Long deckId, String ifNoneMatch, String cacheControl) {
+        // Cheap check first: the content hash only needs the deck's card IDs
+        String etag = "\"" + deckSpriteService.getContentHash(deckId) + "\"";
+        if (DeckEtags.matchesIfNoneMatch(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        DeckSpriteService.DeckSprite sprite = deckSpriteService.getSprite(deckId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.IMAGE_JPEG);
+        headers.setContentLength(sprite.getImageBytes().length);
+        if (sprite.getMissingCardIds().isEmpty()) {
+            headers.setCacheControl(cacheControl);
+            headers.setETag("\"" + sprite.getHash() + "\"");
         } else {
-            return ResponseEntity.status(404).body(response);
+            // Some tiles are still placeholders; the complete atlas will share this content hash
+            headers.setCacheControl(CacheControl.noStore());
+            headers.setETag("\"" + sprite.getHash() + "-partial\"");
         }
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(sprite.getImageBytes());
     }
-}
\ No newline at end of file
+}
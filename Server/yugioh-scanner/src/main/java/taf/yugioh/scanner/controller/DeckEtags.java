@@ -0,0 +1,118 @@
+package taf.yugioh.scanner.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entity tags for deck resources.
+ *
+ * The deck version is a strong validator for the deck's state: every write bumps it.
+ * Reads send it as a weak tag (W/"7", or W/"7-summary" for the variant without cards)
+ * so the container may still gzip the body, since it skips compression for strong tags.
+ * Writes answer with the strong tag ("7"), which is what If-Match expects: RFC 9110
+ * compares If-Match strongly, so weak and summary tags never satisfy it.
+ */
+final class DeckEtags {
+
+    private DeckEtags() {
+    }
+
+    /**
+     * Weak tag for a GET of the deck (full or summary representation)
+     */
+    static String forRead(long version, boolean includeCards) {
+        return "W/\"" + version + (includeCards ? "" : "-summary") + "\"";
+    }
+
+    /**
+     * Strong tag for the deck state after a write, for the next If-Match
+     */
+    static String forWrite(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Weak comparison of an If-None-Match header (a tag list or "*") against the current tag
+     */
+    static boolean matchesIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        if (ifNoneMatch.trim().equals("*")) {
+            return true;
+        }
+        String current = opaqueTag(etag);
+        for (String tag : splitTags(ifNoneMatch)) {
+            if (opaqueTag(tag).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deck versions named by the strong tags of an If-Match header.
+     *
+     * @return null if the header is absent or "*" (no precondition); an empty list if no
+     *         tag can match (only weak, summary or unknown tags), so the write must fail
+     */
+    static List<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String tag : splitTags(ifMatch)) {
+            if (tag.startsWith("W/")) {
+                continue;
+            }
+            try {
+                versions.add(Long.parseLong(opaqueTag(tag)));
+            } catch (NumberFormatException e) {
+                // Not one of ours (e.g. a summary tag) - it simply doesn't match
+            }
+        }
+        return versions;
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Split a comma-separated entity-tag list, keeping commas inside quotes
+     */
+    private static List<String> splitTags(String header) {
+        List<String> tags = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (char c : header.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            }
+            if (c == ',' && !quoted) {
+                addTag(tags, current);
+            } else {
+                current.append(c);
+            }
+        }
+        addTag(tags, current);
+        return tags;
+    }
+
+    private static void addTag(List<String> tags, StringBuilder current) {
+        String tag = current.toString().trim();
+        if (!tag.isEmpty()) {
+            tags.add(tag);
+        }
+        current.setLength(0);
+    }
+
+    /**
+     * The quoted part of a tag without W/ and quotes
+     */
+    private static String opaqueTag(String tag) {
+        String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+        if (opaque.length() >= 2 && opaque.startsWith("\"") && opaque.endsWith("\"")) {
+            opaque = opaque.substring(1, opaque.length() - 1);
+        }
+        return opaque;
+    }
+}
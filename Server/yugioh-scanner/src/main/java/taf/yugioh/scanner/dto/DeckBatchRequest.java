@@ -0,0 +1,81 @@
+package taf.yugioh.scanner.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import taf.yugioh.scanner.entity.DeckCard;
+
+import java.util.List;
+
+public class DeckBatchRequest {
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 200, message = "A batch cannot contain more than 200 operations")
+    private List<@Valid Operation> operations;
+
+    // Constructors
+    public DeckBatchRequest() {}
+
+    public DeckBatchRequest(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    // Getters and Setters
+    public List<Operation> getOperations() { return operations; }
+    public void setOperations(List<Operation> operations) { this.operations = operations; }
+
+    public enum OperationType {
+        ADD, REMOVE, MOVE
+    }
+
+    public static class Operation {
+
+        @NotNull(message = "Operation type is required")
+        private OperationType type;
+
+        @NotNull(message = "Card ID is required")
+        private Long cardId;
+
+        // Copies to add, remove or move (null removes/moves every copy in the section)
+        @Min(value = 1, message = "Quantity must be at least 1")
+        @Max(value = 3, message = "Quantity cannot exceed 3")
+        private Integer quantity;
+
+        // Section to add to, or remove/move from
+        private DeckCard.DeckType deckType = DeckCard.DeckType.MAIN;
+
+        // Section to move to (MOVE only)
+        private DeckCard.DeckType targetDeckType;
+
+        // Constructors
+        public Operation() {}
+
+        public Operation(OperationType type, Long cardId, Integer quantity,
+                         DeckCard.DeckType deckType, DeckCard.DeckType targetDeckType) {
+            this.type = type;
+            this.cardId = cardId;
+            this.quantity = quantity;
+            this.deckType = deckType;
+            this.targetDeckType = targetDeckType;
+        }
+
+        // Getters and Setters
+        public OperationType getType() { return type; }
+        public void setType(OperationType type) { this.type = type; }
+
+        public Long getCardId() { return cardId; }
+        public void setCardId(Long cardId) { this.cardId = cardId; }
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+        public DeckCard.DeckType getDeckType() { return deckType; }
+        public void setDeckType(DeckCard.DeckType deckType) { this.deckType = deckType; }
+
+        public DeckCard.DeckType getTargetDeckType() { return targetDeckType; }
+        public void setTargetDeckType(DeckCard.DeckType targetDeckType) { this.targetDeckType = targetDeckType; }
+    }
+}
@@ -0,0 +1,71 @@
+package taf.yugioh.scanner.dto;
+
+import taf.yugioh.scanner.entity.DeckCard;
+
+import java.util.List;
+
+/**
+ * Result of a batch edit: the deck's new counts and validity plus only the rows that changed
+ */
+public class DeckBatchResponse {
+
+    private Long deckId;
+    private long version;
+    private int appliedOperations;
+    private int mainDeckCount;
+    private int extraDeckCount;
+    private int sideDeckCount;
+    private boolean valid;
+    private List<String> validationErrors;
+    private List<ChangedCard> changes;
+
+    // Constructors
+    public DeckBatchResponse() {}
+
+    // Getters and Setters
+    public Long getDeckId() { return deckId; }
+    public void setDeckId(Long deckId) { this.deckId = deckId; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public int getAppliedOperations() { return appliedOperations; }
+    public void setAppliedOperations(int appliedOperations) { this.appliedOperations = appliedOperations; }
+
+    public int getMainDeckCount() { return mainDeckCount; }
+    public void setMainDeckCount(int mainDeckCount) { this.mainDeckCount = mainDeckCount; }
+
+    public int getExtraDeckCount() { return extraDeckCount; }
+    public void setExtraDeckCount(int extraDeckCount) { this.extraDeckCount = extraDeckCount; }
+
+    public int getSideDeckCount() { return sideDeckCount; }
+    public void setSideDeckCount(int sideDeckCount) { this.sideDeckCount = sideDeckCount; }
+
+    public int getTotalCards() { return mainDeckCount + extraDeckCount + sideDeckCount; }
+
+    public boolean isValid() { return valid; }
+    public void setValid(boolean valid) { this.valid = valid; }
+
+    public List<String> getValidationErrors() { return validationErrors; }
+    public void setValidationErrors(List<String> validationErrors) { this.validationErrors = validationErrors; }
+
+    public List<ChangedCard> getChanges() { return changes; }
+    public void setChanges(List<ChangedCard> changes) { this.changes = changes; }
+
+    public static class ChangedCard {
+        private final Long cardId;
+        private final DeckCard.DeckType deckType;
+        // New quantity in this section (0 = removed)
+        private final int quantity;
+
+        public ChangedCard(Long cardId, DeckCard.DeckType deckType, int quantity) {
+            this.cardId = cardId;
+            this.deckType = deckType;
+            this.quantity = quantity;
+        }
+
+        public Long getCardId() { return cardId; }
+        public DeckCard.DeckType getDeckType() { return deckType; }
+        public int getQuantity() { return quantity; }
+    }
+}
@@ -28,6 +28,11 @@ public class DeckCardDTO {
 
     // Factory method from DeckCard entity
     public static DeckCardDTO fromEntity(DeckCard deckCard, String baseImageUrl) {
+        return fromEntity(deckCard, deckCard.getCard(), baseImageUrl);
+    }
+
+    // Factory method for rows whose card isn't attached yet (e.g. just inserted)
+    public static DeckCardDTO fromEntity(DeckCard deckCard, Card card, String baseImageUrl) {
         DeckCardDTO dto = new DeckCardDTO();
         dto.setId(deckCard.getId());
         dto.setCardId(deckCard.getCardId());
@@ -35,7 +40,6 @@ public class DeckCardDTO {
         dto.setDeckType(deckCard.getDeckType().name());
 
         // Get card details if available
-        Card card = deckCard.getCard();
         if (card != null) {
             dto.setCardName(card.getName());
             dto.setCardType(card.getType());
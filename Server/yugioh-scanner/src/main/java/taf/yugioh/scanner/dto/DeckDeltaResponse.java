@@ -0,0 +1,51 @@
+package taf.yugioh.scanner.dto;
+
+import java.util.List;
+
+/**
+ * Compact result of a single card mutation: the changed entries, the deck's new counts,
+ * validity and version. Clients patch their local copy of the deck instead of reloading it.
+ */
+public class DeckDeltaResponse {
+
+    private Long deckId;
+    private long version;
+    private int mainDeckCount;
+    private int extraDeckCount;
+    private int sideDeckCount;
+    private boolean valid;
+    private List<String> validationErrors;
+
+    // Changed entries with their new quantity (0 = removed from that section)
+    private List<DeckCardDTO> changes;
+
+    // Constructors
+    public DeckDeltaResponse() {}
+
+    // Getters and Setters
+    public Long getDeckId() { return deckId; }
+    public void setDeckId(Long deckId) { this.deckId = deckId; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public int getMainDeckCount() { return mainDeckCount; }
+    public void setMainDeckCount(int mainDeckCount) { this.mainDeckCount = mainDeckCount; }
+
+    public int getExtraDeckCount() { return extraDeckCount; }
+    public void setExtraDeckCount(int extraDeckCount) { this.extraDeckCount = extraDeckCount; }
+
+    public int getSideDeckCount() { return sideDeckCount; }
+    public void setSideDeckCount(int sideDeckCount) { this.sideDeckCount = sideDeckCount; }
+
+    public int getTotalCards() { return mainDeckCount + extraDeckCount + sideDeckCount; }
+
+    public boolean isValid() { return valid; }
+    public void setValid(boolean valid) { this.valid = valid; }
+
+    public List<String> getValidationErrors() { return validationErrors; }
+    public void setValidationErrors(List<String> validationErrors) { this.validationErrors = validationErrors; }
+
+    public List<DeckCardDTO> getChanges() { return changes; }
+    public void setChanges(List<DeckCardDTO> changes) { this.changes = changes; }
+}
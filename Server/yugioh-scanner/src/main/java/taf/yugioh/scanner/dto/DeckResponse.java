@@ -1,6 +1,7 @@
 package taf.yugioh.scanner.dto;
 
 import taf.yugioh.scanner.entity.UserDeck;
+import taf.yugioh.scanner.repository.UserDeckRepository;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -13,6 +14,7 @@ public class DeckResponse {
     private String ownerUsername;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     // Card counts
     private int mainDeckCount;
@@ -42,6 +44,25 @@ public class DeckResponse {
         response.setOwnerUsername(deck.getUser().getUsername());
         response.setCreatedAt(deck.getCreatedAt());
         response.setUpdatedAt(deck.getUpdatedAt());
+        response.setVersion(deck.getVersion());
+        return response;
+    }
+
+    // Factory method from a list summary row (counts included, no cards)
+    public static DeckResponse fromSummary(UserDeckRepository.DeckSummary summary) {
+        DeckResponse response = new DeckResponse();
+        response.setId(summary.getId());
+        response.setName(summary.getName());
+        response.setDescription(summary.getDescription());
+        response.setIsPublic(summary.getIsPublic());
+        response.setOwnerUsername(summary.getOwnerUsername());
+        response.setCreatedAt(summary.getCreatedAt());
+        response.setUpdatedAt(summary.getUpdatedAt());
+        response.setVersion(summary.getVersion());
+        response.setMainDeckCount(summary.getMainDeckCount());
+        response.setExtraDeckCount(summary.getExtraDeckCount());
+        response.setSideDeckCount(summary.getSideDeckCount());
+        response.setTotalCards(summary.getMainDeckCount() + summary.getExtraDeckCount() + summary.getSideDeckCount());
         return response;
     }
 
@@ -67,6 +88,9 @@ public class DeckResponse {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public int getMainDeckCount() { return mainDeckCount; }
     public void setMainDeckCount(int mainDeckCount) { this.mainDeckCount = mainDeckCount; }
 
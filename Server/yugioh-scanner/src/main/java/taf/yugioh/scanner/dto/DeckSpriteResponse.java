@@ -0,0 +1,80 @@
+package taf.yugioh.scanner.dto;
+
+import java.util.List;
+
+public class DeckSpriteResponse {
+
+    private Long deckId;
+    private String hash;
+    private String spriteUrl;
+
+    // Atlas layout
+    private int tileWidth;
+    private int tileHeight;
+    private int columns;
+    private int width;
+    private int height;
+
+    // Card positions inside the atlas
+    private List<Tile> tiles;
+
+    // Cards with no stored image (client should fall back to /api/images/{id}/small)
+    private List<Long> missingCardIds;
+
+    // Constructors
+    public DeckSpriteResponse() {}
+
+    // Getters and Setters
+    public Long getDeckId() { return deckId; }
+    public void setDeckId(Long deckId) { this.deckId = deckId; }
+
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+
+    public String getSpriteUrl() { return spriteUrl; }
+    public void setSpriteUrl(String spriteUrl) { this.spriteUrl = spriteUrl; }
+
+    public int getTileWidth() { return tileWidth; }
+    public void setTileWidth(int tileWidth) { this.tileWidth = tileWidth; }
+
+    public int getTileHeight() { return tileHeight; }
+    public void setTileHeight(int tileHeight) { this.tileHeight = tileHeight; }
+
+    public int getColumns() { return columns; }
+    public void setColumns(int columns) { this.columns = columns; }
+
+    public int getWidth() { return width; }
+    public void setWidth(int width) { this.width = width; }
+
+    public int getHeight() { return height; }
+    public void setHeight(int height) { this.height = height; }
+
+    public List<Tile> getTiles() { return tiles; }
+    public void setTiles(List<Tile> tiles) { this.tiles = tiles; }
+
+    public List<Long> getMissingCardIds() { return missingCardIds; }
+    public void setMissingCardIds(List<Long> missingCardIds) { this.missingCardIds = missingCardIds; }
+
+    public static class Tile {
+        private Long cardId;
+        private int x;
+        private int y;
+
+        public Tile() {}
+
+        public Tile(Long cardId, int x, int y) {
+            this.cardId = cardId;
+            this.x = x;
+            this.y = y;
+        }
+
+        public Long getCardId() { return cardId; }
+        public void setCardId(Long cardId) { this.cardId = cardId; }
+
+        public int getX() { return x; }
+        public void setX(int x) { this.x = x; }
+
+        public int getY() { return y; }
+        public void setY(int y) { this.y = y; }
+    }
+}
@@ -0,0 +1,31 @@
+package taf.yugioh.scanner.dto;
+
+import java.util.List;
+
+public class PublicDeckPage {
+
+    private List<DeckResponse> decks;
+
+    // Opaque cursor for the next page (null on the last page)
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Constructors
+    public PublicDeckPage() {}
+
+    public PublicDeckPage(List<DeckResponse> decks, String nextCursor) {
+        this.decks = decks;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    // Getters and Setters
+    public List<DeckResponse> getDecks() { return decks; }
+    public void setDecks(List<DeckResponse> decks) { this.decks = decks; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
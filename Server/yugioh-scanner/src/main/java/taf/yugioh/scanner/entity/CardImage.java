@@ -15,9 +15,20 @@ public class CardImage {
     @Column(name = "card_id", unique = true, nullable = false)
     private Long cardId;
 
-    // Fixed BYTEA columns with proper annotations
+    // Content hashes of the image bytes, stored once in image_blobs
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    @Column(name = "small_image_hash", length = 64)
+    private String smallImageHash;
+
+    // 64-bit dHash of the card art box, used to recognise scans without OCR
+    @Column(name = "art_hash")
+    private Long artHash;
+
+    // Legacy inline BYTEA columns (null once the row references image_blobs)
     @Lob
-    @Column(name = "image_data", nullable = false, columnDefinition = "bytea")
+    @Column(name = "image_data", columnDefinition = "bytea")
     @JdbcTypeCode(SqlTypes.LONGVARBINARY)
     private byte[] imageData;
 
@@ -67,6 +78,15 @@ public class CardImage {
     public Long getCardId() { return cardId; }
     public void setCardId(Long cardId) { this.cardId = cardId; }
 
+    public String getImageHash() { return imageHash; }
+    public void setImageHash(String imageHash) { this.imageHash = imageHash; }
+
+    public String getSmallImageHash() { return smallImageHash; }
+    public void setSmallImageHash(String smallImageHash) { this.smallImageHash = smallImageHash; }
+
+    public Long getArtHash() { return artHash; }
+    public void setArtHash(Long artHash) { this.artHash = artHash; }
+
     public byte[] getImageData() { return imageData; }
     public void setImageData(byte[] imageData) { 
         this.imageData = imageData;
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "deck_cards")
+// Copy-limit checks sum one card's rows within a deck
+@Table(name = "deck_cards", indexes = {
+        @Index(name = "idx_deck_cards_deck_card", columnList = "deck_id, card_id")
+})
 public class DeckCard {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
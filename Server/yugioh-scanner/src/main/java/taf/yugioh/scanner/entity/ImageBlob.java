@@ -0,0 +1,77 @@
+package taf.yugioh.scanner.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Image bytes stored once per SHA-256, shared by every card_images row that references the hash
+ */
+@Entity
+@Table(name = "image_blobs")
+public class ImageBlob {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    // Where the bytes currently live; data is null unless this is DATABASE
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_location", length = 20)
+    private StorageLocation location = StorageLocation.DATABASE;
+
+    @Lob
+    @Column(name = "data", columnDefinition = "bytea")
+    @JdbcTypeCode(SqlTypes.LONGVARBINARY)
+    private byte[] data;
+
+    @Column(name = "size", nullable = false)
+    private Integer size;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 0;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public enum StorageLocation {
+        DATABASE, FILESYSTEM
+    }
+
+    // Constructors
+    public ImageBlob() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public ImageBlob(String hash, byte[] data) {
+        this();
+        this.hash = hash;
+        this.data = data;
+        this.size = data.length;
+        this.refCount = 1;
+    }
+
+    // Getters and Setters
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+
+    public StorageLocation getLocation() {
+        // Rows written before storage_location existed are in the database
+        return location != null ? location : StorageLocation.DATABASE;
+    }
+    public void setLocation(StorageLocation location) { this.location = location; }
+
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+
+    public Integer getSize() { return size; }
+    public void setSize(Integer size) { this.size = size; }
+
+    public Integer getRefCount() { return refCount; }
+    public void setRefCount(Integer refCount) { this.refCount = refCount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
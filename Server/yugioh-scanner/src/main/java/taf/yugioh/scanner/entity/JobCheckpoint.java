@@ -0,0 +1,53 @@
+package taf.yugioh.scanner.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress marker for resumable background jobs (last processed key per job)
+ */
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "last_key")
+    private String lastKey;
+
+    @Column(name = "processed_count")
+    private Long processedCount = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public JobCheckpoint() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public JobCheckpoint(String jobName) {
+        this();
+        this.jobName = jobName;
+    }
+
+    // Getters and Setters
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public String getLastKey() { return lastKey; }
+    public void setLastKey(String lastKey) { this.lastKey = lastKey; }
+
+    public Long getProcessedCount() { return processedCount; }
+    public void setProcessedCount(Long processedCount) { this.processedCount = processedCount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -5,7 +5,10 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "user_decks")
+// Keyset pagination of the public deck feed walks (created_at, id) newest first
+@Table(name = "user_decks", indexes = {
+        @Index(name = "idx_user_decks_public_created", columnList = "is_public, created_at DESC, id DESC")
+})
 public class UserDeck {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +36,32 @@ public class UserDeck {
     @OneToMany(mappedBy = "deck", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<DeckCard> deckCards;
 
+    // Denormalized summary, kept in step with deck_cards by DeckService (null until backfilled)
+    @Column(name = "main_count")
+    private Integer mainCount;
+
+    @Column(name = "extra_count")
+    private Integer extraCount;
+
+    @Column(name = "side_count")
+    private Integer sideCount;
+
+    // Distinct cards with more copies than allowed across all sections
+    @Column(name = "over_limit_cards")
+    private Integer overLimitCards;
+
+    // Deck rows whose card doesn't belong in that section (Extra Deck monster in Main, etc.)
+    @Column(name = "misplaced_cards")
+    private Integer misplacedCards;
+
+    @Column(name = "is_valid")
+    private Boolean isValid;
+
+    // Bumped on every change to the deck or its cards; the default fills in existing rows
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private long version;
+
     // Constructors
     public UserDeck() {
         this.createdAt = LocalDateTime.now();
@@ -67,9 +96,62 @@ public class UserDeck {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public long getVersion() { return version; }
+
     public Set<DeckCard> getDeckCards() { return deckCards; }
     public void setDeckCards(Set<DeckCard> deckCards) { this.deckCards = deckCards; }
 
+    public Integer getMainCount() { return mainCount; }
+    public void setMainCount(Integer mainCount) { this.mainCount = mainCount; }
+
+    public Integer getExtraCount() { return extraCount; }
+    public void setExtraCount(Integer extraCount) { this.extraCount = extraCount; }
+
+    public Integer getSideCount() { return sideCount; }
+    public void setSideCount(Integer sideCount) { this.sideCount = sideCount; }
+
+    public Integer getOverLimitCards() { return overLimitCards; }
+    public void setOverLimitCards(Integer overLimitCards) { this.overLimitCards = overLimitCards; }
+
+    public Integer getMisplacedCards() { return misplacedCards; }
+    public void setMisplacedCards(Integer misplacedCards) { this.misplacedCards = misplacedCards; }
+
+    public Boolean getIsValid() { return isValid; }
+    public void setIsValid(Boolean isValid) { this.isValid = isValid; }
+
+    /**
+     * Counters for an empty deck
+     */
+    public void resetCounters() {
+        this.mainCount = 0;
+        this.extraCount = 0;
+        this.sideCount = 0;
+        this.overLimitCards = 0;
+        this.misplacedCards = 0;
+        this.isValid = false;
+    }
+
+    public boolean hasCounters() {
+        return mainCount != null && extraCount != null && sideCount != null
+                && overLimitCards != null && misplacedCards != null;
+    }
+
+    public int getSectionCount(DeckCard.DeckType deckType) {
+        return switch (deckType) {
+            case MAIN -> mainCount;
+            case EXTRA -> extraCount;
+            case SIDE -> sideCount;
+        };
+    }
+
+    public void addToSectionCount(DeckCard.DeckType deckType, int delta) {
+        switch (deckType) {
+            case MAIN -> mainCount += delta;
+            case EXTRA -> extraCount += delta;
+            case SIDE -> sideCount += delta;
+        }
+    }
+
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -0,0 +1,18 @@
+package taf.yugioh.scanner.exception;
+
+/**
+ * Thrown when a write's If-Match version is not the deck's current version
+ */
+public class DeckVersionMismatchException extends RuntimeException {
+
+    private final long currentVersion;
+
+    public DeckVersionMismatchException(long currentVersion) {
+        super("Deck has been modified since it was loaded (current version " + currentVersion + ")");
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
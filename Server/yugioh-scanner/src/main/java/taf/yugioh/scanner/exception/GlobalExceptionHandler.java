@@ -1,5 +1,7 @@
 package taf.yugioh.scanner.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -49,6 +51,46 @@ public class GlobalExceptionHandler {
         );
     }
 
+    /**
+     * Handle OCR load shedding - tell the client when to retry
+     */
+    @ExceptionHandler(OcrOverloadedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleOcrOverloadedException(OcrOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    /**
+     * Handle uploads rejected while streaming (not an image, too large)
+     */
+    @ExceptionHandler(ImageUploadRejectedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleImageUploadRejectedException(ImageUploadRejectedException ex) {
+        return ResponseEntity.status(ex.getStatus()).body(ApiResponse.error(ex.getMessage()));
+    }
+
+    /**
+     * Handle writes sent with a stale If-Match deck version
+     */
+    @ExceptionHandler(DeckVersionMismatchException.class)
+    public ResponseEntity<ApiResponse<Void>> handleDeckVersionMismatchException(DeckVersionMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag("\"" + ex.getCurrentVersion() + "\"")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    /**
+     * Handle concurrent writes to the same deck (the other write won)
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<Void>> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex) {
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                ApiResponse.error("The deck was changed by another request. Reload it and try again.")
+        );
+    }
+
     /**
      * Handle generic runtime exceptions
      */
@@ -0,0 +1,21 @@
+package taf.yugioh.scanner.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown while an upload is still streaming in, as soon as it is clear it can't be accepted
+ * (not an image, too many bytes or too many pixels)
+ */
+public class ImageUploadRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public ImageUploadRejectedException(String message, HttpStatus status) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
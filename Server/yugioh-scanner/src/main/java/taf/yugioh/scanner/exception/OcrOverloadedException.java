@@ -0,0 +1,18 @@
+package taf.yugioh.scanner.exception;
+
+/**
+ * Thrown when the OCR dispatcher sheds load (queue full or no slot before the deadline)
+ */
+public class OcrOverloadedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public OcrOverloadedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
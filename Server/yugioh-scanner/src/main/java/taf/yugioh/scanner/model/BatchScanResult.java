@@ -0,0 +1,50 @@
+package taf.yugioh.scanner.model;
+
+/**
+ * Result for one image of a batch scan, written as one NDJSON line
+ */
+public class BatchScanResult {
+
+    private int index;
+    private String filename;
+    private boolean success;
+    private String message;
+    private String cardName;
+    private CardResponse card;
+    // How the card was recognised: cache, art or ocr
+    private String matchedBy;
+    private long elapsedMs;
+
+    public BatchScanResult() {
+    }
+
+    public BatchScanResult(int index, String filename) {
+        this.index = index;
+        this.filename = filename;
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getFilename() { return filename; }
+    public void setFilename(String filename) { this.filename = filename; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public String getCardName() { return cardName; }
+    public void setCardName(String cardName) { this.cardName = cardName; }
+
+    public CardResponse getCard() { return card; }
+    public void setCard(CardResponse card) { this.card = card; }
+
+    public String getMatchedBy() { return matchedBy; }
+    public void setMatchedBy(String matchedBy) { this.matchedBy = matchedBy; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+}
@@ -0,0 +1,36 @@
+package taf.yugioh.scanner.model;
+
+/**
+ * One line of text read by the OCR server
+ */
+public class OcrCandidate {
+
+    private String text;
+    private String cleaned;
+    private double confidence;
+    // x0, y0, x1, y1 in pixels of the image sent to the OCR server
+    private double[] bbox;
+
+    public OcrCandidate() {
+    }
+
+    public OcrCandidate(String text, String cleaned, double confidence, double[] bbox) {
+        this.text = text;
+        this.cleaned = cleaned;
+        this.confidence = confidence;
+        this.bbox = bbox;
+    }
+
+    // Getters and Setters
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getCleaned() { return cleaned; }
+    public void setCleaned(String cleaned) { this.cleaned = cleaned; }
+
+    public double getConfidence() { return confidence; }
+    public void setConfidence(double confidence) { this.confidence = confidence; }
+
+    public double[] getBbox() { return bbox; }
+    public void setBbox(double[] bbox) { this.bbox = bbox; }
+}
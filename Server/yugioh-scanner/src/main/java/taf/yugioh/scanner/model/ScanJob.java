@@ -0,0 +1,55 @@
+package taf.yugioh.scanner.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an asynchronous card scan, as seen by polling and SSE clients
+ */
+public class ScanJob {
+
+    public enum Stage {
+        UPLOADED, OCR_DONE, RESOLVED, IMAGE_READY, NOT_FOUND, FAILED
+    }
+
+    private final String id;
+    private volatile Stage stage = Stage.UPLOADED;
+    private volatile boolean done = false;
+    private volatile String cardName;
+    private volatile CardResponse card;
+    private volatile String message;
+    private final LocalDateTime createdAt;
+    private volatile LocalDateTime updatedAt;
+
+    public ScanJob(String id) {
+        this.id = id;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    // Move to a new stage (done marks the final state)
+    public void advance(Stage stage, String message, boolean done) {
+        this.stage = stage;
+        this.message = message;
+        this.done = done;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+
+    public Stage getStage() { return stage; }
+
+    public boolean isDone() { return done; }
+
+    public String getCardName() { return cardName; }
+    public void setCardName(String cardName) { this.cardName = cardName; }
+
+    public CardResponse getCard() { return card; }
+    public void setCard(CardResponse card) { this.card = card; }
+
+    public String getMessage() { return message; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -1,10 +1,13 @@
 package taf.yugioh.scanner.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import taf.yugioh.scanner.entity.CardImage;
+import taf.yugioh.scanner.entity.ImageBlob;
 
 import java.util.Optional;
 
@@ -38,6 +41,42 @@ public interface CardImageRepository extends JpaRepository<CardImage, Long> {
     @Query("SELECT ci.imageSmallData FROM CardImage ci WHERE ci.cardId = :cardId")
     Optional<byte[]> findSmallImageDataByCardId(@Param("cardId") Long cardId);
     
+    /**
+     * Get the blob holding the regular image (bytes may live in another storage backend)
+     */
+    @Query("SELECT b FROM CardImage ci, ImageBlob b WHERE ci.cardId = :cardId AND b.hash = ci.imageHash")
+    Optional<ImageBlob> findBlobByCardId(@Param("cardId") Long cardId);
+
+    /**
+     * Get the blob holding the small image
+     */
+    @Query("SELECT b FROM CardImage ci, ImageBlob b WHERE ci.cardId = :cardId AND b.hash = ci.smallImageHash")
+    Optional<ImageBlob> findSmallBlobByCardId(@Param("cardId") Long cardId);
+
+    /**
+     * Find IDs of rows that still hold inline image bytes (for the dedup migration)
+     */
+    @Query("SELECT ci.id FROM CardImage ci WHERE ci.id > :afterId AND " +
+           "((ci.imageHash IS NULL AND ci.imageData IS NOT NULL) OR " +
+           "(ci.smallImageHash IS NULL AND ci.imageSmallData IS NOT NULL)) ORDER BY ci.id")
+    java.util.List<Long> findIdsWithInlineData(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Get (id, cardId, artHash) of hashed rows added after the given row id, for the art index
+     */
+    @Query("SELECT ci.id, ci.cardId, ci.artHash FROM CardImage ci WHERE ci.id > :afterId AND ci.artHash IS NOT NULL ORDER BY ci.id")
+    java.util.List<Object[]> findArtHashesAfter(@Param("afterId") Long afterId);
+
+    /**
+     * Find card IDs whose art hash hasn't been computed yet
+     */
+    @Query("SELECT ci.cardId FROM CardImage ci WHERE ci.artHash IS NULL AND ci.cardId > :afterCardId ORDER BY ci.cardId")
+    java.util.List<Long> findCardIdsWithoutArtHash(@Param("afterCardId") Long afterCardId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE CardImage ci SET ci.artHash = :artHash WHERE ci.cardId = :cardId")
+    int updateArtHash(@Param("cardId") Long cardId, @Param("artHash") Long artHash);
+
     /**
      * Get image statistics - count all images
      */
@@ -61,4 +100,10 @@ public interface CardImageRepository extends JpaRepository<CardImage, Long> {
      */
     @Query("SELECT ci.cardId FROM CardImage ci")
     java.util.List<Long> findAllCardIdsWithImages();
+
+    /**
+     * Which of the given cards have a stored image
+     */
+    @Query("SELECT ci.cardId FROM CardImage ci WHERE ci.cardId IN :cardIds")
+    java.util.List<Long> findCardIdsWithImages(@Param("cardIds") java.util.Collection<Long> cardIds);
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package taf.yugioh.scanner.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,6 +22,23 @@ public interface CardRepository extends JpaRepository<Card, Long> {
      */
     boolean existsByCardId(Long cardId);
     
+    /**
+     * Get every card name (for the OCR re-ranking index)
+     */
+    @Query("SELECT c.name FROM Card c WHERE c.name IS NOT NULL")
+    java.util.List<String> findAllNames();
+
+    /**
+     * Find several cards by card_id in one query
+     */
+    java.util.List<Card> findByCardIdIn(java.util.Collection<Long> cardIds);
+
+    /**
+     * Find several cards by lower-cased name in one query
+     */
+    @Query("SELECT c FROM Card c WHERE LOWER(c.name) IN :lowerNames")
+    java.util.List<Card> findByLowerNameIn(@Param("lowerNames") java.util.Collection<String> lowerNames);
+
     /**
      * Find card by name (case-insensitive)
      */
@@ -51,6 +69,38 @@ public interface CardRepository extends JpaRepository<Card, Long> {
     @Query("SELECT c FROM Card c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     java.util.List<Card> findByNameContainingIgnoreCase(@Param("name") String name);
     
+    /**
+     * Card IDs with no card_images row, in card_id order after a cursor (for image prefetch)
+     */
+    @Query("SELECT c.cardId FROM Card c WHERE c.cardId > :afterCardId " +
+           "AND NOT EXISTS (SELECT 1 FROM CardImage ci WHERE ci.cardId = c.cardId) ORDER BY c.cardId")
+    java.util.List<Long> findCardIdsWithoutImages(@Param("afterCardId") Long afterCardId,
+                                                  Pageable pageable);
+
+    /**
+     * Count cards with no card_images row
+     */
+    @Query("SELECT COUNT(c) FROM Card c WHERE NOT EXISTS (SELECT 1 FROM CardImage ci WHERE ci.cardId = c.cardId)")
+    long countCardsWithoutImages();
+
+    /**
+     * Card IDs in a set (matched against set name or code) with no card_images row, after a cursor
+     */
+    @Query(value = "SELECT c.card_id FROM cards c WHERE c.card_id > :afterCardId " +
+                   "AND CAST(c.card_sets AS TEXT) ILIKE CONCAT('%', :setName, '%') " +
+                   "AND NOT EXISTS (SELECT 1 FROM card_images ci WHERE ci.card_id = c.card_id) " +
+                   "ORDER BY c.card_id LIMIT :limit", nativeQuery = true)
+    java.util.List<Long> findCardIdsWithoutImagesInSet(@Param("setName") String setName,
+                                                       @Param("afterCardId") Long afterCardId,
+                                                       @Param("limit") int limit);
+
+    /**
+     * Count cards in a set with no card_images row
+     */
+    @Query(value = "SELECT COUNT(*) FROM cards c WHERE CAST(c.card_sets AS TEXT) ILIKE CONCAT('%', :setName, '%') " +
+                   "AND NOT EXISTS (SELECT 1 FROM card_images ci WHERE ci.card_id = c.card_id)", nativeQuery = true)
+    long countCardsWithoutImagesInSet(@Param("setName") String setName);
+
     // REMOVED: findByCardIdWithImage method that was causing the error
     // Since we removed the cardImage relationship from Card entity,
     // we'll query CardImage separately when needed
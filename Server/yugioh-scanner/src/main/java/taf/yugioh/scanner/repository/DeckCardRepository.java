@@ -21,8 +21,15 @@ public interface DeckCardRepository extends JpaRepository<DeckCard, Long> {
     @Query("SELECT SUM(dc.quantity) FROM DeckCard dc WHERE dc.deck.id = :deckId AND dc.deckType = :deckType")
     Integer countCardsByDeckIdAndType(@Param("deckId") Long deckId, @Param("deckType") DeckCard.DeckType deckType);
     
+    @Query("SELECT COALESCE(SUM(dc.quantity), 0) FROM DeckCard dc WHERE dc.deck.id = :deckId AND dc.cardId = :cardId")
+    int sumQuantityByDeckIdAndCardId(@Param("deckId") Long deckId, @Param("cardId") Long cardId);
+    
     @Query("SELECT dc FROM DeckCard dc JOIN FETCH dc.card WHERE dc.deck.id = :deckId")
     List<DeckCard> findByDeckIdWithCards(@Param("deckId") Long deckId);
     
+    @Query("SELECT DISTINCT dc.cardId FROM DeckCard dc WHERE dc.deck.id = :deckId " +
+           "AND NOT EXISTS (SELECT 1 FROM CardImage ci WHERE ci.cardId = dc.cardId) ORDER BY dc.cardId")
+    List<Long> findCardIdsWithoutImagesByDeckId(@Param("deckId") Long deckId);
+
     void deleteByDeckIdAndCardIdAndDeckType(Long deckId, Long cardId, DeckCard.DeckType deckType);
 }
@@ -0,0 +1,91 @@
+package taf.yugioh.scanner.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import taf.yugioh.scanner.entity.ImageBlob;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    // Get only the bytes of a blob
+    @Query("SELECT b.data FROM ImageBlob b WHERE b.hash = :hash")
+    Optional<byte[]> findDataByHash(@Param("hash") String hash);
+
+    // Only the backend holding a blob's bytes, without loading the bytes
+    @Query("SELECT b.location FROM ImageBlob b WHERE b.hash = :hash")
+    Optional<ImageBlob.StorageLocation> findLocationByHash(@Param("hash") String hash);
+
+    // Add a reference to an existing blob (returns 0 if the blob doesn't exist)
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount + 1 WHERE b.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    // Insert a blob with one reference, or add a reference if another request stored it first
+    @Modifying
+    @Query(value = "INSERT INTO image_blobs (hash, storage_location, data, size, ref_count, created_at) " +
+                   "VALUES (:hash, 'DATABASE', :data, :size, 1, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (hash) DO UPDATE SET ref_count = image_blobs.ref_count + 1", nativeQuery = true)
+    int upsertInDatabase(@Param("hash") String hash, @Param("data") byte[] data, @Param("size") int size);
+
+    // Same as upsertInDatabase for a blob whose bytes live in an external backend
+    @Modifying
+    @Query(value = "INSERT INTO image_blobs (hash, storage_location, size, ref_count, created_at) " +
+                   "VALUES (:hash, :location, :size, 1, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (hash) DO UPDATE SET ref_count = image_blobs.ref_count + 1", nativeQuery = true)
+    int upsertInBackend(@Param("hash") String hash, @Param("location") String location, @Param("size") int size);
+
+    // Unreferenced placeholder row that holds a hash while its file is deleted; waits for
+    // an uncommitted insert of the same hash and returns 0 if a row exists
+    @Modifying
+    @Query(value = "INSERT INTO image_blobs (hash, storage_location, size, ref_count, created_at) " +
+                   "VALUES (:hash, :location, 0, 0, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (hash) DO NOTHING", nativeQuery = true)
+    int insertPlaceholder(@Param("hash") String hash, @Param("location") String location);
+
+    // Drop a reference to a blob
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash")
+    int decrementRefCount(@Param("hash") String hash);
+
+    // Delete a blob once nothing references it
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.hash = :hash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    // Keyset page of blobs stored in a given backend (for storage migration)
+    @Query("SELECT b.hash FROM ImageBlob b WHERE b.hash > :afterHash AND b.location = :location ORDER BY b.hash")
+    List<String> findHashesByLocation(@Param("afterHash") String afterHash,
+                                      @Param("location") ImageBlob.StorageLocation location,
+                                      Pageable pageable);
+
+    // Point a blob at an external backend, only if it is still where the migration read it from
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.location = :target, b.data = null WHERE b.hash = :hash AND b.location = :source")
+    int moveToBackend(@Param("hash") String hash,
+                      @Param("source") ImageBlob.StorageLocation source,
+                      @Param("target") ImageBlob.StorageLocation target);
+
+    // Move a blob's bytes back into the database, only if it is still where the migration read it from
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.location = taf.yugioh.scanner.entity.ImageBlob.StorageLocation.DATABASE, " +
+           "b.data = :data WHERE b.hash = :hash AND b.location = :source")
+    int moveToDatabase(@Param("hash") String hash,
+                       @Param("source") ImageBlob.StorageLocation source,
+                       @Param("data") byte[] data);
+
+    // Rows written before storage_location existed live in the database
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.location = taf.yugioh.scanner.entity.ImageBlob.StorageLocation.DATABASE WHERE b.location IS NULL")
+    int backfillDatabaseLocation();
+
+    // Total bytes stored in blobs
+    @Query("SELECT COALESCE(SUM(b.size), 0) FROM ImageBlob b")
+    long sumSize();
+}
@@ -0,0 +1,9 @@
+package taf.yugioh.scanner.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import taf.yugioh.scanner.entity.JobCheckpoint;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -2,10 +2,13 @@ package taf.yugioh.scanner.repository;
 
 import taf.yugioh.scanner.entity.UserDeck;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,4 +28,128 @@ public interface UserDeckRepository extends JpaRepository<UserDeck, Long> {
     
     @Query("SELECT d FROM UserDeck d WHERE d.name ILIKE %:searchTerm% AND d.isPublic = true")
     List<UserDeck> searchPublicDecks(@Param("searchTerm") String searchTerm);
+
+    // Deck summary columns, read from the counters maintained on user_decks. Aliases are quoted
+    // so Postgres keeps their case and they match the DeckSummary getters exactly.
+    String SUMMARY_COLUMNS = "d.id AS \"id\", d.name AS \"name\", d.description AS \"description\", " +
+            "d.is_public AS \"isPublic\", " +
+            "u.username AS \"ownerUsername\", d.created_at AS \"createdAt\", d.updated_at AS \"updatedAt\", " +
+            "COALESCE(d.version, 0) AS \"version\", " +
+            "COALESCE(d.main_count, 0) AS \"mainDeckCount\", " +
+            "COALESCE(d.extra_count, 0) AS \"extraDeckCount\", " +
+            "COALESCE(d.side_count, 0) AS \"sideDeckCount\", " +
+            "COALESCE(d.over_limit_cards, 0) AS \"overLimitCards\", " +
+            "COALESCE(d.misplaced_cards, 0) AS \"misplacedCards\" ";
+
+    /**
+     * Every deck of a user with its section counts and rule-violation counts, in one query
+     */
+    @Query(value = "SELECT " + SUMMARY_COLUMNS +
+                   "FROM user_decks d " +
+                   "JOIN users u ON u.id = d.user_id " +
+                   "WHERE d.user_id = :userId " +
+                   "ORDER BY d.created_at DESC", nativeQuery = true)
+    List<DeckSummary> findDeckSummariesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Every public deck summary, newest first (unpaged list behind GET /api/decks/public)
+     */
+    @Query(value = "SELECT " + SUMMARY_COLUMNS +
+                   "FROM user_decks d " +
+                   "JOIN users u ON u.id = d.user_id " +
+                   "WHERE d.is_public = TRUE " +
+                   "ORDER BY d.created_at DESC, d.id DESC", nativeQuery = true)
+    List<DeckSummary> findPublicDeckSummaries();
+
+    /**
+     * One page of public deck summaries, newest first, strictly after the (createdAt, id) cursor.
+     * Walks idx_user_decks_public_created, so cost depends on the page size only,
+     * not on how many public decks exist.
+     */
+    @Query(value = "SELECT " + SUMMARY_COLUMNS +
+                   "FROM user_decks d " +
+                   "JOIN users u ON u.id = d.user_id " +
+                   "WHERE d.is_public = TRUE " +
+                   "AND (d.created_at < :cursorCreatedAt OR (d.created_at = :cursorCreatedAt AND d.id < :cursorId)) " +
+                   "ORDER BY d.created_at DESC, d.id DESC LIMIT :limit", nativeQuery = true)
+    List<DeckSummary> findPublicDeckSummariesBefore(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                    @Param("cursorId") Long cursorId,
+                                                    @Param("limit") int limit);
+
+    // Recompute every counter of deck d from deck_cards (copies are summed per card across sections)
+    String RECALCULATE_COUNTERS = "UPDATE user_decks d SET " +
+            "main_count = (SELECT COALESCE(SUM(dc.quantity), 0) FROM deck_cards dc " +
+            "WHERE dc.deck_id = d.id AND dc.deck_type = 'MAIN'), " +
+            "extra_count = (SELECT COALESCE(SUM(dc.quantity), 0) FROM deck_cards dc " +
+            "WHERE dc.deck_id = d.id AND dc.deck_type = 'EXTRA'), " +
+            "side_count = (SELECT COALESCE(SUM(dc.quantity), 0) FROM deck_cards dc " +
+            "WHERE dc.deck_id = d.id AND dc.deck_type = 'SIDE'), " +
+            "over_limit_cards = (SELECT COUNT(DISTINCT dc.card_id) FROM deck_cards dc WHERE dc.deck_id = d.id " +
+            "AND (SELECT SUM(dc2.quantity) FROM deck_cards dc2 " +
+            "WHERE dc2.deck_id = d.id AND dc2.card_id = dc.card_id) > :maxCopies), " +
+            "misplaced_cards = (SELECT COUNT(*) FROM deck_cards dc JOIN cards c ON c.card_id = dc.card_id " +
+            "WHERE dc.deck_id = d.id AND (" +
+            "(dc.deck_type = 'MAIN' AND LOWER(c.frame_type) IN (:extraDeckTypes)) OR " +
+            "(dc.deck_type = 'EXTRA' AND (c.frame_type IS NULL OR LOWER(c.frame_type) NOT IN (:extraDeckTypes))))), " +
+            "is_valid = NULL ";
+
+    // Validity from the (already recomputed) counters
+    String RECALCULATE_VALIDITY = "UPDATE user_decks SET is_valid = CASE WHEN " +
+            "main_count BETWEEN :mainMin AND :mainMax AND extra_count <= :extraMax AND side_count <= :sideMax " +
+            "AND over_limit_cards = 0 AND misplaced_cards = 0 THEN TRUE ELSE FALSE END ";
+
+    /**
+     * Backfill counters of decks that don't have them yet (created before the counters existed)
+     */
+    @Modifying
+    @Query(value = RECALCULATE_COUNTERS + "WHERE d.main_count IS NULL OR d.extra_count IS NULL " +
+                   "OR d.side_count IS NULL OR d.over_limit_cards IS NULL OR d.misplaced_cards IS NULL",
+           nativeQuery = true)
+    int recalculateMissingCounters(@Param("maxCopies") int maxCopies,
+                                   @Param("extraDeckTypes") Collection<String> extraDeckTypes);
+
+    /**
+     * Rebuild one deck's counters from scratch (repair, bulk edits)
+     */
+    @Modifying
+    @Query(value = RECALCULATE_COUNTERS + "WHERE d.id = :deckId", nativeQuery = true)
+    int recalculateCounters(@Param("deckId") Long deckId,
+                            @Param("maxCopies") int maxCopies,
+                            @Param("extraDeckTypes") Collection<String> extraDeckTypes);
+
+    /**
+     * Fill in is_valid for decks whose counters were just recalculated
+     */
+    @Modifying
+    @Query(value = RECALCULATE_VALIDITY + "WHERE is_valid IS NULL", nativeQuery = true)
+    int recalculateMissingValidity(@Param("mainMin") int mainMin, @Param("mainMax") int mainMax,
+                                   @Param("extraMax") int extraMax, @Param("sideMax") int sideMax);
+
+    /**
+     * Recompute one deck's is_valid from its (already recomputed) counters
+     */
+    @Modifying
+    @Query(value = RECALCULATE_VALIDITY + "WHERE id = :deckId", nativeQuery = true)
+    int recalculateValidity(@Param("deckId") Long deckId,
+                            @Param("mainMin") int mainMin, @Param("mainMax") int mainMax,
+                            @Param("extraMax") int extraMax, @Param("sideMax") int sideMax);
+
+    /**
+     * Row of the deck summary queries
+     */
+    interface DeckSummary {
+        Long getId();
+        String getName();
+        String getDescription();
+        Boolean getIsPublic();
+        String getOwnerUsername();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        Long getVersion();
+        Integer getMainDeckCount();
+        Integer getExtraDeckCount();
+        Integer getSideDeckCount();
+        Integer getOverLimitCards();
+        Integer getMisplacedCards();
+    }
 }
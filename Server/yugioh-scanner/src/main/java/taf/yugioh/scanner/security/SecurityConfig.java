@@ -5,10 +5,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -16,6 +18,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import taf.yugioh.scanner.entity.User;
 
 import java.util.Arrays;
 import java.util.List;
@@ -30,6 +33,9 @@ public class SecurityConfig {
     @Value("${app.cors.allowed-origins}")
     private String allowedOrigins;
 
+    @Value("${app.admin.usernames:}")
+    private String adminUsernames;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -46,18 +52,27 @@ public class SecurityConfig {
 
                 // Configure endpoint authorization
                 .authorizeHttpRequests(auth -> auth
+                        // Batch scans take up to 100MB per request - signed-in users only
+                        .requestMatchers("/api/cards/batch").authenticated()
+
                         // Public endpoints - no authentication required
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/cards/**").permitAll()
                         .requestMatchers("/api/images/**").permitAll()
+                        .requestMatchers("/ws/scan").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/decks/public/**").permitAll()
 
                         // Health check endpoints
                         .requestMatchers("/actuator/health").permitAll()
 
+                        // Metrics expose internals (pools, queues, endpoints) - admins only
+                        .requestMatchers("/actuator/metrics", "/actuator/metrics/**").access((authentication, context) ->
+                                new AuthorizationDecision(isAdmin(authentication.get())))
+
                         // Protected endpoints - authentication required
                         .requestMatchers("/api/decks/**").authenticated()
                         .requestMatchers("/api/users/**").authenticated()
+                        .requestMatchers("/api/admin/**").authenticated()
 
                         // All other requests require authentication
                         .anyRequest().authenticated()
@@ -69,6 +84,15 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private boolean isAdmin(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            return false;
+        }
+        return Arrays.stream(adminUsernames.split(","))
+                .map(String::trim)
+                .anyMatch(name -> !name.isEmpty() && name.equals(user.getUsername()));
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         // BCrypt with strength 12 (good balance of security and performance)
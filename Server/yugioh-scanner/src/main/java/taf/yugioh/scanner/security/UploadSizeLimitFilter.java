@@ -0,0 +1,62 @@
+package taf.yugioh.scanner.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Per-endpoint request body caps, checked against Content-Length before anything is read.
+ *
+ * The container's multipart limits are sized for batch scans, so every other endpoint is
+ * held to the single-image limit here. Multipart bodies without a Content-Length are only
+ * accepted by /api/cards/upload, which counts bytes itself while streaming.
+ */
+@Component
+public class UploadSizeLimitFilter extends OncePerRequestFilter {
+
+    private static final String BATCH_PATH = "/api/cards/batch";
+    private static final String STREAMING_UPLOAD_PATH = "/api/cards/upload";
+
+    @Value("${app.upload.max-request-bytes:10551296}")
+    private long maxRequestBytes;
+
+    @Value("${app.scan.batch.max-request-bytes:104857600}")
+    private long maxBatchRequestBytes;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long limit = path.equals(BATCH_PATH) ? maxBatchRequestBytes : maxRequestBytes;
+        long contentLength = request.getContentLengthLong();
+
+        if (contentLength > limit) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                    "Request body must be " + (limit / (1024 * 1024)) + "MB or smaller");
+            return;
+        }
+
+        String contentType = request.getContentType();
+        boolean multipart = contentType != null
+                && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/");
+        if (contentLength < 0 && multipart && !path.equals(STREAMING_UPLOAD_PATH)) {
+            response.sendError(HttpStatus.LENGTH_REQUIRED.value(), "Content-Length required for file uploads");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,340 @@
+package taf.yugioh.scanner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import taf.yugioh.scanner.exception.OcrOverloadedException;
+import taf.yugioh.scanner.model.BatchScanResult;
+import taf.yugioh.scanner.model.CardResponse;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Scans many card photos in one request (several image parts, or a ZIP of images).
+ *
+ * Images flow through a pipeline of decode/preprocess -> OCR -> resolve, each stage with
+ * its own bounded pool, so one image can be in OCR while the next is being preprocessed.
+ * At most max-in-flight images of a batch are held in memory at once; the feeder blocks
+ * until earlier images finish. Results are written as NDJSON in completion order.
+ */
+@Service
+public class BatchScanService {
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "bmp", "gif", "webp");
+    private static final int MAX_OCR_ATTEMPTS = 3;
+
+    @Value("${app.scan.batch.max-images:200}")
+    private int maxImages;
+
+    @Value("${app.scan.batch.max-image-bytes:10485760}")
+    private int maxImageBytes;
+
+    @Value("${app.scan.batch.max-in-flight:8}")
+    private int maxInFlight;
+
+    @Value("${app.scan.batch.max-concurrent-batches:2}")
+    private int maxConcurrentBatches;
+
+    // 0 = one thread per CPU core
+    @Value("${app.scan.batch.preprocess-threads:0}")
+    private int preprocessThreads;
+
+    @Value("${app.scan.batch.ocr-threads:2}")
+    private int ocrThreads;
+
+    @Value("${app.scan.batch.resolve-threads:2}")
+    private int resolveThreads;
+
+    @Autowired
+    private CardOCRService cardOcrService;
+
+    @Autowired
+    private YugiohApiService yugiohApiService;
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchScanService.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Semaphore batchSlots;
+    private ExecutorService feeders;
+    private ExecutorService preprocessPool;
+    private ExecutorService ocrPool;
+    private ExecutorService resolvePool;
+
+    @PostConstruct
+    public void init() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.batchSlots = new Semaphore(maxConcurrentBatches);
+        this.feeders = Executors.newCachedThreadPool(r -> new Thread(r, "batch-scan-feed"));
+        this.preprocessPool = Executors.newFixedThreadPool(preprocessThreads > 0 ? preprocessThreads : cores,
+                r -> new Thread(r, "batch-scan-preprocess"));
+        this.ocrPool = Executors.newFixedThreadPool(ocrThreads, r -> new Thread(r, "batch-scan-ocr"));
+        this.resolvePool = Executors.newFixedThreadPool(resolveThreads, r -> new Thread(r, "batch-scan-resolve"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        feeders.shutdownNow();
+        preprocessPool.shutdownNow();
+        ocrPool.shutdownNow();
+        resolvePool.shutdownNow();
+    }
+
+    /**
+     * Scan the uploaded images (and/or the images inside a ZIP), writing one JSON line per image
+     *
+     * @return number of results written
+     * @throws OcrOverloadedException if too many batches are already running
+     */
+    public int scanBatch(List<MultipartFile> images, MultipartFile archive, OutputStream out) throws IOException {
+        if (!batchSlots.tryAcquire()) {
+            throw new OcrOverloadedException("Too many batch scans in progress, try again shortly", 30);
+        }
+
+        BlockingQueue<BatchScanResult> results = new LinkedBlockingQueue<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicInteger submitted = new AtomicInteger();
+        Future<?> feed = feeders.submit(() -> feed(images, archive, results, inFlight, submitted));
+
+        int written = 0;
+        try {
+            while (!(feed.isDone() && written == submitted.get())) {
+                BatchScanResult result = results.poll(200, TimeUnit.MILLISECONDS);
+                if (result == null) {
+                    continue;
+                }
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+                out.flush();
+                written++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Client gone or finished - stop feeding new images either way
+            feed.cancel(true);
+            batchSlots.release();
+        }
+
+        logger.info("Batch scan finished: " + written + " results");
+        return written;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void feed(List<MultipartFile> images, MultipartFile archive, BlockingQueue<BatchScanResult> results,
+                      Semaphore inFlight, AtomicInteger submitted) {
+        try {
+            if (images != null) {
+                for (MultipartFile image : images) {
+                    if (!image.isEmpty() &&
+                            !submit(image.getOriginalFilename(), readLimited(image.getInputStream()), results, inFlight, submitted)) {
+                        return;
+                    }
+                }
+            }
+            if (archive != null && !archive.isEmpty()) {
+                try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+                    ZipEntry entry;
+                    while ((entry = zip.getNextEntry()) != null) {
+                        if (!entry.isDirectory() && isImageName(entry.getName()) &&
+                                !submit(entry.getName(), readLimited(zip), results, inFlight, submitted)) {
+                            return;
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Batch scan input failed: " + e.getMessage());
+            BatchScanResult error = new BatchScanResult(-1, null);
+            error.setMessage("Could not read upload: " + e.getMessage());
+            submitted.incrementAndGet();
+            results.add(error);
+        }
+    }
+
+    /**
+     * Start one image down the pipeline
+     *
+     * @return false once the batch has reached max-images
+     */
+    private boolean submit(String filename, byte[] data, BlockingQueue<BatchScanResult> results,
+                           Semaphore inFlight, AtomicInteger submitted) throws InterruptedException {
+        int index = submitted.get();
+        if (index >= maxImages) {
+            return false;
+        }
+
+        // Blocks while max-in-flight images of this batch are still being processed
+        inFlight.acquire();
+        submitted.incrementAndGet();
+
+        BatchItem item = new BatchItem(index, filename, data);
+        if (data == null) {
+            complete(item, "Image larger than " + maxImageBytes + " bytes", results, inFlight);
+            return true;
+        }
+
+        CompletableFuture.supplyAsync(() -> recognise(item), preprocessPool)
+                .thenApplyAsync(this::runOcr, ocrPool)
+                .thenApplyAsync(this::resolve, resolvePool)
+                .whenComplete((done, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        complete(item, "Error processing image: " + cause.getMessage(), results, inFlight);
+                    } else {
+                        complete(item, null, results, inFlight);
+                    }
+                });
+        return true;
+    }
+
+    /**
+     * Stage 1: hash, preprocess and try the scan cache and art index
+     */
+    private BatchItem recognise(BatchItem item) {
+        item.imageHash = cardOcrService.hashImage(item.data);
+        Optional<Long> cached = cardOcrService.findCachedCardId(item.imageHash);
+        if (cached.isPresent()) {
+            item.cardId = cached.get();
+            item.matchedBy = "cache";
+            return item;
+        }
+
+        item.prepared = cardOcrService.prepare(item.data);
+        if (item.prepared == null) {
+            throw new IllegalArgumentException("File is not a readable image");
+        }
+        Optional<Long> artMatch = cardOcrService.matchArt(item.imageHash, item.prepared);
+        if (artMatch.isPresent()) {
+            item.cardId = artMatch.get();
+            item.matchedBy = "art";
+        }
+        return item;
+    }
+
+    /**
+     * Stage 2: OCR images that weren't recognised without it
+     */
+    private BatchItem runOcr(BatchItem item) {
+        if (item.cardId != null) {
+            return item;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                item.cardName = cardOcrService.extractCardName(item.prepared, item.data, item.filename);
+                item.matchedBy = "ocr";
+                return item;
+            } catch (OcrOverloadedException e) {
+                // Interactive scans take priority - wait and retry rather than failing the image
+                if (attempt >= MAX_OCR_ATTEMPTS) {
+                    throw e;
+                }
+                sleepSeconds(e.getRetryAfterSeconds());
+            }
+        }
+    }
+
+    /**
+     * Stage 3: look the card up
+     */
+    private BatchItem resolve(BatchItem item) {
+        if (item.cardId != null) {
+            item.card = yugiohApiService.getCardById(item.cardId);
+        } else if (item.cardName != null && !item.cardName.trim().isEmpty()) {
+            item.card = yugiohApiService.getCardByName(item.cardName);
+            if (item.card != null) {
+                cardOcrService.cacheResult(item.imageHash, item.card.getId());
+            }
+        }
+        return item;
+    }
+
+    private void complete(BatchItem item, String error, BlockingQueue<BatchScanResult> results, Semaphore inFlight) {
+        BatchScanResult result = new BatchScanResult(item.index, item.filename);
+        CardResponse card = item.card;
+        result.setSuccess(error == null && card != null);
+        result.setCard(card);
+        result.setCardName(card != null ? card.getName() : item.cardName);
+        result.setMatchedBy(card != null ? item.matchedBy : null);
+        result.setElapsedMs((System.nanoTime() - item.startNanos) / 1_000_000);
+
+        if (error != null) {
+            result.setMessage(error);
+        } else if (card != null) {
+            result.setMessage("Card found successfully");
+        } else if (item.cardName == null || item.cardName.trim().isEmpty()) {
+            result.setMessage("Could not extract card name from image");
+        } else {
+            result.setMessage("Card name extracted: '" + item.cardName + "' but not found in database");
+        }
+
+        // Drop the image bytes before freeing the slot
+        item.data = null;
+        item.prepared = null;
+        results.add(result);
+        inFlight.release();
+    }
+
+    private byte[] readLimited(InputStream in) throws IOException {
+        byte[] data = in.readNBytes(maxImageBytes + 1);
+        return data.length > maxImageBytes ? null : data;
+    }
+
+    private boolean isImageName(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.startsWith("__macosx/") || lower.contains("/.") || lower.startsWith(".")) {
+            return false;
+        }
+        int dot = lower.lastIndexOf('.');
+        return dot >= 0 && IMAGE_EXTENSIONS.contains(lower.substring(dot + 1));
+    }
+
+    private void sleepSeconds(int seconds) {
+        try {
+            Thread.sleep(seconds * 1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private static class BatchItem {
+        private final int index;
+        private final String filename;
+        private final long startNanos = System.nanoTime();
+        private volatile byte[] data;
+        private volatile String imageHash;
+        private volatile CardImagePreprocessor.PreparedImage prepared;
+        private volatile Long cardId;
+        private volatile String cardName;
+        private volatile String matchedBy;
+        private volatile CardResponse card;
+
+        BatchItem(int index, String filename, byte[] data) {
+            this.index = index;
+            this.filename = filename;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package taf.yugioh.scanner.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BK-tree over 64-bit hashes with Hamming distance, mapping each hash to card ids.
+ *
+ * A radius query only descends into children whose edge distance is within
+ * [d - radius, d + radius] of the query, so lookups touch a small part of the tree.
+ * Not thread-safe; callers synchronise.
+ */
+class BkTree {
+
+    private Node root;
+    private int size;
+
+    void add(long hash, Long cardId) {
+        if (root == null) {
+            root = new Node(hash, cardId);
+            size++;
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            int distance = PerceptualHash.distance(hash, node.hash);
+            if (distance == 0) {
+                if (!node.cardIds.contains(cardId)) {
+                    node.cardIds.add(cardId);
+                    size++;
+                }
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(hash, cardId));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Remove one card id from a hash. The node stays in place as a routing point for its
+     * children, it just no longer matches anything.
+     */
+    void remove(long hash, Long cardId) {
+        Node node = root;
+        while (node != null) {
+            int distance = PerceptualHash.distance(hash, node.hash);
+            if (distance == 0) {
+                if (node.cardIds.remove(cardId)) {
+                    size--;
+                }
+                return;
+            }
+            node = node.children.get(distance);
+        }
+    }
+
+    /**
+     * All entries within the given Hamming distance of the hash
+     */
+    List<Match> search(long hash, int radius) {
+        List<Match> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            int distance = PerceptualHash.distance(hash, node.hash);
+            if (distance <= radius) {
+                for (Long cardId : node.cardIds) {
+                    matches.add(new Match(cardId, distance));
+                }
+            }
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= radius) {
+                    pending.add(child.getValue());
+                }
+            }
+        }
+        return matches;
+    }
+
+    int size() {
+        return size;
+    }
+
+    static class Match {
+        private final Long cardId;
+        private final int distance;
+
+        Match(Long cardId, int distance) {
+            this.cardId = cardId;
+            this.distance = distance;
+        }
+
+        Long getCardId() { return cardId; }
+        int getDistance() { return distance; }
+    }
+
+    private static class Node {
+        private final long hash;
+        private final List<Long> cardIds = new ArrayList<>(1);
+        private final Map<Integer, Node> children = new HashMap<>();
+
+        Node(long hash, Long cardId) {
+            this.hash = hash;
+            this.cardIds.add(cardId);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package taf.yugioh.scanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import taf.yugioh.scanner.repository.CardImageRepository;
+
+import jakarta.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory perceptual-hash index of every stored card image, used as an OCR fast path.
+ *
+ * Art hashes are persisted on card_images.art_hash; the index loads them at startup,
+ * backfills rows stored before hashing existed, and picks up newly downloaded images
+ * on a short schedule. A scan is only accepted when the best match is close enough
+ * and clearly ahead of the next-best card - anything else falls back to OCR.
+ */
+@Service
+public class CardArtIndex {
+
+    private static final int BACKFILL_BATCH_SIZE = 100;
+
+    // Row ids are handed out before commit, so a refresh re-reads this many rows below the
+    // watermark to pick up inserts that committed after a higher id was already indexed
+    private static final long REFRESH_OVERLAP_ROWS = 1000;
+
+    @Value("${app.ocr.art-match.enabled:true}")
+    private boolean enabled;
+
+    // Max Hamming distance (of 64 bits) for a confident match
+    @Value("${app.ocr.art-match.max-distance:10}")
+    private int maxDistance;
+
+    // Required lead of the best card over the runner-up
+    @Value("${app.ocr.art-match.min-margin:4}")
+    private int minMargin;
+
+    @Autowired
+    private CardImageRepository cardImageRepository;
+
+    @Autowired
+    private DatabaseImageService databaseImageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final Logger logger = LoggerFactory.getLogger(CardArtIndex.class);
+
+    private final BkTree tree = new BkTree();
+    // Indexed hash per card (guarded by tree), so a deleted or re-hashed image can be taken out
+    private final Map<Long, Long> hashByCard = new HashMap<>();
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> new Thread(r, "card-art-index"));
+    private volatile long lastIndexedRowId = 0L;
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        if (!enabled) {
+            return;
+        }
+        runner.submit(() -> {
+            try {
+                loadNewHashes();
+                ready = true;
+                logger.info("Card art index loaded: " + size() + " hashes");
+                backfillMissingHashes();
+            } catch (Exception e) {
+                logger.error("Failed to build card art index: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Pick up images downloaded since the last refresh
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void refresh() {
+        if (ready) {
+            runner.submit(this::loadNewHashes);
+        }
+    }
+
+    /**
+     * Recognise a card photo by its art
+     *
+     * @return the matched card id, or empty if there's no confident match
+     */
+    public Optional<Long> match(BufferedImage card) {
+        if (!enabled || !ready || card == null) {
+            return Optional.empty();
+        }
+
+        long hash = PerceptualHash.artHash(card);
+        List<BkTree.Match> candidates;
+        synchronized (tree) {
+            // Search a little wider than the threshold so the runner-up is visible for the margin check
+            candidates = tree.search(hash, maxDistance + minMargin);
+        }
+
+        // Best distance per card (reprints can share art)
+        Map<Long, Integer> bestByCard = new HashMap<>();
+        for (BkTree.Match candidate : candidates) {
+            bestByCard.merge(candidate.getCardId(), candidate.getDistance(), Math::min);
+        }
+        if (bestByCard.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(bestByCard.entrySet());
+        ranked.sort(Map.Entry.comparingByValue());
+        Map.Entry<Long, Integer> best = ranked.get(0);
+        if (best.getValue() > maxDistance) {
+            return Optional.empty();
+        }
+        if (ranked.size() > 1 && ranked.get(1).getValue() - best.getValue() < minMargin) {
+            logger.debug("Ambiguous art match for card " + best.getKey() + " (distance " + best.getValue() +
+                    ", runner-up " + ranked.get(1).getValue() + ")");
+            return Optional.empty();
+        }
+
+        logger.info("Art match: card " + best.getKey() + " at distance " + best.getValue());
+        return Optional.of(best.getKey());
+    }
+
+    /**
+     * Stop matching a card whose image was deleted
+     */
+    public void remove(Long cardId) {
+        // Through the runner, so a refresh already in flight can't add it back afterwards
+        runner.submit(() -> {
+            synchronized (tree) {
+                Long hash = hashByCard.remove(cardId);
+                if (hash != null) {
+                    tree.remove(hash, cardId);
+                }
+            }
+        });
+    }
+
+    public int size() {
+        synchronized (tree) {
+            return tree.size();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void loadNewHashes() {
+        List<Object[]> rows = cardImageRepository.findArtHashesAfter(
+                Math.max(0L, lastIndexedRowId - REFRESH_OVERLAP_ROWS));
+        synchronized (tree) {
+            for (Object[] row : rows) {
+                index((Long) row[2], (Long) row[1]);
+            }
+        }
+        if (!rows.isEmpty()) {
+            lastIndexedRowId = Math.max(lastIndexedRowId, (Long) rows.get(rows.size() - 1)[0]);
+        }
+    }
+
+    // Callers hold the tree lock. Re-adding an indexed (hash, card) pair is a no-op.
+    private void index(long hash, Long cardId) {
+        Long previous = hashByCard.put(cardId, hash);
+        if (previous != null && previous != hash) {
+            tree.remove(previous, cardId);
+        }
+        tree.add(hash, cardId);
+    }
+
+    private void backfillMissingHashes() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long afterCardId = 0L;
+        int hashed = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Long> cardIds = cardImageRepository.findCardIdsWithoutArtHash(afterCardId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            if (cardIds.isEmpty()) {
+                break;
+            }
+
+            for (Long cardId : cardIds) {
+                Long hash = computeArtHash(cardId);
+                if (hash != null) {
+                    transaction.executeWithoutResult(tx -> cardImageRepository.updateArtHash(cardId, hash));
+                    synchronized (tree) {
+                        index(hash, cardId);
+                    }
+                    hashed++;
+                }
+            }
+            afterCardId = cardIds.get(cardIds.size() - 1);
+        }
+
+        if (hashed > 0) {
+            logger.info("Backfilled art hashes for " + hashed + " card images");
+        }
+    }
+
+    private Long computeArtHash(Long cardId) {
+        try {
+            Optional<byte[]> data = databaseImageService.getImageData(cardId, false);
+            if (data.isEmpty() || data.get().length == 0) {
+                return null;
+            }
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(data.get()));
+            return image != null ? PerceptualHash.artHash(image) : null;
+        } catch (Exception e) {
+            logger.warn("Could not hash art of card " + cardId + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
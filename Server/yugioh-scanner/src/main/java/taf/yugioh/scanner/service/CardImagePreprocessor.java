@@ -0,0 +1,489 @@
+package taf.yugioh.scanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import taf.yugioh.scanner.exception.ImageUploadRejectedException;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Prepares uploaded card photos before recognition.
+ *
+ * Finds the card in the photo (foreground vs. border colour, orientation from image
+ * moments), deskews it and resamples it to the standard 421x614 card size used by the
+ * stored images. The title band is cut out separately at OCR-friendly resolution, so the
+ * OCR server reads a small strip instead of a multi-megapixel photo. When no card-shaped
+ * region is found the whole photo is treated as the card.
+ */
+@Component
+public class CardImagePreprocessor {
+
+    // Same size as the regular images served by YGOProDeck
+    public static final int CARD_WIDTH = 421;
+    public static final int CARD_HEIGHT = 614;
+
+    // Name band on the card (excludes the attribute icon on the right), as fractions of the card
+    private static final double TITLE_LEFT = 0.05;
+    private static final double TITLE_RIGHT = 0.82;
+    private static final double TITLE_TOP = 0.035;
+    private static final double TITLE_BOTTOM = 0.115;
+    private static final int TITLE_WIDTH = 640;
+
+    // Detection runs on a small copy of the photo
+    private static final int DETECTION_SIZE = 320;
+    private static final int BACKGROUND_THRESHOLD = 60;
+    private static final double MAX_SKEW_DEGREES = 20;
+    private static final double MIN_CARD_AREA = 0.15;
+    private static final double MIN_ASPECT = 0.55;
+    private static final double MAX_ASPECT = 0.85;
+
+    // Multi-card photos: finer detection grid, and each card may cover a small part of the photo
+    private static final int MULTI_DETECTION_SIZE = 640;
+    private static final double MIN_REGION_AREA = 0.005;
+
+    @Autowired
+    private StreamingImageDecoder streamingImageDecoder;
+
+    private static final Logger logger = LoggerFactory.getLogger(CardImagePreprocessor.class);
+
+    /**
+     * Decode and normalise an upload
+     *
+     * @return the prepared image, or null if the bytes aren't a readable image
+     * @throws ImageUploadRejectedException if the image is over the byte or pixel limit
+     */
+    public PreparedImage prepare(byte[] imageData) {
+        BufferedImage photo = decode(imageData);
+        return photo != null ? prepare(photo) : null;
+    }
+
+    public PreparedImage prepare(BufferedImage photo) {
+        long start = System.nanoTime();
+
+        CardGeometry geometry = detectCard(photo);
+        boolean detected = geometry != null;
+        if (!detected) {
+            geometry = CardGeometry.wholeImage(photo.getWidth(), photo.getHeight());
+        }
+        PreparedImage prepared = extract(photo, List.of(geometry), detected).get(0);
+
+        logger.debug("Preprocessed " + photo.getWidth() + "x" + photo.getHeight() + " photo (card " +
+                (detected ? "detected, skew " + Math.round(geometry.skewDegrees()) + "°" : "not detected") +
+                ") in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return prepared;
+    }
+
+    /**
+     * Decode a photo of several cards (deck spread, binder page) and prepare each card separately
+     *
+     * @return one entry per card in reading order, the whole photo as a single card if
+     *         no separate cards were found, or null if the bytes aren't a readable image
+     */
+    public List<PreparedImage> prepareAll(byte[] imageData) {
+        BufferedImage photo = decode(imageData);
+        return photo != null ? prepareAll(photo) : null;
+    }
+
+    public List<PreparedImage> prepareAll(BufferedImage photo) {
+        long start = System.nanoTime();
+        List<CardGeometry> regions = detectCards(photo);
+        if (regions.isEmpty()) {
+            return List.of(prepare(photo));
+        }
+
+        List<PreparedImage> prepared = extract(photo, regions, true);
+        logger.debug("Found " + prepared.size() + " cards in " + photo.getWidth() + "x" + photo.getHeight() +
+                " photo in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return prepared;
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Decode through the same header-checked path as streamed uploads, so batch, async and
+     * live images get the pixel limit and subsampling too
+     *
+     * @return null if the bytes aren't a readable image
+     * @throws ImageUploadRejectedException if the image is over the byte or pixel limit
+     */
+    private BufferedImage decode(byte[] imageData) {
+        try {
+            return streamingImageDecoder.decode(new ByteArrayInputStream(imageData), null).getImage();
+        } catch (ImageUploadRejectedException e) {
+            if (e.getStatus() == HttpStatus.PAYLOAD_TOO_LARGE) {
+                throw e;
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Resample each card region to the standard card size and cut out its title band
+     */
+    private List<PreparedImage> extract(BufferedImage photo, List<CardGeometry> regions, boolean detected) {
+        // Shrink large photos first so bilinear sampling doesn't alias
+        double largest = regions.stream().mapToDouble(region -> region.height).max().orElse(0);
+        double scale = 1.0;
+        BufferedImage source = photo;
+        while (largest * scale > CARD_HEIGHT * 2) {
+            source = halve(source);
+            scale /= 2;
+        }
+
+        List<PreparedImage> prepared = new ArrayList<>(regions.size());
+        for (CardGeometry region : regions) {
+            CardGeometry scaled = region.scale(scale);
+            BufferedImage card = sample(source, scaled, 0, 0, 1, 1, CARD_WIDTH, CARD_HEIGHT);
+
+            double bandAspect = ((TITLE_BOTTOM - TITLE_TOP) * scaled.height) / ((TITLE_RIGHT - TITLE_LEFT) * scaled.width);
+            int titleHeight = Math.max(16, (int) Math.round(TITLE_WIDTH * bandAspect));
+            BufferedImage titleBand = sample(source, scaled, TITLE_LEFT, TITLE_TOP, TITLE_RIGHT, TITLE_BOTTOM,
+                    TITLE_WIDTH, titleHeight);
+
+            prepared.add(new PreparedImage(card, encodePng(titleBand), detected, region.bounds(photo)));
+        }
+        return prepared;
+    }
+
+    /**
+     * Locate a single card by separating it from the photo's border colour
+     */
+    private CardGeometry detectCard(BufferedImage photo) {
+        Mask mask = foregroundMask(photo, DETECTION_SIZE);
+        int[] foreground = new int[mask.width * mask.height];
+        int count = 0;
+        for (int i = 0; i < mask.bits.length; i++) {
+            if (mask.bits[i]) {
+                foreground[count++] = i;
+            }
+        }
+        return fitCard(mask, foreground, count, MIN_CARD_AREA);
+    }
+
+    /**
+     * Locate every separate card: connected foreground regions with a card's shape
+     */
+    private List<CardGeometry> detectCards(BufferedImage photo) {
+        Mask mask = foregroundMask(photo, MULTI_DETECTION_SIZE);
+        int w = mask.width, h = mask.height;
+        boolean[] visited = new boolean[w * h];
+        int[] component = new int[w * h];
+        List<CardGeometry> regions = new ArrayList<>();
+
+        for (int seed = 0; seed < mask.bits.length; seed++) {
+            if (!mask.bits[seed] || visited[seed]) {
+                continue;
+            }
+
+            // Flood fill (4-connected), using the component array as the queue
+            int head = 0, tail = 0;
+            component[tail++] = seed;
+            visited[seed] = true;
+            while (head < tail) {
+                int p = component[head++];
+                int x = p % w, y = p / w;
+                int[] neighbours = {x > 0 ? p - 1 : -1, x < w - 1 ? p + 1 : -1, y > 0 ? p - w : -1, y < h - 1 ? p + w : -1};
+                for (int n : neighbours) {
+                    if (n >= 0 && mask.bits[n] && !visited[n]) {
+                        visited[n] = true;
+                        component[tail++] = n;
+                    }
+                }
+            }
+
+            if (tail >= MIN_REGION_AREA * w * h) {
+                CardGeometry region = fitCard(mask, component, tail, MIN_REGION_AREA);
+                if (region != null) {
+                    regions.add(region);
+                }
+            }
+        }
+
+        // Reading order: rows of cards top to bottom, left to right within a row
+        double rowHeight = regions.stream().mapToDouble(region -> region.height).average().orElse(1);
+        regions.sort(Comparator.<CardGeometry>comparingLong(region -> Math.round(region.centerY / rowHeight))
+                .thenComparingDouble(region -> region.centerX));
+        return regions;
+    }
+
+    /**
+     * Foreground mask of a downscaled copy: pixels that differ clearly from the border colour
+     */
+    private Mask foregroundMask(BufferedImage photo, int size) {
+        double shrink = Math.min(1.0, (double) size / Math.max(photo.getWidth(), photo.getHeight()));
+        int w = Math.max(1, (int) Math.round(photo.getWidth() * shrink));
+        int h = Math.max(1, (int) Math.round(photo.getHeight() * shrink));
+        BufferedImage small = resize(photo, w, h);
+
+        int[] pixels = small.getRGB(0, 0, w, h, null, 0, w);
+        int[] background = borderColour(pixels, w, h);
+
+        boolean[] bits = new boolean[w * h];
+        for (int i = 0; i < pixels.length; i++) {
+            int rgb = pixels[i];
+            int dr = ((rgb >> 16) & 0xFF) - background[0];
+            int dg = ((rgb >> 8) & 0xFF) - background[1];
+            int db = (rgb & 0xFF) - background[2];
+            bits[i] = Math.abs(dr) + Math.abs(dg) + Math.abs(db) > BACKGROUND_THRESHOLD;
+        }
+        return new Mask(w, h, shrink, bits);
+    }
+
+    /**
+     * Fit an upright-ish card rectangle to a set of mask pixels, taking the orientation
+     * from their second-order moments
+     *
+     * @return the card in photo coordinates, or null if the pixels don't look like a card
+     */
+    private CardGeometry fitCard(Mask mask, int[] pixelIndexes, int count, double minArea) {
+        int w = mask.width;
+        if (count < minArea * w * mask.height) {
+            return null;
+        }
+
+        double sumX = 0, sumY = 0;
+        for (int i = 0; i < count; i++) {
+            sumX += pixelIndexes[i] % w;
+            sumY += pixelIndexes[i] / w;
+        }
+        double meanX = sumX / count, meanY = sumY / count;
+
+        double cxx = 0, cyy = 0, cxy = 0;
+        for (int i = 0; i < count; i++) {
+            double dx = pixelIndexes[i] % w - meanX, dy = pixelIndexes[i] / w - meanY;
+            cxx += dx * dx;
+            cyy += dy * dy;
+            cxy += dx * dy;
+        }
+
+        // Major (long) axis of the card; point it downwards so the card isn't flipped
+        double theta = 0.5 * Math.atan2(2 * cxy, cxx - cyy);
+        double vx = Math.cos(theta), vy = Math.sin(theta);
+        if (Math.abs(vy) < Math.abs(vx)) {
+            return null; // card lying on its side - leave it to the fallback
+        }
+        if (vy < 0) {
+            vx = -vx;
+            vy = -vy;
+        }
+        double ux = vy, uy = -vx;
+
+        CardGeometry geometry = new CardGeometry(0, 0, 0, 0, ux, uy, vx, vy);
+        if (Math.abs(geometry.skewDegrees()) > MAX_SKEW_DEGREES) {
+            return null;
+        }
+
+        // Extent along both axes, trimming 1% outliers on each side
+        double[] across = new double[count];
+        double[] along = new double[count];
+        for (int i = 0; i < count; i++) {
+            double dx = pixelIndexes[i] % w - meanX, dy = pixelIndexes[i] / w - meanY;
+            across[i] = dx * ux + dy * uy;
+            along[i] = dx * vx + dy * vy;
+        }
+        Arrays.sort(across);
+        Arrays.sort(along);
+        double a0 = percentile(across, 0.01), a1 = percentile(across, 0.99);
+        double b0 = percentile(along, 0.01), b1 = percentile(along, 0.99);
+
+        double cardWidth = a1 - a0, cardHeight = b1 - b0;
+        double aspect = cardWidth / cardHeight;
+        if (cardHeight <= 0 || aspect < MIN_ASPECT || aspect > MAX_ASPECT ||
+                cardWidth * cardHeight < minArea * w * mask.height) {
+            return null;
+        }
+
+        double centerX = meanX + ux * (a0 + a1) / 2 + vx * (b0 + b1) / 2;
+        double centerY = meanY + uy * (a0 + a1) / 2 + vy * (b0 + b1) / 2;
+        return new CardGeometry(centerX, centerY, cardWidth, cardHeight, ux, uy, vx, vy).scale(1 / mask.shrink);
+    }
+
+    private int[] borderColour(int[] pixels, int w, int h) {
+        long r = 0, g = 0, b = 0, n = 0;
+        for (int x = 0; x < w; x++) {
+            for (int y : new int[]{0, h - 1}) {
+                int rgb = pixels[y * w + x];
+                r += (rgb >> 16) & 0xFF;
+                g += (rgb >> 8) & 0xFF;
+                b += rgb & 0xFF;
+                n++;
+            }
+        }
+        for (int y = 0; y < h; y++) {
+            for (int x : new int[]{0, w - 1}) {
+                int rgb = pixels[y * w + x];
+                r += (rgb >> 16) & 0xFF;
+                g += (rgb >> 8) & 0xFF;
+                b += rgb & 0xFF;
+                n++;
+            }
+        }
+        return new int[]{(int) (r / n), (int) (g / n), (int) (b / n)};
+    }
+
+    private double percentile(double[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))];
+    }
+
+    /**
+     * Resample a region of the card (fractions of the card) into an upright image
+     */
+    private BufferedImage sample(BufferedImage source, CardGeometry card,
+                                 double left, double top, double right, double bottom, int outWidth, int outHeight) {
+        BufferedImage out = new BufferedImage(outWidth, outHeight, BufferedImage.TYPE_INT_RGB);
+        int[] row = new int[outWidth];
+
+        for (int oy = 0; oy < outHeight; oy++) {
+            double fy = top + (bottom - top) * (oy + 0.5) / outHeight - 0.5;
+            for (int ox = 0; ox < outWidth; ox++) {
+                double fx = left + (right - left) * (ox + 0.5) / outWidth - 0.5;
+                double sx = card.centerX + card.ux * fx * card.width + card.vx * fy * card.height;
+                double sy = card.centerY + card.uy * fx * card.width + card.vy * fy * card.height;
+                row[ox] = bilinear(source, sx - 0.5, sy - 0.5);
+            }
+            out.setRGB(0, oy, outWidth, 1, row, 0, outWidth);
+        }
+        return out;
+    }
+
+    private int bilinear(BufferedImage image, double x, double y) {
+        int maxX = image.getWidth() - 1, maxY = image.getHeight() - 1;
+        x = Math.max(0, Math.min(maxX, x));
+        y = Math.max(0, Math.min(maxY, y));
+        int x0 = (int) x, y0 = (int) y;
+        int x1 = Math.min(maxX, x0 + 1), y1 = Math.min(maxY, y0 + 1);
+        double tx = x - x0, ty = y - y0;
+
+        int p00 = image.getRGB(x0, y0), p10 = image.getRGB(x1, y0);
+        int p01 = image.getRGB(x0, y1), p11 = image.getRGB(x1, y1);
+
+        int result = 0;
+        for (int shift = 16; shift >= 0; shift -= 8) {
+            double top = ((p00 >> shift) & 0xFF) * (1 - tx) + ((p10 >> shift) & 0xFF) * tx;
+            double bottom = ((p01 >> shift) & 0xFF) * (1 - tx) + ((p11 >> shift) & 0xFF) * tx;
+            int value = (int) Math.round(top * (1 - ty) + bottom * ty);
+            result |= (value & 0xFF) << shift;
+        }
+        return result;
+    }
+
+    private BufferedImage halve(BufferedImage image) {
+        return resize(image, Math.max(1, image.getWidth() / 2), Math.max(1, image.getHeight() / 2));
+    }
+
+    private BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    private byte[] encodePng(BufferedImage image) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode title band", e);
+        }
+    }
+
+    /**
+     * Card position in a photo: centre, size and unit axes (u = left to right, v = top to bottom)
+     */
+    private static class CardGeometry {
+        private final double centerX, centerY, width, height;
+        private final double ux, uy, vx, vy;
+
+        CardGeometry(double centerX, double centerY, double width, double height,
+                     double ux, double uy, double vx, double vy) {
+            this.centerX = centerX;
+            this.centerY = centerY;
+            this.width = width;
+            this.height = height;
+            this.ux = ux;
+            this.uy = uy;
+            this.vx = vx;
+            this.vy = vy;
+        }
+
+        static CardGeometry wholeImage(int width, int height) {
+            return new CardGeometry(width / 2.0, height / 2.0, width, height, 1, 0, 0, 1);
+        }
+
+        CardGeometry scale(double factor) {
+            return new CardGeometry(centerX * factor, centerY * factor, width * factor, height * factor, ux, uy, vx, vy);
+        }
+
+        double skewDegrees() {
+            return Math.toDegrees(Math.atan2(-vx, vy));
+        }
+
+        // Axis-aligned bounding box in the photo, as x, y, width, height
+        int[] bounds(BufferedImage photo) {
+            double halfX = Math.abs(ux) * width / 2 + Math.abs(vx) * height / 2;
+            double halfY = Math.abs(uy) * width / 2 + Math.abs(vy) * height / 2;
+            int x0 = (int) Math.max(0, Math.floor(centerX - halfX));
+            int y0 = (int) Math.max(0, Math.floor(centerY - halfY));
+            int x1 = (int) Math.min(photo.getWidth(), Math.ceil(centerX + halfX));
+            int y1 = (int) Math.min(photo.getHeight(), Math.ceil(centerY + halfY));
+            return new int[]{x0, y0, Math.max(0, x1 - x0), Math.max(0, y1 - y0)};
+        }
+    }
+
+    private static class Mask {
+        private final int width;
+        private final int height;
+        private final double shrink;
+        private final boolean[] bits;
+
+        Mask(int width, int height, double shrink, boolean[] bits) {
+            this.width = width;
+            this.height = height;
+            this.shrink = shrink;
+            this.bits = bits;
+        }
+    }
+
+    public static class PreparedImage {
+        private final BufferedImage card;
+        private final byte[] titleBand;
+        private final boolean cardDetected;
+        private final int[] bounds;
+
+        public PreparedImage(BufferedImage card, byte[] titleBand, boolean cardDetected, int[] bounds) {
+            this.card = card;
+            this.titleBand = titleBand;
+            this.cardDetected = cardDetected;
+            this.bounds = bounds;
+        }
+
+        // Deskewed card at 421x614
+        public BufferedImage getCard() { return card; }
+        // Name strip as PNG, for the OCR server
+        public byte[] getTitleBand() { return titleBand; }
+        public boolean isCardDetected() { return cardDetected; }
+        // Where the card is in the photo: x, y, width, height
+        public int[] getBounds() { return bounds; }
+    }
+}
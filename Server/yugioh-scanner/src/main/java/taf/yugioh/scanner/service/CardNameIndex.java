@@ -0,0 +1,208 @@
+package taf.yugioh.scanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import taf.yugioh.scanner.model.OcrCandidate;
+import taf.yugioh.scanner.repository.CardRepository;
+
+import java.util.*;
+
+/**
+ * In-memory index of every card name in the local catalog, used to re-rank OCR output.
+ *
+ * Each OCR line is shortlisted against the catalog by shared trigrams and then scored by
+ * edit-distance similarity, a prior favouring lines near the top of the image (where the
+ * name is printed) and the OCR confidence. The best catalog name wins if it is similar
+ * enough; otherwise the caller falls back to the raw OCR text.
+ */
+@Service
+public class CardNameIndex {
+
+    private static final int SHORTLIST_SIZE = 30;
+    private static final int MAX_CANDIDATES = 8;
+
+    private static final double WEIGHT_SIMILARITY = 0.7;
+    private static final double WEIGHT_POSITION = 0.15;
+    private static final double WEIGHT_CONFIDENCE = 0.15;
+
+    // Minimum edit-distance similarity (0..1) to accept a catalog name
+    @Value("${app.ocr.rerank.min-similarity:0.75}")
+    private double minSimilarity;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    private static final Logger logger = LoggerFactory.getLogger(CardNameIndex.class);
+
+    private volatile Snapshot snapshot = new Snapshot(List.of());
+
+    /**
+     * Reload card names (new cards are saved as users look them up)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 600_000, initialDelay = 600_000)
+    public void reload() {
+        try {
+            List<String> names = cardRepository.findAllNames();
+            snapshot = new Snapshot(names);
+            logger.info("Card name index loaded: " + names.size() + " names");
+        } catch (Exception e) {
+            logger.error("Failed to load card name index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pick the catalog name best supported by the OCR lines
+     *
+     * @param imageHeight height of the image the OCR ran on, or null if unknown
+     * @return the catalog name (as stored), or empty if nothing is close enough
+     */
+    public Optional<String> bestMatch(List<OcrCandidate> candidates, Double imageHeight) {
+        Snapshot index = snapshot;
+        if (candidates == null || candidates.isEmpty() || index.names.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String bestName = null;
+        double bestScore = -1;
+        double bestSimilarity = 0;
+
+        for (OcrCandidate candidate : candidates.subList(0, Math.min(MAX_CANDIDATES, candidates.size()))) {
+            String query = normalise(candidate.getText());
+            if (query.length() < 3) {
+                continue;
+            }
+
+            double position = positionPrior(candidate, imageHeight);
+            for (int id : index.shortlist(query)) {
+                double similarity = similarity(query, index.normalised.get(id));
+                double score = WEIGHT_SIMILARITY * similarity + WEIGHT_POSITION * position +
+                        WEIGHT_CONFIDENCE * Math.max(0, Math.min(1, candidate.getConfidence()));
+                if (similarity >= minSimilarity && score > bestScore) {
+                    bestScore = score;
+                    bestSimilarity = similarity;
+                    bestName = index.names.get(id);
+                }
+            }
+        }
+
+        if (bestName != null) {
+            logger.debug("OCR re-rank picked '" + bestName + "' (similarity " + String.format("%.2f", bestSimilarity) + ")");
+        }
+        return Optional.ofNullable(bestName);
+    }
+
+    public int size() {
+        return snapshot.names.size();
+    }
+
+    // ==================== Helper Methods ====================
+
+    // Lines near the top score higher - the name is the first line on a card
+    private double positionPrior(OcrCandidate candidate, Double imageHeight) {
+        double[] bbox = candidate.getBbox();
+        if (bbox == null || bbox.length < 2 || imageHeight == null || imageHeight <= 0) {
+            return 0.5;
+        }
+        return 1.0 - Math.max(0, Math.min(1, bbox[1] / imageHeight));
+    }
+
+    static String normalise(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9 ]", " ");
+        return lower.trim().replaceAll("\\s+", " ");
+    }
+
+    static double similarity(String a, String b) {
+        int maxLength = Math.max(a.length(), b.length());
+        return maxLength == 0 ? 1.0 : 1.0 - (double) levenshtein(a, b) / maxLength;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static Set<String> trigrams(String text) {
+        String padded = "  " + text + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Immutable names + trigram postings, swapped in whole on reload
+     */
+    private static class Snapshot {
+        private final List<String> names;
+        private final List<String> normalised;
+        private final Map<String, int[]> postings;
+
+        Snapshot(List<String> cardNames) {
+            this.names = new ArrayList<>(cardNames.size());
+            this.normalised = new ArrayList<>(cardNames.size());
+            Map<String, List<Integer>> building = new HashMap<>();
+
+            for (String name : cardNames) {
+                String norm = normalise(name);
+                if (norm.isEmpty()) {
+                    continue;
+                }
+                int id = names.size();
+                names.add(name);
+                normalised.add(norm);
+                for (String gram : trigrams(norm)) {
+                    building.computeIfAbsent(gram, g -> new ArrayList<>()).add(id);
+                }
+            }
+
+            this.postings = new HashMap<>(building.size());
+            building.forEach((gram, ids) -> postings.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        // Names sharing the most trigrams with the query
+        List<Integer> shortlist(String query) {
+            Map<Integer, Integer> overlap = new HashMap<>();
+            for (String gram : trigrams(query)) {
+                int[] ids = postings.get(gram);
+                if (ids != null) {
+                    for (int id : ids) {
+                        overlap.merge(id, 1, Integer::sum);
+                    }
+                }
+            }
+
+            List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(overlap.entrySet());
+            ranked.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed());
+            List<Integer> shortlist = new ArrayList<>(Math.min(SHORTLIST_SIZE, ranked.size()));
+            for (int i = 0; i < ranked.size() && i < SHORTLIST_SIZE; i++) {
+                shortlist.add(ranked.get(i).getKey());
+            }
+            return shortlist;
+        }
+    }
+}
@@ -1,70 +1,371 @@
 package taf.yugioh.scanner.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import taf.yugioh.scanner.exception.OcrOverloadedException;
+import taf.yugioh.scanner.model.OcrCandidate;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class CardOCRService {
 
-    @Value("${app.upload.temp.dir:temp/uploads}")
-    private String tempUploadDir;
+    // Upper bound for a single OCR run before the request fails
+    @Value("${app.ocr.timeout-ms:15000}")
+    private long ocrTimeoutMs;
 
-    // URL of the Python Flask Server
-    private final String OCR_SERVER_URL = "http://127.0.0.1:5000/extract";
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private OcrDispatcher ocrDispatcher;
+
+    @Autowired
+    private OcrWorkerPool ocrWorkerPool;
+
+    @Autowired
+    private ScanResultCache scanResultCache;
+
+    @Autowired
+    private CardArtIndex cardArtIndex;
+
+    @Autowired
+    private CardImagePreprocessor cardImagePreprocessor;
+
+    @Autowired
+    private CardNameIndex cardNameIndex;
+
+    // Send only the cropped title band to the OCR server when a card was found in the photo
+    @Value("${app.ocr.preprocess.enabled:true}")
+    private boolean preprocessEnabled;
+
+    // Cards of a multi-card photo recognised at once
+    @Value("${app.ocr.multi.parallelism:4}")
+    private int multiParallelism;
+
+    private static final Logger logger = LoggerFactory.getLogger(CardOCRService.class);
+
+    private RestTemplate restTemplate;
+    private ExecutorService regionPool;
+
+    @PostConstruct
+    public void init() {
+        // Stream the request body instead of buffering it, so the upload is piped straight through
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setChunkSize(64 * 1024);
+        factory.setConnectTimeout(Duration.ofSeconds(2));
+        factory.setReadTimeout(Duration.ofMillis(ocrTimeoutMs));
+        this.restTemplate = new RestTemplate(factory);
+        this.regionPool = Executors.newFixedThreadPool(multiParallelism, r -> new Thread(r, "ocr-region"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        regionPool.shutdownNow();
+    }
 
     public String extractCardName(MultipartFile imageFile) throws Exception {
-        Path tempDir = Paths.get(tempUploadDir);
-        if (!Files.exists(tempDir)) {
-            Files.createDirectories(tempDir);
+        return extractCardName(imageFile.getResource());
+    }
+
+    /**
+     * Content hash of an upload, used as the scan cache key
+     */
+    public String hashImage(byte[] imageData) {
+        return ImageBlobService.sha256Hex(imageData);
+    }
+
+    /**
+     * Card id a previous scan of the exact same bytes resolved to, if any
+     */
+    public Optional<Long> findCachedCardId(String imageHash) {
+        return scanResultCache.get(imageHash);
+    }
+
+    /**
+     * Decode an upload and find, deskew and crop the card (null if the bytes aren't an image)
+     */
+    public CardImagePreprocessor.PreparedImage prepare(byte[] imageData) {
+        return cardImagePreprocessor.prepare(imageData);
+    }
+
+    /**
+     * Find, deskew and crop the card in an already decoded photo
+     */
+    public CardImagePreprocessor.PreparedImage prepare(BufferedImage photo) {
+        return cardImagePreprocessor.prepare(photo);
+    }
+
+    /**
+     * Try to resolve an upload without OCR: first the scan cache, then the card art index
+     */
+    public Optional<Long> findCardIdWithoutOcr(String imageHash, CardImagePreprocessor.PreparedImage prepared) {
+        Optional<Long> cached = findCachedCardId(imageHash);
+        if (cached.isPresent()) {
+            return cached;
         }
 
-        String tempFileName = System.currentTimeMillis() + "_" + imageFile.getOriginalFilename();
-        Path tempFilePath = tempDir.resolve(tempFileName);
+        return matchArt(imageHash, prepared);
+    }
+
+    /**
+     * Recognise a prepared upload by its card art (confident matches are cached)
+     */
+    public Optional<Long> matchArt(String imageHash, CardImagePreprocessor.PreparedImage prepared) {
+        if (prepared == null) {
+            return Optional.empty();
+        }
+        Optional<Long> artMatch = cardArtIndex.match(prepared.getCard());
+        artMatch.ifPresent(cardId -> cacheResult(imageHash, cardId));
+        return artMatch;
+    }
 
+    /**
+     * Remember what an upload resolved to, so repeat uploads skip OCR
+     */
+    public void cacheResult(String imageHash, Long cardId) {
+        scanResultCache.put(imageHash, cardId);
+    }
+
+    /**
+     * OCR an image already held in memory (e.g. copied out of a finished request)
+     */
+    public String extractCardName(byte[] imageData, String filename) {
+        return extractCardName(prepare(imageData), imageData, filename);
+    }
+
+    /**
+     * OCR a prepared upload: just the title band if the card was located, otherwise the whole photo
+     */
+    public String extractCardName(CardImagePreprocessor.PreparedImage prepared, byte[] imageData, String filename) {
+        if (preprocessEnabled && prepared != null && prepared.isCardDetected()) {
+            return extractCardName(namedResource(prepared.getTitleBand(), "title.png"));
+        }
+        return extractCardName(namedResource(imageData, filename));
+    }
+
+    /**
+     * OCR a prepared upload that was decoded while streaming (the original bytes were never kept).
+     * If no card was located, the decoded photo is re-encoded as JPEG for the OCR server.
+     */
+    public String extractCardName(CardImagePreprocessor.PreparedImage prepared, BufferedImage photo, String filename) {
+        if (preprocessEnabled && prepared != null && prepared.isCardDetected()) {
+            return extractCardName(namedResource(prepared.getTitleBand(), "title.png"));
+        }
+        return extractCardName(namedResource(encodeJpeg(photo), filename));
+    }
+
+    /**
+     * Find every card in a photo (deck spread, binder page) and recognise them in parallel,
+     * by art where possible and by OCR of the title band otherwise.
+     * Names are left unresolved so the caller can look them all up in one batch.
+     *
+     * @return one entry per card in reading order, or null if the bytes aren't an image
+     */
+    public List<RegionMatch> recognizeCards(byte[] imageData) {
+        List<CardImagePreprocessor.PreparedImage> regions = cardImagePreprocessor.prepareAll(imageData);
+        if (regions == null) {
+            return null;
+        }
+
+        List<CompletableFuture<RegionMatch>> futures = new ArrayList<>();
+        for (int i = 0; i < regions.size(); i++) {
+            int index = i;
+            CardImagePreprocessor.PreparedImage region = regions.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> recognizeRegion(index, region, imageData), regionPool));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Same as {@link #recognizeCards(byte[])} for a photo decoded while streaming
+     */
+    public List<RegionMatch> recognizeCards(BufferedImage photo) {
+        List<CardImagePreprocessor.PreparedImage> regions = cardImagePreprocessor.prepareAll(photo);
+
+        // The whole photo only goes to the OCR server when no card could be located
+        byte[] fallback = regions.size() == 1 && !regions.get(0).isCardDetected() ? encodeJpeg(photo) : null;
+
+        List<CompletableFuture<RegionMatch>> futures = new ArrayList<>();
+        for (int i = 0; i < regions.size(); i++) {
+            int index = i;
+            CardImagePreprocessor.PreparedImage region = regions.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> recognizeRegion(index, region, fallback), regionPool));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private RegionMatch recognizeRegion(int index, CardImagePreprocessor.PreparedImage region, byte[] imageData) {
+        RegionMatch match = new RegionMatch(index, region.getBounds());
         try {
-            // Save file so Python can read it
-            Files.copy(imageFile.getInputStream(), tempFilePath);
+            // The upload's hash covers the whole photo, so region results bypass the scan cache
+            Optional<Long> artMatch = cardArtIndex.match(region.getCard());
+            if (artMatch.isPresent()) {
+                match.cardId = artMatch.get();
+                match.matchedBy = "art";
+                return match;
+            }
+            match.cardName = extractCardName(region, imageData, "card-" + index + ".jpg");
+            match.matchedBy = "ocr";
+        } catch (Exception e) {
+            match.error = e.getMessage();
+        }
+        return match;
+    }
 
-            // Call Python Server
+    /**
+     * Send image bytes to the OCR server as a multipart upload (no temp file, no shared filesystem).
+     * Runs through the OCR dispatcher, so this may throw OcrOverloadedException under load.
+     */
+    public String extractCardName(Resource image) {
+        return ocrDispatcher.dispatch(() -> callOcrServer(image));
+    }
+
+    private byte[] encodeJpeg(BufferedImage photo) {
+        // JPEG has no alpha channel
+        BufferedImage rgb = photo;
+        if (photo.getType() != BufferedImage.TYPE_INT_RGB && photo.getType() != BufferedImage.TYPE_3BYTE_BGR) {
+            rgb = new BufferedImage(photo.getWidth(), photo.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = rgb.createGraphics();
+            try {
+                g.drawImage(photo, 0, 0, null);
+            } finally {
+                g.dispose();
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(rgb, "jpeg", out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode photo for OCR", e);
+        }
+        return out.toByteArray();
+    }
+
+    private Resource namedResource(byte[] data, String filename) {
+        // Multipart parts need a filename or the OCR server treats them as plain form fields
+        String partName = (filename == null || filename.isBlank()) ? "upload.jpg" : filename;
+        return new ByteArrayResource(data) {
+            @Override
+            public String getFilename() {
+                return partName;
+            }
+        };
+    }
+
+    private String callOcrServer(Resource image) {
+        try {
             HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
 
-            Map<String, String> body = new HashMap<>();
-            body.put("image_path", tempFilePath.toAbsolutePath().toString());
+            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+            body.add("image", image);
 
-            HttpEntity<Map<String, String>> request = new HttpEntity<>(body, headers);
+            HttpEntity<MultiValueMap<String, Object>> request = new HttpEntity<>(body, headers);
+
+            // Least-loaded healthy worker, failing over if it can't be reached
+            Map response = ocrWorkerPool.execute(url -> restTemplate.postForObject(url, request, Map.class));
+            if (response == null) {
+                return null;
+            }
 
-            Map response = restTemplate.postForObject(OCR_SERVER_URL, request, Map.class);
+            // Prefer a real catalog name picked from all OCR lines over the raw topmost line
+            Optional<String> catalogName = cardNameIndex.bestMatch(parseCandidates(response),
+                    toDouble(response.get("image_height")));
+            if (catalogName.isPresent()) {
+                return catalogName.get();
+            }
 
-            if (response != null && response.containsKey("card_name")) {
+            if (response.containsKey("card_name")) {
                 return (String) response.get("card_name");
             }
 
             return null;
 
+        } catch (OcrOverloadedException e) {
+            // No worker available - answered as 503 with Retry-After
+            throw e;
         } catch (Exception e) {
-            // If server is down, you might want to fallback to CLI or log error
-            System.err.println("OCR Server Error: " + e.getMessage());
-            throw new RuntimeException("OCR Service Unavailable");
-        } finally {
-            try {
-                Files.deleteIfExists(tempFilePath);
-            } catch (IOException e) {
-                // Ignore delete errors
+            logger.error("OCR server error: " + e.getMessage(), e);
+            throw new RuntimeException("OCR Service Unavailable", e);
+        }
+    }
+
+    private List<OcrCandidate> parseCandidates(Map<?, ?> response) {
+        List<OcrCandidate> candidates = new ArrayList<>();
+        if (!(response.get("candidates") instanceof List<?> rawCandidates)) {
+            return candidates;
+        }
+
+        for (Object raw : rawCandidates) {
+            if (!(raw instanceof Map<?, ?> candidate) || !(candidate.get("text") instanceof String text)) {
+                continue;
+            }
+            double[] bbox = null;
+            if (candidate.get("bbox") instanceof List<?> box && box.size() == 4) {
+                bbox = new double[4];
+                for (int i = 0; i < 4; i++) {
+                    Double value = toDouble(box.get(i));
+                    bbox[i] = value != null ? value : 0;
+                }
             }
+            Double confidence = toDouble(candidate.get("confidence"));
+            candidates.add(new OcrCandidate(text, (String) candidate.get("cleaned"),
+                    confidence != null ? confidence : 0, bbox));
+        }
+        return candidates;
+    }
+
+    private Double toDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    public static class RegionMatch {
+        private final int index;
+        private final int[] bounds;
+        private Long cardId;
+        private String cardName;
+        private String matchedBy;
+        private String error;
+
+        public RegionMatch(int index, int[] bounds) {
+            this.index = index;
+            this.bounds = bounds;
         }
+
+        public int getIndex() { return index; }
+        // Card position in the photo: x, y, width, height
+        public int[] getBounds() { return bounds; }
+        // Set when recognised by art
+        public Long getCardId() { return cardId; }
+        // Set when recognised by OCR
+        public String getCardName() { return cardName; }
+        public String getMatchedBy() { return matchedBy; }
+        public String getError() { return error; }
     }
-}
\ No newline at end of file
+}
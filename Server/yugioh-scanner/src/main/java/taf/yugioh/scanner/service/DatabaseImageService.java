@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import taf.yugioh.scanner.entity.Card;
 import taf.yugioh.scanner.entity.CardImage;
+import taf.yugioh.scanner.entity.ImageBlob;
 import taf.yugioh.scanner.repository.CardImageRepository;
 import taf.yugioh.scanner.repository.CardRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,8 +13,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 @Service
@@ -29,6 +38,15 @@ public class DatabaseImageService {
     @Autowired
     private CardRepository cardRepository;
 
+    @Autowired
+    private UpstreamRateLimiter rateLimiter;
+
+    @Autowired
+    private ImageBlobService imageBlobService;
+
+    @Autowired
+    private PublicDeckPayloadCache publicDeckPayloadCache;
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
 
@@ -55,6 +73,7 @@ public class DatabaseImageService {
 
             if (externalImageUrl != null && !externalImageUrl.isEmpty()) {
                 try {
+                    rateLimiter.acquire();
                     imageData = restTemplate.getForObject(externalImageUrl, byte[].class);
                 } catch (Exception e) {
                     logger.error("Failed to download main image: " + e.getMessage());
@@ -63,6 +82,7 @@ public class DatabaseImageService {
 
             if (externalSmallImageUrl != null && !externalSmallImageUrl.isEmpty()) {
                 try {
+                    rateLimiter.acquire();
                     smallImageData = restTemplate.getForObject(externalSmallImageUrl, byte[].class);
                 } catch (Exception e) {
                     logger.error("Failed to download small image: " + e.getMessage());
@@ -71,16 +91,23 @@ public class DatabaseImageService {
 
             if (imageData != null && imageData.length > 0) {
                 // Create and save card image
+                // Bytes go to the deduplicated blob store, the row only keeps their hashes
                 CardImage cardImage = new CardImage();
                 cardImage.setCardId(cardId);
-                cardImage.setImageData(imageData); // This will automatically set fileSize
-                cardImage.setImageSmallData(smallImageData); // This will automatically set smallFileSize
+                cardImage.setImageHash(imageBlobService.store(imageData));
+                cardImage.setFileSize(imageData.length);
+                if (smallImageData != null && smallImageData.length > 0) {
+                    cardImage.setSmallImageHash(imageBlobService.store(smallImageData));
+                    cardImage.setSmallFileSize(smallImageData.length);
+                }
+                cardImage.setArtHash(computeArtHash(imageData, cardId));
                 cardImage.setOriginalUrl(externalImageUrl);
                 cardImage.setOriginalSmallUrl(externalSmallImageUrl);
                 cardImage.setContentType("image/jpeg");
 
                 // Save with proper transaction handling
                 CardImage savedImage = cardImageRepository.save(cardImage);
+                cardDataChanged(cardId);
 
                 logger.info("Downloaded and stored image for card " + cardId +
                     " (Size: " + imageData.length + " bytes" +
@@ -99,6 +126,17 @@ public class DatabaseImageService {
         }
     }
 
+    private Long computeArtHash(byte[] imageData, Long cardId) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageData));
+            return image != null ? PerceptualHash.artHash(image) : null;
+        } catch (Exception e) {
+            // Not fatal - the art index backfills missing hashes
+            logger.warn("Could not hash art of card " + cardId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Downloads images asynchronously to avoid blocking the main response
      */
@@ -112,9 +150,16 @@ public class DatabaseImageService {
      * Get image data from database
      */
     public Optional<byte[]> getImageData(Long cardId, boolean isSmall) {
+        // Blob may be in the database or already migrated to another storage backend
         if (isSmall) {
-            return cardImageRepository.findSmallImageDataByCardId(cardId);
+            Optional<ImageBlob> blob = cardImageRepository.findSmallBlobByCardId(cardId);
+            return blob.isPresent() ? imageBlobService.readData(blob.get()) : cardImageRepository.findSmallImageDataByCardId(cardId);
         } else {
+            Optional<ImageBlob> blob = cardImageRepository.findBlobByCardId(cardId);
+            if (blob.isPresent()) {
+                return imageBlobService.readData(blob.get());
+            }
+            // Legacy row not yet moved to image_blobs
             Optional<CardImage> cardImage = cardImageRepository.findImageDataByCardId(cardId);
             return cardImage.map(CardImage::getImageData);
         }
@@ -142,6 +187,16 @@ public class DatabaseImageService {
         return cardImageRepository.existsByCardId(cardId);
     }
 
+    /**
+     * Which of the given cards have a stored image (one query)
+     */
+    public Set<Long> findCardIdsWithImages(Collection<Long> cardIds) {
+        if (cardIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(cardImageRepository.findCardIdsWithImages(cardIds));
+    }
+
     /**
      * Save or update card information in database
      */
@@ -183,6 +238,7 @@ public class DatabaseImageService {
             }
 
             Card savedCard = cardRepository.save(card);
+            cardDataChanged(savedCard.getCardId());
             logger.info("Successfully saved card: " + savedCard.getName() + " (ID: " + savedCard.getCardId() + ")");
             return savedCard;
 
@@ -255,7 +311,34 @@ public class DatabaseImageService {
      */
     @Transactional
     public void deleteCardImage(Long cardId) {
-        cardImageRepository.deleteByCardId(cardId);
+        Optional<CardImage> cardImage = cardImageRepository.findByCardId(cardId);
+        if (cardImage.isEmpty()) {
+            return;
+        }
+
+        cardImageRepository.delete(cardImage.get());
+
+        // Blobs are shared between cards - only drop this row's references
+        imageBlobService.release(cardImage.get().getImageHash());
+        imageBlobService.release(cardImage.get().getSmallImageHash());
+        cardDataChanged(cardId);
+    }
+
+    /**
+     * Cached public deck payloads embed card names and image URLs - drop the ones showing
+     * this card once the change is committed
+     */
+    private void cardDataChanged(Long cardId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicDeckPayloadCache.evictCard(cardId);
+                }
+            });
+        } else {
+            publicDeckPayloadCache.evictCard(cardId);
+        }
     }
 
     /**
@@ -263,19 +346,31 @@ public class DatabaseImageService {
      */
     public ImageStats getImageStats() {
         long totalImages = cardImageRepository.count();
-        return new ImageStats(totalImages);
+        return new ImageStats(totalImages, imageBlobService.countBlobs(), imageBlobService.getStoredBytes());
     }
 
     public static class ImageStats {
         private final long totalImages;
+        private final long uniqueBlobs;
+        private final long blobBytes;
 
-        public ImageStats(long totalImages) {
+        public ImageStats(long totalImages, long uniqueBlobs, long blobBytes) {
             this.totalImages = totalImages;
+            this.uniqueBlobs = uniqueBlobs;
+            this.blobBytes = blobBytes;
         }
 
         public long getTotalImages() {
             return totalImages;
         }
+
+        public long getUniqueBlobs() {
+            return uniqueBlobs;
+        }
+
+        public long getBlobBytes() {
+            return blobBytes;
+        }
     }
     
 }
\ No newline at end of file
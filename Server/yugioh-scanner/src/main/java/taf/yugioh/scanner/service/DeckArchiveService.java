@@ -0,0 +1,98 @@
+package taf.yugioh.scanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import taf.yugioh.scanner.entity.Card;
+import taf.yugioh.scanner.entity.DeckCard;
+import taf.yugioh.scanner.repository.DeckCardRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams every image of a deck as a ZIP archive.
+ *
+ * Entries are written straight to the given output stream one card at a time,
+ * so memory use is bounded by a single image regardless of deck size.
+ * JPEGs are already compressed, so entries use STORED instead of DEFLATED.
+ */
+@Service
+public class DeckArchiveService {
+
+    @Autowired
+    private DeckCardRepository deckCardRepository;
+
+    @Autowired
+    private DatabaseImageService databaseImageService;
+
+    private static final Logger logger = LoggerFactory.getLogger(DeckArchiveService.class);
+
+    /**
+     * Write a ZIP of the deck's images to the output stream
+     *
+     * @return number of images written
+     */
+    public int writeDeckArchive(Long deckId, boolean small, OutputStream outputStream) throws IOException {
+        // One entry per distinct card, in deck order
+        Map<Long, String> cardNames = new LinkedHashMap<>();
+        for (DeckCard dc : deckCardRepository.findByDeckIdWithCards(deckId)) {
+            Card card = dc.getCard();
+            cardNames.putIfAbsent(dc.getCardId(), card != null ? card.getName() : null);
+        }
+
+        int written = 0;
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        zip.setMethod(ZipOutputStream.STORED);
+
+        for (Map.Entry<Long, String> entry : cardNames.entrySet()) {
+            Long cardId = entry.getKey();
+            Optional<byte[]> imageData = databaseImageService.getImageData(cardId, small);
+            if (imageData.isEmpty() || imageData.get().length == 0) {
+                logger.warn("Skipping card " + cardId + " in deck " + deckId + " archive: no stored image");
+                continue;
+            }
+
+            writeStoredEntry(zip, buildEntryName(cardId, entry.getValue()), imageData.get());
+            written++;
+        }
+
+        // finish() rather than close() - the servlet container owns the response stream
+        zip.finish();
+        zip.flush();
+
+        logger.info("Streamed deck " + deckId + " archive (" + written + "/" + cardNames.size() + " images)");
+        return written;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void writeStoredEntry(ZipOutputStream zip, String name, byte[] data) throws IOException {
+        // STORED entries need size and CRC before the data is written
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        ZipEntry zipEntry = new ZipEntry(name);
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setSize(data.length);
+        zipEntry.setCompressedSize(data.length);
+        zipEntry.setCrc(crc.getValue());
+
+        zip.putNextEntry(zipEntry);
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    private String buildEntryName(Long cardId, String cardName) {
+        if (cardName == null || cardName.isBlank()) {
+            return cardId + ".jpg";
+        }
+        String safeName = cardName.replaceAll("[^A-Za-z0-9 _\\-]", "").trim().replaceAll("\\s+", "_");
+        return safeName.isEmpty() ? cardId + ".jpg" : safeName + "_" + cardId + ".jpg";
+    }
+}
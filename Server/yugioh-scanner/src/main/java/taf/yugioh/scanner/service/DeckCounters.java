@@ -0,0 +1,115 @@
+package taf.yugioh.scanner.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import taf.yugioh.scanner.entity.Card;
+import taf.yugioh.scanner.entity.DeckCard;
+import taf.yugioh.scanner.entity.UserDeck;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arithmetic for the counters stored on a deck (section sizes, over-limit and misplaced cards, validity).
+ *
+ * Works on the UserDeck entity and in-memory quantities only and never touches the database,
+ * so a card edit can update the counters without reloading the deck's rows.
+ */
+@Component
+public class DeckCounters {
+
+    private static final int MAX_COPIES_PER_CARD = DeckValidator.MAX_COPIES_PER_CARD;
+
+    @Autowired
+    private DeckValidator deckValidator;
+
+    /**
+     * Apply one deck row changing from oldQuantity to newQuantity copies to the deck's counters
+     *
+     * @param card        the row's card, or null if unknown (placement is then left alone)
+     * @param totalBefore copies of the card across all sections before the change
+     */
+    public void apply(UserDeck deck, DeckCard.DeckType deckType, Card card,
+                      int oldQuantity, int newQuantity, int totalBefore) {
+        int delta = newQuantity - oldQuantity;
+        deck.addToSectionCount(deckType, delta);
+
+        int totalAfter = totalBefore + delta;
+        deck.setOverLimitCards(deck.getOverLimitCards()
+                + (totalAfter > MAX_COPIES_PER_CARD ? 1 : 0) - (totalBefore > MAX_COPIES_PER_CARD ? 1 : 0));
+
+        if (card != null && isMisplaced(card, deckType)) {
+            deck.setMisplacedCards(deck.getMisplacedCards() + (newQuantity > 0 ? 1 : 0) - (oldQuantity > 0 ? 1 : 0));
+        }
+
+        deck.setIsValid(errors(deck).isEmpty());
+    }
+
+    /**
+     * Overwrite a deck's counters from the full set of section quantities
+     */
+    public void set(UserDeck deck, Map<DeckCard.DeckType, Map<Long, Integer>> quantities,
+                    Map<Long, Integer> totals, Map<Long, Card> cards) {
+        int[] sections = sumSections(quantities);
+        deck.setMainCount(sections[DeckCard.DeckType.MAIN.ordinal()]);
+        deck.setExtraCount(sections[DeckCard.DeckType.EXTRA.ordinal()]);
+        deck.setSideCount(sections[DeckCard.DeckType.SIDE.ordinal()]);
+        deck.setOverLimitCards((int) totals.values().stream().filter(total -> total > MAX_COPIES_PER_CARD).count());
+
+        int misplaced = 0;
+        for (Map.Entry<DeckCard.DeckType, Map<Long, Integer>> section : quantities.entrySet()) {
+            for (Map.Entry<Long, Integer> entry : section.getValue().entrySet()) {
+                Card card = cards.get(entry.getKey());
+                if (entry.getValue() > 0 && card != null && isMisplaced(card, section.getKey())) {
+                    misplaced++;
+                }
+            }
+        }
+        deck.setMisplacedCards(misplaced);
+
+        deck.setIsValid(errors(deck).isEmpty());
+    }
+
+    /**
+     * Rule violations from a deck's counters
+     */
+    public List<String> errors(UserDeck deck) {
+        return errors(deck.getMainCount(), deck.getExtraCount(), deck.getSideCount(),
+                deck.getOverLimitCards(), deck.getMisplacedCards());
+    }
+
+    /**
+     * Rule violations from counters only. Copy-limit and placement problems are reported as
+     * counts here; the per-card messages are in the full deck response.
+     */
+    public List<String> errors(int mainCount, int extraCount, int sideCount,
+                               int overLimitCards, int misplacedCards) {
+        List<String> errors = deckValidator.validateSizes(mainCount, extraCount, sideCount);
+        if (overLimitCards > 0) {
+            errors.add(overLimitCards + " card(s) exceed the " + MAX_COPIES_PER_CARD + " copy limit");
+        }
+        if (misplacedCards > 0) {
+            errors.add(misplacedCards + " card(s) are in the wrong deck section");
+        }
+        return errors;
+    }
+
+    /**
+     * Whether a card may not sit in a section (Extra Deck monsters in the Main Deck, anything else in the Extra Deck)
+     */
+    public static boolean isMisplaced(Card card, DeckCard.DeckType deckType) {
+        boolean extraDeckCard = DeckValidator.isExtraDeckCard(card.getFrameType());
+        return (deckType == DeckCard.DeckType.MAIN && extraDeckCard)
+                || (deckType == DeckCard.DeckType.EXTRA && !extraDeckCard);
+    }
+
+    /**
+     * Copies per section, indexed by DeckType ordinal
+     */
+    public static int[] sumSections(Map<DeckCard.DeckType, Map<Long, Integer>> quantities) {
+        int[] counts = new int[DeckCard.DeckType.values().length];
+        quantities.forEach((type, section) ->
+                counts[type.ordinal()] = section.values().stream().mapToInt(Integer::intValue).sum());
+        return counts;
+    }
+}
@@ -1,13 +1,24 @@
 package taf.yugioh.scanner.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import taf.yugioh.scanner.dto.*;
 import taf.yugioh.scanner.entity.*;
+import taf.yugioh.scanner.exception.DeckVersionMismatchException;
 import taf.yugioh.scanner.repository.*;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -15,23 +26,18 @@ import java.util.stream.Collectors;
 @Transactional
 public class DeckService {
 
-    // Yu-Gi-Oh Deck Rules Constants
-    private static final int MAIN_DECK_MIN = 40;
-    private static final int MAIN_DECK_MAX = 60;
-    private static final int EXTRA_DECK_MAX = 15;
-    private static final int SIDE_DECK_MAX = 15;
-    private static final int MAX_COPIES_PER_CARD = 3;
-
-    // Extra Deck card types (frameType values)
-    private static final Set<String> EXTRA_DECK_TYPES = Set.of(
-            "fusion",
-            "synchro",
-            "xyz",
-            "link",
-            "synchro_pendulum",
-            "xyz_pendulum",
-            "fusion_pendulum"
-    );
+    // Yu-Gi-Oh Deck Rules Constants (defined by DeckValidator)
+    private static final int MAIN_DECK_MIN = DeckValidator.MAIN_DECK_MIN;
+    private static final int MAIN_DECK_MAX = DeckValidator.MAIN_DECK_MAX;
+    private static final int EXTRA_DECK_MAX = DeckValidator.EXTRA_DECK_MAX;
+    private static final int SIDE_DECK_MAX = DeckValidator.SIDE_DECK_MAX;
+    private static final int MAX_COPIES_PER_CARD = DeckValidator.MAX_COPIES_PER_CARD;
+
+    // Public deck feed page sizes
+    private static final int PUBLIC_PAGE_DEFAULT = 20;
+    private static final int PUBLIC_PAGE_MAX = 100;
+
+    private static final Set<String> EXTRA_DECK_TYPES = DeckValidator.EXTRA_DECK_TYPES;
 
     @Value("${server.port:8080}")
     private String serverPort;
@@ -45,6 +51,23 @@ public class DeckService {
     @Autowired
     private CardRepository cardRepository;
 
+    @Autowired
+    private PublicDeckFeedCache publicDeckFeedCache;
+
+    @Autowired
+    private PublicDeckPayloadCache publicDeckPayloadCache;
+
+    @Autowired
+    private DeckValidator deckValidator;
+
+    @Autowired
+    private DeckCounters deckCounters;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final Logger logger = LoggerFactory.getLogger(DeckService.class);
+
     /**
      * Create a new deck for user
      */
@@ -54,21 +77,26 @@ public class DeckService {
         deck.setName(request.getName().trim());
         deck.setDescription(request.getDescription());
         deck.setIsPublic(request.getIsPublic() != null ? request.getIsPublic() : false);
+        deck.resetCounters();
 
         UserDeck savedDeck = userDeckRepository.save(deck);
+        if (savedDeck.getIsPublic()) {
+            invalidatePublicFeed(savedDeck.getId());
+        }
 
         DeckResponse response = buildDeckResponse(savedDeck, false);
         return ApiResponse.success("Deck created successfully", response);
     }
 
     /**
-     * Get all decks for user
+     * Get all decks for user (counts and validity come from the deck counters in one query, no cards are loaded)
      */
+    @Transactional(readOnly = true)
     public ApiResponse<List<DeckResponse>> getUserDecks(User user) {
-        List<UserDeck> decks = userDeckRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+        List<UserDeckRepository.DeckSummary> summaries = userDeckRepository.findDeckSummariesByUserId(user.getId());
 
-        List<DeckResponse> responses = decks.stream()
-                .map(deck -> buildDeckResponse(deck, false))
+        List<DeckResponse> responses = summaries.stream()
+                .map(this::buildSummaryResponse)
                 .collect(Collectors.toList());
 
         return ApiResponse.success("Decks retrieved successfully", responses);
@@ -107,10 +135,24 @@ public class DeckService {
         return ApiResponse.success("Deck retrieved successfully", response);
     }
 
+    /**
+     * Find a deck owned by the user (entity only, no cards)
+     */
+    public Optional<UserDeck> findUserDeck(User user, Long deckId) {
+        return userDeckRepository.findByIdAndUserId(deckId, user.getId());
+    }
+
+    /**
+     * Find a deck only if it is public (entity only, no cards)
+     */
+    public Optional<UserDeck> findPublicDeck(Long deckId) {
+        return userDeckRepository.findById(deckId).filter(UserDeck::getIsPublic);
+    }
+
     /**
      * Update deck info (name, description, visibility)
      */
-    public ApiResponse<DeckResponse> updateDeck(User user, Long deckId, DeckRequest request) {
+    public ApiResponse<DeckResponse> updateDeck(User user, Long deckId, DeckRequest request, Long expectedVersion) {
         Optional<UserDeck> deckOptional = userDeckRepository.findByIdAndUserId(deckId, user.getId());
 
         if (deckOptional.isEmpty()) {
@@ -118,13 +160,18 @@ public class DeckService {
         }
 
         UserDeck deck = deckOptional.get();
+        checkVersion(deck, expectedVersion);
+        boolean wasPublic = deck.getIsPublic();
         deck.setName(request.getName().trim());
         deck.setDescription(request.getDescription());
         if (request.getIsPublic() != null) {
             deck.setIsPublic(request.getIsPublic());
         }
 
-        UserDeck savedDeck = userDeckRepository.save(deck);
+        UserDeck savedDeck = userDeckRepository.saveAndFlush(deck);
+        if (wasPublic || savedDeck.getIsPublic()) {
+            invalidatePublicFeed(deckId);
+        }
         DeckResponse response = buildDeckResponse(savedDeck, false);
         return ApiResponse.success("Deck updated successfully", response);
     }
@@ -132,32 +179,296 @@ public class DeckService {
     /**
      * Delete a deck
      */
-    public ApiResponse<Void> deleteDeck(User user, Long deckId) {
+    public ApiResponse<Void> deleteDeck(User user, Long deckId, Long expectedVersion) {
         Optional<UserDeck> deckOptional = userDeckRepository.findByIdAndUserId(deckId, user.getId());
 
         if (deckOptional.isEmpty()) {
             return ApiResponse.error("Deck not found");
         }
+        checkVersion(deckOptional.get(), expectedVersion);
 
         userDeckRepository.delete(deckOptional.get());
+        if (deckOptional.get().getIsPublic()) {
+            invalidatePublicFeed(deckId);
+        }
         return ApiResponse.success("Deck deleted successfully");
     }
 
     /**
      * Add a card to deck with validation
      */
-    public ApiResponse<DeckResponse> addCardToDeck(User user, Long deckId, AddCardRequest request) {
-        // Get deck
+    public ApiResponse<DeckResponse> addCardToDeck(User user, Long deckId, AddCardRequest request,
+                                                   Long expectedVersion) {
+        CardMutation mutation = applyAddCard(user, deckId, request, expectedVersion);
+        if (mutation.getError() != null) {
+            return ApiResponse.error(mutation.getError());
+        }
+
+        // Return updated deck
+        DeckResponse response = buildDeckResponse(mutation.getDeck(), true);
+        return ApiResponse.success("Card added to deck", response);
+    }
+
+    /**
+     * Add a card to deck, returning only the changed entry and the deck's new counters
+     */
+    public ApiResponse<DeckDeltaResponse> addCardToDeckDelta(User user, Long deckId, AddCardRequest request,
+                                                             Long expectedVersion) {
+        CardMutation mutation = applyAddCard(user, deckId, request, expectedVersion);
+        if (mutation.getError() != null) {
+            return ApiResponse.error(mutation.getError());
+        }
+        return ApiResponse.success("Card added to deck", buildDeltaResponse(mutation));
+    }
+
+    /**
+     * Remove a card from deck
+     */
+    public ApiResponse<DeckResponse> removeCardFromDeck(User user, Long deckId, Long cardId,
+                                                        DeckCard.DeckType deckType, Integer quantity,
+                                                        Long expectedVersion) {
+        CardMutation mutation = applyRemoveCard(user, deckId, cardId, deckType, quantity, expectedVersion);
+        if (mutation.getError() != null) {
+            return ApiResponse.error(mutation.getError());
+        }
+
+        DeckResponse response = buildDeckResponse(mutation.getDeck(), true);
+        return ApiResponse.success("Card removed from deck", response);
+    }
+
+    /**
+     * Remove a card from deck, returning only the changed entry and the deck's new counters
+     */
+    public ApiResponse<DeckDeltaResponse> removeCardFromDeckDelta(User user, Long deckId, Long cardId,
+                                                                  DeckCard.DeckType deckType, Integer quantity,
+                                                                  Long expectedVersion) {
+        CardMutation mutation = applyRemoveCard(user, deckId, cardId, deckType, quantity, expectedVersion);
+        if (mutation.getError() != null) {
+            return ApiResponse.error(mutation.getError());
+        }
+        return ApiResponse.success("Card removed from deck", buildDeltaResponse(mutation));
+    }
+
+    /**
+     * Apply a list of add/remove/move operations to a deck in one transaction.
+     * Operations are checked in order against an in-memory copy of the deck and the
+     * result is validated as a whole, so a batch may pass through states a single
+     * edit would reject (e.g. remove one card before adding another to a full section).
+     * Nothing is written unless every operation is valid.
+     */
+    public ApiResponse<DeckBatchResponse> applyBatch(User user, Long deckId, DeckBatchRequest request,
+                                                     Long expectedVersion) {
         Optional<UserDeck> deckOptional = userDeckRepository.findByIdAndUserId(deckId, user.getId());
         if (deckOptional.isEmpty()) {
             return ApiResponse.error("Deck not found");
         }
         UserDeck deck = deckOptional.get();
+        checkVersion(deck, expectedVersion);
+        List<DeckBatchRequest.Operation> operations = request.getOperations();
+
+        // Current rows and every card the deck or the batch refers to, one query each
+        Map<DeckCard.DeckType, Map<Long, DeckCard>> rows = new EnumMap<>(DeckCard.DeckType.class);
+        Map<DeckCard.DeckType, Map<Long, Integer>> quantities = new EnumMap<>(DeckCard.DeckType.class);
+        for (DeckCard.DeckType type : DeckCard.DeckType.values()) {
+            rows.put(type, new HashMap<>());
+            quantities.put(type, new LinkedHashMap<>());
+        }
+        Set<Long> cardIds = new HashSet<>();
+        for (DeckCard dc : deckCardRepository.findByDeckId(deckId)) {
+            rows.get(dc.getDeckType()).put(dc.getCardId(), dc);
+            quantities.get(dc.getDeckType()).merge(dc.getCardId(), dc.getQuantity(), Integer::sum);
+            cardIds.add(dc.getCardId());
+        }
+        operations.forEach(op -> cardIds.add(op.getCardId()));
+        Map<Long, Card> cards = cardRepository.findByCardIdIn(cardIds).stream()
+                .collect(Collectors.toMap(Card::getCardId, card -> card, (a, b) -> a));
+
+        Map<Long, Integer> totalsBefore = sumCopiesPerCard(quantities);
+        int[] sectionsBefore = DeckCounters.sumSections(quantities);
+
+        // Replay the operations in memory
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            String error = applyOperation(operations.get(i), quantities, cards);
+            if (error != null) {
+                errors.add("Operation " + (i + 1) + ": " + error);
+            }
+        }
+
+        // Validate the end state: only reject what the batch made worse
+        Map<Long, Integer> totalsAfter = sumCopiesPerCard(quantities);
+        for (Map.Entry<Long, Integer> entry : totalsAfter.entrySet()) {
+            int before = totalsBefore.getOrDefault(entry.getKey(), 0);
+            if (entry.getValue() > MAX_COPIES_PER_CARD && entry.getValue() > before) {
+                errors.add(getCardName(cards.get(entry.getKey()), entry.getKey()) + " would have " +
+                        entry.getValue() + " copies. Maximum is " + MAX_COPIES_PER_CARD);
+            }
+        }
+        int[] sectionsAfter = DeckCounters.sumSections(quantities);
+        for (DeckCard.DeckType type : DeckCard.DeckType.values()) {
+            int after = sectionsAfter[type.ordinal()];
+            if (after > sectionsBefore[type.ordinal()]) {
+                String sizeError = validateSectionSize(type, after);
+                if (sizeError != null) {
+                    errors.add(sizeError);
+                }
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            return ApiResponse.error("Batch rejected, no changes were made. " + String.join("; ", errors));
+        }
+
+        // Write only the rows that changed
+        List<DeckCard> toSave = new ArrayList<>();
+        List<DeckCard> toDelete = new ArrayList<>();
+        List<DeckBatchResponse.ChangedCard> changes = new ArrayList<>();
+        for (DeckCard.DeckType type : DeckCard.DeckType.values()) {
+            Map<Long, DeckCard> sectionRows = rows.get(type);
+            Map<Long, Integer> sectionQuantities = quantities.get(type);
+
+            for (Map.Entry<Long, DeckCard> entry : sectionRows.entrySet()) {
+                DeckCard row = entry.getValue();
+                int quantity = sectionQuantities.getOrDefault(entry.getKey(), 0);
+                if (quantity == 0) {
+                    toDelete.add(row);
+                } else if (quantity != row.getQuantity()) {
+                    row.setQuantity(quantity);
+                    toSave.add(row);
+                } else {
+                    continue;
+                }
+                changes.add(new DeckBatchResponse.ChangedCard(entry.getKey(), type, quantity));
+            }
+            for (Map.Entry<Long, Integer> entry : sectionQuantities.entrySet()) {
+                if (!sectionRows.containsKey(entry.getKey()) && entry.getValue() > 0) {
+                    toSave.add(new DeckCard(deck, entry.getKey(), entry.getValue(), type));
+                    changes.add(new DeckBatchResponse.ChangedCard(entry.getKey(), type, entry.getValue()));
+                }
+            }
+        }
+
+        if (!toDelete.isEmpty()) {
+            deckCardRepository.deleteAllInBatch(toDelete);
+        }
+        deckCardRepository.saveAll(toSave);
+
+        // Counters are rebuilt from the end state rather than replayed per operation
+        deckCounters.set(deck, quantities, totalsAfter, cards);
+        if (!changes.isEmpty()) {
+            // Swapping cards can leave every counter unchanged; touching the deck still bumps its version
+            deck.setUpdatedAt(LocalDateTime.now());
+        }
+        userDeckRepository.saveAndFlush(deck);
+
+        if (deck.getIsPublic() && !changes.isEmpty()) {
+            invalidatePublicFeed(deckId);
+        }
+
+        DeckBatchResponse response = new DeckBatchResponse();
+        response.setDeckId(deckId);
+        response.setVersion(deck.getVersion());
+        response.setAppliedOperations(operations.size());
+        response.setMainDeckCount(deck.getMainCount());
+        response.setExtraDeckCount(deck.getExtraCount());
+        response.setSideDeckCount(deck.getSideCount());
+        List<String> validationErrors = deckCounters.errors(deck);
+        response.setValid(validationErrors.isEmpty());
+        response.setValidationErrors(validationErrors);
+        response.setChanges(changes);
+
+        return ApiResponse.success("Applied " + operations.size() + " operation(s)", response);
+    }
+
+    /**
+     * Validate entire deck against Yu-Gi-Oh rules
+     */
+    public ApiResponse<DeckResponse> validateDeck(User user, Long deckId) {
+        Optional<UserDeck> deckOptional = userDeckRepository.findByIdAndUserId(deckId, user.getId());
+        if (deckOptional.isEmpty()) {
+            return ApiResponse.error("Deck not found");
+        }
+
+        DeckResponse response = buildDeckResponse(deckOptional.get(), true);
+        return ApiResponse.success("Deck validation complete", response);
+    }
+
+    /**
+     * Get all public decks for browsing, newest first (summaries in one query, no cards are loaded)
+     */
+    @Transactional(readOnly = true)
+    public ApiResponse<List<DeckResponse>> getPublicDecks() {
+        List<DeckResponse> responses = userDeckRepository.findPublicDeckSummaries().stream()
+                .map(this::buildSummaryResponse)
+                .collect(Collectors.toList());
+
+        return ApiResponse.success("Public decks retrieved", responses);
+    }
+
+    /**
+     * Get one page of public decks for browsing, newest first
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public ApiResponse<PublicDeckPage> getPublicDeckPage(String cursor, Integer limit) {
+        int pageSize = limit == null ? PUBLIC_PAGE_DEFAULT : Math.max(1, Math.min(limit, PUBLIC_PAGE_MAX));
+        PublicDeckPage page = publicDeckFeedCache.get(cursor, pageSize, () -> loadPublicDeckPage(cursor, pageSize));
+        return ApiResponse.success("Public decks retrieved", page);
+    }
+
+    /**
+     * Backfill counters for decks created before they existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillDeckCounters() {
+        int updated = userDeckRepository.recalculateMissingCounters(MAX_COPIES_PER_CARD, EXTRA_DECK_TYPES);
+        userDeckRepository.recalculateMissingValidity(MAIN_DECK_MIN, MAIN_DECK_MAX, EXTRA_DECK_MAX, SIDE_DECK_MAX);
+        if (updated > 0) {
+            logger.info("Backfilled summary counters for " + updated + " decks");
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Reject a write made against an older version of the deck (If-Match); null skips the check
+     */
+    private void checkVersion(UserDeck deck, Long expectedVersion) {
+        if (expectedVersion != null && deck.getVersion() != expectedVersion) {
+            throw new DeckVersionMismatchException(deck.getVersion());
+        }
+    }
+
+    /**
+     * Counters of a deck that hasn't been backfilled yet are rebuilt before they're updated
+     */
+    private UserDeck ensureCounters(UserDeck deck) {
+        if (deck.hasCounters() && deck.getIsValid() != null) {
+            return deck;
+        }
+        userDeckRepository.recalculateCounters(deck.getId(), MAX_COPIES_PER_CARD, EXTRA_DECK_TYPES);
+        userDeckRepository.recalculateValidity(deck.getId(), MAIN_DECK_MIN, MAIN_DECK_MAX, EXTRA_DECK_MAX, SIDE_DECK_MAX);
+        entityManager.refresh(deck);
+        return deck;
+    }
+
+    /**
+     * Validate and apply a single card addition, updating the deck's counters
+     */
+    private CardMutation applyAddCard(User user, Long deckId, AddCardRequest request, Long expectedVersion) {
+        // Concurrent edits are caught by the deck's @Version when its counters are saved
+        Optional<UserDeck> deckOptional = userDeckRepository.findByIdAndUserId(deckId, user.getId());
+        if (deckOptional.isEmpty()) {
+            return CardMutation.failed("Deck not found");
+        }
+        checkVersion(deckOptional.get(), expectedVersion);
+        UserDeck deck = ensureCounters(deckOptional.get());
 
         // Verify card exists in database
         Optional<Card> cardOptional = cardRepository.findByCardId(request.getCardId());
         if (cardOptional.isEmpty()) {
-            return ApiResponse.error("Card not found in database. Please search for the card first.");
+            return CardMutation.failed("Card not found in database. Please search for the card first.");
         }
         Card card = cardOptional.get();
 
@@ -165,26 +476,26 @@ public class DeckService {
         DeckCard.DeckType targetDeckType = request.getDeckType();
         if (targetDeckType == DeckCard.DeckType.MAIN || targetDeckType == DeckCard.DeckType.EXTRA) {
             // Auto-correct deck type based on card type
-            if (isExtraDeckCard(card.getFrameType())) {
+            if (DeckValidator.isExtraDeckCard(card.getFrameType())) {
                 targetDeckType = DeckCard.DeckType.EXTRA;
             } else if (targetDeckType == DeckCard.DeckType.EXTRA) {
                 // Card is not an Extra Deck card but user tried to add to Extra Deck
-                return ApiResponse.error("This card cannot be added to the Extra Deck. Only Fusion, Synchro, XYZ, and Link monsters can be in the Extra Deck.");
+                return CardMutation.failed("This card cannot be added to the Extra Deck. Only Fusion, Synchro, XYZ, and Link monsters can be in the Extra Deck.");
             }
         }
 
         // Validate total copies of this card across all deck sections
-        int totalCopies = getTotalCardCopies(deckId, request.getCardId());
+        int totalCopies = deckCardRepository.sumQuantityByDeckIdAndCardId(deckId, request.getCardId());
         int newTotal = totalCopies + request.getQuantity();
         if (newTotal > MAX_COPIES_PER_CARD) {
-            return ApiResponse.error("Cannot add more copies. Maximum " + MAX_COPIES_PER_CARD +
+            return CardMutation.failed("Cannot add more copies. Maximum " + MAX_COPIES_PER_CARD +
                     " copies of any card allowed. You already have " + totalCopies + " copies.");
         }
 
         // Validate deck size limits
-        String sizeError = validateDeckSizeForAddition(deckId, targetDeckType, request.getQuantity());
+        String sizeError = validateDeckSizeForAddition(deck, targetDeckType, request.getQuantity());
         if (sizeError != null) {
-            return ApiResponse.error(sizeError);
+            return CardMutation.failed(sizeError);
         }
 
         // Check if card already exists in this deck section
@@ -192,37 +503,48 @@ public class DeckService {
                 deckId, request.getCardId(), targetDeckType
         );
 
+        DeckCard deckCard;
+        int oldQuantity = 0;
+        int newQuantity;
         if (existingCard.isPresent()) {
             // Update quantity
-            DeckCard deckCard = existingCard.get();
-            int newQuantity = deckCard.getQuantity() + request.getQuantity();
+            deckCard = existingCard.get();
+            oldQuantity = deckCard.getQuantity();
+            newQuantity = oldQuantity + request.getQuantity();
             if (newQuantity > MAX_COPIES_PER_CARD) {
-                return ApiResponse.error("Cannot exceed " + MAX_COPIES_PER_CARD + " copies of this card");
+                return CardMutation.failed("Cannot exceed " + MAX_COPIES_PER_CARD + " copies of this card");
             }
             deckCard.setQuantity(newQuantity);
             deckCardRepository.save(deckCard);
         } else {
             // Add new card entry
-            DeckCard deckCard = new DeckCard(deck, request.getCardId(), request.getQuantity(), targetDeckType);
+            newQuantity = request.getQuantity();
+            deckCard = new DeckCard(deck, request.getCardId(), newQuantity, targetDeckType);
             deckCardRepository.save(deckCard);
         }
 
-        // Return updated deck
-        DeckResponse response = buildDeckResponse(deck, true);
-        return ApiResponse.success("Card added to deck", response);
+        deckCounters.apply(deck, targetDeckType, card, oldQuantity, newQuantity, totalCopies);
+        userDeckRepository.saveAndFlush(deck);
+
+        if (deck.getIsPublic()) {
+            invalidatePublicFeed(deckId);
+        }
+
+        return new CardMutation(deck, deckCard, card);
     }
 
     /**
-     * Remove a card from deck
+     * Validate and apply a single card removal, updating the deck's counters
      */
-    public ApiResponse<DeckResponse> removeCardFromDeck(User user, Long deckId, Long cardId,
-                                                        DeckCard.DeckType deckType, Integer quantity) {
-        // Get deck
+    private CardMutation applyRemoveCard(User user, Long deckId, Long cardId,
+                                         DeckCard.DeckType deckType, Integer quantity, Long expectedVersion) {
+        // Concurrent edits are caught by the deck's @Version when its counters are saved
         Optional<UserDeck> deckOptional = userDeckRepository.findByIdAndUserId(deckId, user.getId());
         if (deckOptional.isEmpty()) {
-            return ApiResponse.error("Deck not found");
+            return CardMutation.failed("Deck not found");
         }
-        UserDeck deck = deckOptional.get();
+        checkVersion(deckOptional.get(), expectedVersion);
+        UserDeck deck = ensureCounters(deckOptional.get());
 
         // Find card in deck
         Optional<DeckCard> deckCardOptional = deckCardRepository.findByDeckIdAndCardIdAndDeckType(
@@ -230,51 +552,190 @@ public class DeckService {
         );
 
         if (deckCardOptional.isEmpty()) {
-            return ApiResponse.error("Card not found in this deck section");
+            return CardMutation.failed("Card not found in this deck section");
         }
 
         DeckCard deckCard = deckCardOptional.get();
+        int totalCopies = deckCardRepository.sumQuantityByDeckIdAndCardId(deckId, cardId);
+        int oldQuantity = deckCard.getQuantity();
+        int newQuantity;
 
         if (quantity == null || quantity >= deckCard.getQuantity()) {
             // Remove entirely
+            newQuantity = 0;
             deckCardRepository.delete(deckCard);
+            deckCard.setQuantity(0);
         } else {
             // Reduce quantity
-            deckCard.setQuantity(deckCard.getQuantity() - quantity);
+            newQuantity = deckCard.getQuantity() - quantity;
+            deckCard.setQuantity(newQuantity);
             deckCardRepository.save(deckCard);
         }
 
-        DeckResponse response = buildDeckResponse(deck, true);
-        return ApiResponse.success("Card removed from deck", response);
+        Card card = cardRepository.findByCardId(cardId).orElse(null);
+        deckCounters.apply(deck, deckType, card, oldQuantity, newQuantity, totalCopies);
+        userDeckRepository.saveAndFlush(deck);
+
+        if (deck.getIsPublic()) {
+            invalidatePublicFeed(deckId);
+        }
+
+        return new CardMutation(deck, deckCard, card);
+    }
+
+    private DeckDeltaResponse buildDeltaResponse(CardMutation mutation) {
+        UserDeck deck = mutation.getDeck();
+
+        DeckDeltaResponse response = new DeckDeltaResponse();
+        response.setDeckId(deck.getId());
+        response.setVersion(deck.getVersion());
+        response.setMainDeckCount(deck.getMainCount());
+        response.setExtraDeckCount(deck.getExtraCount());
+        response.setSideDeckCount(deck.getSideCount());
+
+        List<String> errors = deckCounters.errors(deck);
+        response.setValid(errors.isEmpty());
+        response.setValidationErrors(errors);
+        response.setChanges(List.of(DeckCardDTO.fromEntity(
+                mutation.getRow(), mutation.getCard(), "http://localhost:" + serverPort)));
+        return response;
     }
 
     /**
-     * Validate entire deck against Yu-Gi-Oh rules
+     * Apply one batch operation to the in-memory section quantities
+     *
+     * @return error message, or null if the operation was applied
      */
-    public ApiResponse<DeckResponse> validateDeck(User user, Long deckId) {
-        Optional<UserDeck> deckOptional = userDeckRepository.findByIdAndUserId(deckId, user.getId());
-        if (deckOptional.isEmpty()) {
-            return ApiResponse.error("Deck not found");
+    private String applyOperation(DeckBatchRequest.Operation op,
+                                  Map<DeckCard.DeckType, Map<Long, Integer>> quantities,
+                                  Map<Long, Card> cards) {
+        Card card = cards.get(op.getCardId());
+        DeckCard.DeckType deckType = op.getDeckType() != null ? op.getDeckType() : DeckCard.DeckType.MAIN;
+
+        switch (op.getType()) {
+            case ADD: {
+                if (card == null) {
+                    return "Card " + op.getCardId() + " not found in database. Please search for the card first.";
+                }
+                // Same auto-correction as a single add
+                if (deckType != DeckCard.DeckType.SIDE) {
+                    if (DeckValidator.isExtraDeckCard(card.getFrameType())) {
+                        deckType = DeckCard.DeckType.EXTRA;
+                    } else if (deckType == DeckCard.DeckType.EXTRA) {
+                        return card.getName() + " cannot be added to the Extra Deck";
+                    }
+                }
+                int quantity = op.getQuantity() != null ? op.getQuantity() : 1;
+                quantities.get(deckType).merge(op.getCardId(), quantity, Integer::sum);
+                return null;
+            }
+            case REMOVE: {
+                int current = quantities.get(deckType).getOrDefault(op.getCardId(), 0);
+                if (current == 0) {
+                    return "Card " + op.getCardId() + " not found in the " + deckType + " deck";
+                }
+                int removed = op.getQuantity() != null ? Math.min(op.getQuantity(), current) : current;
+                quantities.get(deckType).put(op.getCardId(), current - removed);
+                return null;
+            }
+            case MOVE: {
+                DeckCard.DeckType target = op.getTargetDeckType();
+                if (target == null || target == deckType) {
+                    return "Move needs a target deck section different from " + deckType;
+                }
+                int current = quantities.get(deckType).getOrDefault(op.getCardId(), 0);
+                int moved = op.getQuantity() != null ? op.getQuantity() : current;
+                if (current == 0 || moved > current) {
+                    return "Only " + current + " copies of card " + op.getCardId() + " in the " + deckType + " deck";
+                }
+                if (card != null && target != DeckCard.DeckType.SIDE && DeckCounters.isMisplaced(card, target)) {
+                    return card.getName() + " cannot be moved to the " + target + " deck";
+                }
+                quantities.get(deckType).put(op.getCardId(), current - moved);
+                quantities.get(target).merge(op.getCardId(), moved, Integer::sum);
+                return null;
+            }
+            default:
+                return "Unknown operation " + op.getType();
         }
+    }
 
-        DeckResponse response = buildDeckResponse(deckOptional.get(), true);
-        return ApiResponse.success("Deck validation complete", response);
+    private Map<Long, Integer> sumCopiesPerCard(Map<DeckCard.DeckType, Map<Long, Integer>> quantities) {
+        Map<Long, Integer> totals = new HashMap<>();
+        quantities.values().forEach(section -> section.forEach((cardId, qty) -> totals.merge(cardId, qty, Integer::sum)));
+        return totals;
     }
 
-    /**
-     * Get public decks for browsing
-     */
-    public ApiResponse<List<DeckResponse>> getPublicDecks() {
-        List<UserDeck> decks = userDeckRepository.findByIsPublicTrueOrderByCreatedAtDesc();
+    private String getCardName(Card card, Long cardId) {
+        return card != null ? card.getName() : "Card " + cardId;
+    }
+
+    private PublicDeckPage loadPublicDeckPage(String cursor, int pageSize) {
+        // First page starts after a cursor newer than any deck
+        LocalDateTime cursorCreatedAt = LocalDateTime.of(9999, 12, 31, 0, 0);
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            cursorCreatedAt = LocalDateTime.parse(parts[0]);
+            cursorId = Long.parseLong(parts[1]);
+        }
 
-        List<DeckResponse> responses = decks.stream()
-                .map(deck -> buildDeckResponse(deck, false))
+        // One extra row tells whether another page exists
+        List<UserDeckRepository.DeckSummary> rows = userDeckRepository.findPublicDeckSummariesBefore(
+                cursorCreatedAt, cursorId, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<UserDeckRepository.DeckSummary> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        List<DeckResponse> decks = pageRows.stream()
+                .map(this::buildSummaryResponse)
                 .collect(Collectors.toList());
 
-        return ApiResponse.success("Public decks retrieved", responses);
+        String nextCursor = null;
+        if (hasMore) {
+            UserDeckRepository.DeckSummary last = pageRows.get(pageRows.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new PublicDeckPage(decks, nextCursor);
     }
 
-    // ==================== Helper Methods ====================
+    private String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Drop cached public feed pages and the deck's cached payload once the current
+     * transaction has committed, so a concurrent reader can't re-cache the old state in between
+     */
+    private void invalidatePublicFeed(Long deckId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicDeckFeedCache.invalidate();
+                    publicDeckPayloadCache.evict(deckId);
+                }
+            });
+        } else {
+            publicDeckFeedCache.invalidate();
+            publicDeckPayloadCache.evict(deckId);
+        }
+    }
 
     /**
      * Build complete deck response with validation
@@ -282,6 +743,19 @@ public class DeckService {
     private DeckResponse buildDeckResponse(UserDeck deck, boolean includeCards) {
         DeckResponse response = DeckResponse.fromEntity(deck);
 
+        // Counts and validity straight from the counters when the cards aren't needed
+        if (!includeCards && deck.hasCounters()) {
+            response.setMainDeckCount(deck.getMainCount());
+            response.setExtraDeckCount(deck.getExtraCount());
+            response.setSideDeckCount(deck.getSideCount());
+            response.setTotalCards(deck.getMainCount() + deck.getExtraCount() + deck.getSideCount());
+
+            List<String> errors = deckCounters.errors(deck);
+            response.setValid(errors.isEmpty());
+            response.setValidationErrors(errors);
+            return response;
+        }
+
         // Get all cards in deck
         List<DeckCard> deckCards = deckCardRepository.findByDeckIdWithCards(deck.getId());
 
@@ -290,36 +764,28 @@ public class DeckService {
         List<DeckCard> extraDeckCards = new ArrayList<>();
         List<DeckCard> sideDeckCards = new ArrayList<>();
 
-        int mainCount = 0;
-        int extraCount = 0;
-        int sideCount = 0;
-
         for (DeckCard dc : deckCards) {
             switch (dc.getDeckType()) {
                 case MAIN:
                     mainDeckCards.add(dc);
-                    mainCount += dc.getQuantity();
                     break;
                 case EXTRA:
                     extraDeckCards.add(dc);
-                    extraCount += dc.getQuantity();
                     break;
                 case SIDE:
                     sideDeckCards.add(dc);
-                    sideCount += dc.getQuantity();
                     break;
             }
         }
 
-        response.setMainDeckCount(mainCount);
-        response.setExtraDeckCount(extraCount);
-        response.setSideDeckCount(sideCount);
-        response.setTotalCards(mainCount + extraCount + sideCount);
-
-        // Validate deck
-        List<String> errors = validateDeckRules(mainCount, extraCount, sideCount, deckCards);
-        response.setValid(errors.isEmpty());
-        response.setValidationErrors(errors);
+        // Validate deck (works on the loaded rows only, no further queries)
+        DeckValidator.ValidationResult validation = deckValidator.validate(deckCards);
+        response.setMainDeckCount(validation.getMainCount());
+        response.setExtraDeckCount(validation.getExtraCount());
+        response.setSideDeckCount(validation.getSideCount());
+        response.setTotalCards(validation.getTotalCards());
+        response.setValid(validation.isValid());
+        response.setValidationErrors(validation.getErrors());
 
         // Include card details if requested
         if (includeCards) {
@@ -339,94 +805,26 @@ public class DeckService {
     }
 
     /**
-     * Validate deck against Yu-Gi-Oh rules
-     */
-    private List<String> validateDeckRules(int mainCount, int extraCount, int sideCount,
-                                           List<DeckCard> deckCards) {
-        List<String> errors = new ArrayList<>();
-
-        // Main Deck size validation
-        if (mainCount < MAIN_DECK_MIN) {
-            errors.add("Main Deck must have at least " + MAIN_DECK_MIN + " cards (currently " + mainCount + ")");
-        }
-        if (mainCount > MAIN_DECK_MAX) {
-            errors.add("Main Deck cannot exceed " + MAIN_DECK_MAX + " cards (currently " + mainCount + ")");
-        }
-
-        // Extra Deck size validation
-        if (extraCount > EXTRA_DECK_MAX) {
-            errors.add("Extra Deck cannot exceed " + EXTRA_DECK_MAX + " cards (currently " + extraCount + ")");
-        }
-
-        // Side Deck size validation
-        if (sideCount > SIDE_DECK_MAX) {
-            errors.add("Side Deck cannot exceed " + SIDE_DECK_MAX + " cards (currently " + sideCount + ")");
-        }
-
-        // Check card copy limits (max 3 of same card across all sections)
-        Map<Long, Integer> cardCounts = new HashMap<>();
-        for (DeckCard dc : deckCards) {
-            cardCounts.merge(dc.getCardId(), dc.getQuantity(), Integer::sum);
-        }
-
-        for (Map.Entry<Long, Integer> entry : cardCounts.entrySet()) {
-            if (entry.getValue() > MAX_COPIES_PER_CARD) {
-                // Get card name if possible
-                String cardName = "Card ID " + entry.getKey();
-                Optional<Card> card = cardRepository.findByCardId(entry.getKey());
-                if (card.isPresent()) {
-                    cardName = card.get().getName();
-                }
-                errors.add("Too many copies of '" + cardName + "' (" + entry.getValue() + "/" + MAX_COPIES_PER_CARD + ")");
-            }
-        }
-
-        // Validate card placement (Extra Deck cards in Extra Deck, etc.)
-        for (DeckCard dc : deckCards) {
-            Card card = dc.getCard();
-            if (card != null) {
-                boolean isExtraDeckCard = isExtraDeckCard(card.getFrameType());
-
-                if (isExtraDeckCard && dc.getDeckType() == DeckCard.DeckType.MAIN) {
-                    errors.add("'" + card.getName() + "' should be in Extra Deck, not Main Deck");
-                }
-                if (!isExtraDeckCard && dc.getDeckType() == DeckCard.DeckType.EXTRA) {
-                    errors.add("'" + card.getName() + "' cannot be in Extra Deck");
-                }
-            }
-        }
-
-        return errors;
-    }
-
-    /**
-     * Check if card type belongs in Extra Deck
+     * Build a list entry from its summary row
      */
-    private boolean isExtraDeckCard(String frameType) {
-        if (frameType == null) return false;
-        return EXTRA_DECK_TYPES.contains(frameType.toLowerCase());
-    }
+    private DeckResponse buildSummaryResponse(UserDeckRepository.DeckSummary summary) {
+        DeckResponse response = DeckResponse.fromSummary(summary);
 
-    /**
-     * Get total copies of a card across all deck sections
-     */
-    private int getTotalCardCopies(Long deckId, Long cardId) {
-        List<DeckCard> cards = deckCardRepository.findByDeckId(deckId);
-        return cards.stream()
-                .filter(dc -> dc.getCardId().equals(cardId))
-                .mapToInt(DeckCard::getQuantity)
-                .sum();
+        List<String> errors = deckCounters.errors(summary.getMainDeckCount(), summary.getExtraDeckCount(),
+                summary.getSideDeckCount(), summary.getOverLimitCards(), summary.getMisplacedCards());
+        response.setValid(errors.isEmpty());
+        response.setValidationErrors(errors);
+        return response;
     }
 
     /**
      * Validate deck size before adding cards
      */
-    private String validateDeckSizeForAddition(Long deckId, DeckCard.DeckType deckType, int quantity) {
-        Integer currentCount = deckCardRepository.countCardsByDeckIdAndType(deckId, deckType);
-        if (currentCount == null) currentCount = 0;
-
-        int newCount = currentCount + quantity;
+    private String validateDeckSizeForAddition(UserDeck deck, DeckCard.DeckType deckType, int quantity) {
+        return validateSectionSize(deckType, deck.getSectionCount(deckType) + quantity);
+    }
 
+    private String validateSectionSize(DeckCard.DeckType deckType, int newCount) {
         switch (deckType) {
             case MAIN:
                 if (newCount > MAIN_DECK_MAX) {
@@ -447,4 +845,34 @@ public class DeckService {
 
         return null; // No error
     }
-}
\ No newline at end of file
+
+    /**
+     * Outcome of a single card mutation: the locked deck, the changed row and its card, or an error
+     */
+    private static class CardMutation {
+        private final UserDeck deck;
+        private final DeckCard row;
+        private final Card card;
+        private final String error;
+
+        CardMutation(UserDeck deck, DeckCard row, Card card) {
+            this(deck, row, card, null);
+        }
+
+        private CardMutation(UserDeck deck, DeckCard row, Card card, String error) {
+            this.deck = deck;
+            this.row = row;
+            this.card = card;
+            this.error = error;
+        }
+
+        static CardMutation failed(String error) {
+            return new CardMutation(null, null, null, error);
+        }
+
+        UserDeck getDeck() { return deck; }
+        DeckCard getRow() { return row; }
+        Card getCard() { return card; }
+        String getError() { return error; }
+    }
+}
@@ -0,0 +1,303 @@
+package taf.yugioh.scanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import taf.yugioh.scanner.dto.DeckSpriteResponse;
+import taf.yugioh.scanner.entity.DeckCard;
+import taf.yugioh.scanner.repository.DeckCardRepository;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Composes a deck's small card images into a single JPEG atlas.
+ *
+ * Atlases are cached by a hash of the deck's distinct card IDs, so they are only
+ * rebuilt when the card list changes (quantities and sections don't affect the atlas).
+ * Atlases with missing images are kept briefly, then rebuilt in case the images arrived.
+ */
+@Service
+public class DeckSpriteService {
+
+    // Same size as the small images served by YGOProDeck
+    private static final int TILE_WIDTH = 168;
+    private static final int TILE_HEIGHT = 246;
+    private static final int COLUMNS = 10;
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final int MAX_CACHED_SPRITES = 50;
+    private static final long PARTIAL_TTL_MS = 30_000;
+
+    @Value("${server.port:8080}")
+    private String serverPort;
+
+    @Autowired
+    private DeckCardRepository deckCardRepository;
+
+    @Autowired
+    private DatabaseImageService databaseImageService;
+
+    private static final Logger logger = LoggerFactory.getLogger(DeckSpriteService.class);
+
+    // LRU cache: content hash -> atlas (complete atlases, and partial ones for PARTIAL_TTL_MS)
+    private final Map<String, DeckSprite> spriteCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, DeckSprite> eldest) {
+                    return size() > MAX_CACHED_SPRITES;
+                }
+            });
+
+    // Builds in progress, so concurrent misses on the same hash share one build
+    private final Map<String, CompletableFuture<DeckSprite>> building = new ConcurrentHashMap<>();
+
+    /**
+     * Get the atlas for a deck, building it if the card list changed since it was last cached
+     */
+    public DeckSprite getSprite(Long deckId) {
+        List<Long> cardIds = getDistinctCardIds(deckId);
+        String hash = computeContentHash(cardIds);
+
+        DeckSprite cached = getCachedSprite(hash);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<DeckSprite> build = new CompletableFuture<>();
+        CompletableFuture<DeckSprite> inFlight = building.putIfAbsent(hash, build);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            DeckSprite sprite = buildSprite(hash, cardIds);
+            spriteCache.put(hash, sprite);
+            build.complete(sprite);
+            return sprite;
+        } catch (RuntimeException e) {
+            build.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(hash, build);
+        }
+    }
+
+    /**
+     * Get the content hash of a deck's card list without building the atlas
+     */
+    public String getContentHash(Long deckId) {
+        return computeContentHash(getDistinctCardIds(deckId));
+    }
+
+    /**
+     * Build the JSON coordinate map for a deck's atlas. Taken from the cached atlas when
+     * there is one (so map and image agree), otherwise laid out from the card list and
+     * the stored images without decoding or encoding anything.
+     */
+    public DeckSpriteResponse getSpriteMap(Long deckId, boolean isPublic) {
+        List<Long> cardIds = getDistinctCardIds(deckId);
+        String hash = computeContentHash(cardIds);
+
+        DeckSprite cached = getCachedSprite(hash);
+        if (cached != null) {
+            return buildSpriteResponse(deckId, hash, cached.getWidth(), cached.getHeight(),
+                    cached.getTiles(), cached.getMissingCardIds(), isPublic);
+        }
+
+        Set<Long> withImages = databaseImageService.findCardIdsWithImages(cardIds);
+        List<DeckSpriteResponse.Tile> tiles = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < cardIds.size(); i++) {
+            Long cardId = cardIds.get(i);
+            if (withImages.contains(cardId)) {
+                tiles.add(new DeckSpriteResponse.Tile(cardId, tileX(i), tileY(i)));
+            } else {
+                missing.add(cardId);
+            }
+        }
+        return buildSpriteResponse(deckId, hash, atlasWidth(cardIds.size()), atlasHeight(cardIds.size()),
+                tiles, missing, isPublic);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private List<Long> getDistinctCardIds(Long deckId) {
+        return deckCardRepository.findByDeckId(deckId).stream()
+                .map(DeckCard::getCardId)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private String computeContentHash(List<Long> cardIds) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String joined = cardIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+            byte[] hash = digest.digest(joined.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private DeckSprite getCachedSprite(String hash) {
+        DeckSprite cached = spriteCache.get(hash);
+        if (cached == null || cached.getMissingCardIds().isEmpty()) {
+            return cached;
+        }
+        // Missing images are usually still downloading - retry a partial atlas after a short while
+        return System.currentTimeMillis() - cached.getBuiltAt() < PARTIAL_TTL_MS ? cached : null;
+    }
+
+    private DeckSpriteResponse buildSpriteResponse(Long deckId, String hash, int width, int height,
+                                                   List<DeckSpriteResponse.Tile> tiles, List<Long> missing,
+                                                   boolean isPublic) {
+        String path = isPublic ? "/api/decks/public/" : "/api/decks/";
+
+        DeckSpriteResponse response = new DeckSpriteResponse();
+        response.setDeckId(deckId);
+        response.setHash(hash);
+        response.setSpriteUrl("http://localhost:" + serverPort + path + deckId + "/sprite?v=" + hash);
+        response.setTileWidth(TILE_WIDTH);
+        response.setTileHeight(TILE_HEIGHT);
+        response.setColumns(COLUMNS);
+        response.setWidth(width);
+        response.setHeight(height);
+        response.setTiles(tiles);
+        response.setMissingCardIds(missing);
+        return response;
+    }
+
+    // Layout: COLUMNS tiles per row, in card-ID order
+    private int tileX(int index) { return (index % COLUMNS) * TILE_WIDTH; }
+    private int tileY(int index) { return (index / COLUMNS) * TILE_HEIGHT; }
+    private int atlasWidth(int tiles) { return Math.max(1, Math.min(COLUMNS, tiles)) * TILE_WIDTH; }
+    private int atlasHeight(int tiles) { return Math.max(1, (tiles + COLUMNS - 1) / COLUMNS) * TILE_HEIGHT; }
+
+    private DeckSprite buildSprite(String hash, List<Long> cardIds) {
+        int width = atlasWidth(cardIds.size());
+        int height = atlasHeight(cardIds.size());
+
+        BufferedImage atlas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = atlas.createGraphics();
+        List<DeckSpriteResponse.Tile> tiles = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+
+            for (int i = 0; i < cardIds.size(); i++) {
+                Long cardId = cardIds.get(i);
+                int x = tileX(i);
+                int y = tileY(i);
+
+                BufferedImage tile = loadSmallImage(cardId);
+                if (tile == null) {
+                    missing.add(cardId);
+                    continue;
+                }
+
+                g.drawImage(tile, x, y, TILE_WIDTH, TILE_HEIGHT, null);
+                tiles.add(new DeckSpriteResponse.Tile(cardId, x, y));
+            }
+        } finally {
+            g.dispose();
+        }
+
+        byte[] imageBytes = encodeJpeg(atlas);
+        logger.info("Built deck sprite " + hash + " (" + tiles.size() + " tiles, " +
+                missing.size() + " missing, " + imageBytes.length + " bytes)");
+
+        return new DeckSprite(hash, imageBytes, width, height, tiles, missing);
+    }
+
+    private BufferedImage loadSmallImage(Long cardId) {
+        try {
+            Optional<byte[]> data = databaseImageService.getImageData(cardId, true);
+            if (data.isEmpty() || data.get().length == 0) {
+                // Fall back to the regular image if no small variant was stored
+                data = databaseImageService.getImageData(cardId, false);
+            }
+            if (data.isEmpty() || data.get().length == 0) {
+                return null;
+            }
+            return ImageIO.read(new ByteArrayInputStream(data.get()));
+        } catch (Exception e) {
+            logger.error("Failed to load image for card " + cardId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode deck sprite", e);
+        } finally {
+            writer.dispose();
+        }
+
+        return out.toByteArray();
+    }
+
+    public static class DeckSprite {
+        private final String hash;
+        private final byte[] imageBytes;
+        private final int width;
+        private final int height;
+        private final List<DeckSpriteResponse.Tile> tiles;
+        private final List<Long> missingCardIds;
+        private final long builtAt = System.currentTimeMillis();
+
+        public DeckSprite(String hash, byte[] imageBytes, int width, int height,
+                          List<DeckSpriteResponse.Tile> tiles, List<Long> missingCardIds) {
+            this.hash = hash;
+            this.imageBytes = imageBytes;
+            this.width = width;
+            this.height = height;
+            this.tiles = tiles;
+            this.missingCardIds = missingCardIds;
+        }
+
+        public String getHash() { return hash; }
+        public byte[] getImageBytes() { return imageBytes; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public List<DeckSpriteResponse.Tile> getTiles() { return tiles; }
+        public List<Long> getMissingCardIds() { return missingCardIds; }
+        public long getBuiltAt() { return builtAt; }
+    }
+}
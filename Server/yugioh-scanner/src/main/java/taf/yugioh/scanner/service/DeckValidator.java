@@ -0,0 +1,180 @@
+package taf.yugioh.scanner.service;
+
+import org.springframework.stereotype.Component;
+import taf.yugioh.scanner.entity.Card;
+import taf.yugioh.scanner.entity.DeckCard;
+
+import java.util.*;
+
+/**
+ * Checks a deck against the Yu-Gi-Oh deck building rules.
+ *
+ * Works only on rows that are already loaded (with their Card attached, e.g. from
+ * findByDeckIdWithCards) and never touches the database. Each rule sees one
+ * precomputed snapshot of the deck, so adding a rule means adding an entry to {@link #rules}.
+ */
+@Component
+public class DeckValidator {
+
+    // Yu-Gi-Oh Deck Rules Constants
+    public static final int MAIN_DECK_MIN = 40;
+    public static final int MAIN_DECK_MAX = 60;
+    public static final int EXTRA_DECK_MAX = 15;
+    public static final int SIDE_DECK_MAX = 15;
+    public static final int MAX_COPIES_PER_CARD = 3;
+
+    // Extra Deck card types (frameType values)
+    public static final Set<String> EXTRA_DECK_TYPES = Set.of(
+            "fusion",
+            "synchro",
+            "xyz",
+            "link",
+            "synchro_pendulum",
+            "xyz_pendulum",
+            "fusion_pendulum"
+    );
+
+    /**
+     * One deck building rule; adds a message for every violation it finds
+     */
+    public interface Rule {
+        void check(DeckSnapshot deck, List<String> errors);
+    }
+
+    // Checked in order, so messages keep a stable order
+    private final List<Rule> rules = List.of(
+            this::checkSectionSizes,
+            this::checkCopyLimits,
+            this::checkPlacement
+    );
+
+    /**
+     * Validate a loaded deck
+     */
+    public ValidationResult validate(Collection<DeckCard> deckCards) {
+        DeckSnapshot snapshot = new DeckSnapshot(deckCards);
+        List<String> errors = new ArrayList<>();
+        for (Rule rule : rules) {
+            rule.check(snapshot, errors);
+        }
+        return new ValidationResult(snapshot, errors);
+    }
+
+    /**
+     * Validate section sizes only (for decks summarized by their counters)
+     */
+    public List<String> validateSizes(int mainCount, int extraCount, int sideCount) {
+        List<String> errors = new ArrayList<>();
+
+        // Main Deck size validation
+        if (mainCount < MAIN_DECK_MIN) {
+            errors.add("Main Deck must have at least " + MAIN_DECK_MIN + " cards (currently " + mainCount + ")");
+        }
+        if (mainCount > MAIN_DECK_MAX) {
+            errors.add("Main Deck cannot exceed " + MAIN_DECK_MAX + " cards (currently " + mainCount + ")");
+        }
+
+        // Extra Deck size validation
+        if (extraCount > EXTRA_DECK_MAX) {
+            errors.add("Extra Deck cannot exceed " + EXTRA_DECK_MAX + " cards (currently " + extraCount + ")");
+        }
+
+        // Side Deck size validation
+        if (sideCount > SIDE_DECK_MAX) {
+            errors.add("Side Deck cannot exceed " + SIDE_DECK_MAX + " cards (currently " + sideCount + ")");
+        }
+
+        return errors;
+    }
+
+    /**
+     * Check if card type belongs in Extra Deck
+     */
+    public static boolean isExtraDeckCard(String frameType) {
+        if (frameType == null) return false;
+        return EXTRA_DECK_TYPES.contains(frameType.toLowerCase());
+    }
+
+    // ==================== Rules ====================
+
+    private void checkSectionSizes(DeckSnapshot deck, List<String> errors) {
+        errors.addAll(validateSizes(deck.getMainCount(), deck.getExtraCount(), deck.getSideCount()));
+    }
+
+    // Max 3 of the same card across all sections
+    private void checkCopyLimits(DeckSnapshot deck, List<String> errors) {
+        for (Map.Entry<Long, Integer> entry : deck.getCopiesPerCard().entrySet()) {
+            if (entry.getValue() > MAX_COPIES_PER_CARD) {
+                errors.add("Too many copies of '" + deck.getCardName(entry.getKey()) + "' (" +
+                        entry.getValue() + "/" + MAX_COPIES_PER_CARD + ")");
+            }
+        }
+    }
+
+    // Extra Deck cards in the Extra Deck, everything else out of it
+    private void checkPlacement(DeckSnapshot deck, List<String> errors) {
+        for (DeckCard dc : deck.getRows()) {
+            Card card = dc.getCard();
+            if (card == null) {
+                continue;
+            }
+            boolean extraDeckCard = isExtraDeckCard(card.getFrameType());
+
+            if (extraDeckCard && dc.getDeckType() == DeckCard.DeckType.MAIN) {
+                errors.add("'" + card.getName() + "' should be in Extra Deck, not Main Deck");
+            }
+            if (!extraDeckCard && dc.getDeckType() == DeckCard.DeckType.EXTRA) {
+                errors.add("'" + card.getName() + "' cannot be in Extra Deck");
+            }
+        }
+    }
+
+    /**
+     * Everything the rules need, computed in one pass over the rows
+     */
+    public static class DeckSnapshot {
+        private final Collection<DeckCard> rows;
+        private final int[] sectionCounts = new int[DeckCard.DeckType.values().length];
+        private final Map<Long, Integer> copiesPerCard = new LinkedHashMap<>();
+        private final Map<Long, String> cardNames = new HashMap<>();
+
+        public DeckSnapshot(Collection<DeckCard> rows) {
+            this.rows = rows;
+            for (DeckCard dc : rows) {
+                sectionCounts[dc.getDeckType().ordinal()] += dc.getQuantity();
+                copiesPerCard.merge(dc.getCardId(), dc.getQuantity(), Integer::sum);
+                if (dc.getCard() != null) {
+                    cardNames.putIfAbsent(dc.getCardId(), dc.getCard().getName());
+                }
+            }
+        }
+
+        public Collection<DeckCard> getRows() { return rows; }
+        public int getMainCount() { return sectionCounts[DeckCard.DeckType.MAIN.ordinal()]; }
+        public int getExtraCount() { return sectionCounts[DeckCard.DeckType.EXTRA.ordinal()]; }
+        public int getSideCount() { return sectionCounts[DeckCard.DeckType.SIDE.ordinal()]; }
+        public Map<Long, Integer> getCopiesPerCard() { return copiesPerCard; }
+
+        public String getCardName(Long cardId) {
+            String name = cardNames.get(cardId);
+            return name != null ? name : "Card ID " + cardId;
+        }
+    }
+
+    public static class ValidationResult {
+        private final DeckSnapshot snapshot;
+        private final List<String> errors;
+
+        public ValidationResult(DeckSnapshot snapshot, List<String> errors) {
+            this.snapshot = snapshot;
+            this.errors = errors;
+        }
+
+        public int getMainCount() { return snapshot.getMainCount(); }
+        public int getExtraCount() { return snapshot.getExtraCount(); }
+        public int getSideCount() { return snapshot.getSideCount(); }
+        public int getTotalCards() { return getMainCount() + getExtraCount() + getSideCount(); }
+        public boolean isValid() { return errors.isEmpty(); }
+        public List<String> getErrors() { return errors; }
+    }
+}
@@ -0,0 +1,64 @@
+package taf.yugioh.scanner.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import taf.yugioh.scanner.entity.ImageBlob;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Stores image blobs as files under a root directory (local disk or a mounted volume).
+ * Files are sharded by hash prefix: root/ab/cd/abcd....jpg
+ */
+@Component
+public class FileSystemImageStorage implements ImageStorageBackend {
+
+    @Value("${app.images.storage.filesystem.root:data/images}")
+    private String rootDir;
+
+    @Override
+    public ImageBlob.StorageLocation getLocation() {
+        return ImageBlob.StorageLocation.FILESYSTEM;
+    }
+
+    @Override
+    public void write(String hash, byte[] data) throws IOException {
+        Path target = resolve(hash);
+        Files.createDirectories(target.getParent());
+
+        // Write to a temp file first so readers never see a partial image
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> read(String hash) throws IOException {
+        Path path = resolve(hash);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(Files.readAllBytes(path));
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(resolve(hash));
+    }
+
+    private Path resolve(String hash) {
+        if (hash == null || hash.length() < 4 || !hash.matches("[0-9a-f]+")) {
+            throw new IllegalArgumentException("Invalid image hash: " + hash);
+        }
+        return Paths.get(rootDir, hash.substring(0, 2), hash.substring(2, 4), hash + ".jpg");
+    }
+}
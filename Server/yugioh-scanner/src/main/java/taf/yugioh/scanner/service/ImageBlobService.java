@@ -0,0 +1,237 @@
+package taf.yugioh.scanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import taf.yugioh.scanner.entity.ImageBlob;
+import taf.yugioh.scanner.repository.ImageBlobRepository;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Content-addressed image storage.
+ *
+ * Identical images (reprints, alternate arts sharing a scan) are stored once and
+ * reference counted; card_images rows only keep the SHA-256 of their bytes.
+ * Each blob records which backend holds its bytes, so reads keep working while
+ * blobs are being migrated between backends.
+ */
+@Service
+@Transactional
+public class ImageBlobService {
+
+    // Backend that new blobs are written to
+    @Value("${app.images.storage.backend:DATABASE}")
+    private ImageBlob.StorageLocation writeLocation;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    private TransactionTemplate newTransaction;
+
+    private final Map<ImageBlob.StorageLocation, ImageStorageBackend> backends =
+            new EnumMap<>(ImageBlob.StorageLocation.class);
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageBlobService.class);
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        // Cleanup runs after the caller's transaction has ended, so it needs its own
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Autowired
+    public void setBackends(List<ImageStorageBackend> storageBackends) {
+        for (ImageStorageBackend backend : storageBackends) {
+            backends.put(backend.getLocation(), backend);
+        }
+    }
+
+    /**
+     * Store bytes (or add a reference if identical bytes are already stored)
+     *
+     * @return SHA-256 hex of the data, used as the blob key
+     */
+    public String store(byte[] data) {
+        String hash = sha256Hex(data);
+        if (imageBlobRepository.incrementRefCount(hash) > 0) {
+            return hash;
+        }
+
+        // Concurrent stores of the same bytes race to here; the upsert turns the loser into a reference
+        if (writeLocation == ImageBlob.StorageLocation.DATABASE) {
+            imageBlobRepository.upsertInDatabase(hash, data, data.length);
+            return hash;
+        }
+
+        // Row first: a concurrent delete of this hash's file waits for it (see deleteCopyIfUnused)
+        imageBlobRepository.upsertInBackend(hash, writeLocation.name(), data.length);
+        ImageBlob.StorageLocation location = writeLocation;
+        afterTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> deleteCopyIfUnused(hash, location));
+        try {
+            // Content-addressed: rewriting the same file for a blob that already exists is harmless
+            getBackend(location).write(hash, data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write image blob " + hash + " to " + location, e);
+        }
+        return hash;
+    }
+
+    /**
+     * Load the bytes of a blob
+     */
+    public Optional<byte[]> load(String hash) {
+        if (hash == null) {
+            return Optional.empty();
+        }
+        return imageBlobRepository.findById(hash).flatMap(this::readData);
+    }
+
+    /**
+     * Read a blob's bytes from whichever backend currently holds them
+     */
+    public Optional<byte[]> readData(ImageBlob blob) {
+        if (blob.getLocation() == ImageBlob.StorageLocation.DATABASE) {
+            return Optional.ofNullable(blob.getData());
+        }
+        try {
+            return getBackend(blob.getLocation()).read(blob.getHash());
+        } catch (IOException e) {
+            logger.error("Failed to read image blob " + blob.getHash() + " from " + blob.getLocation() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Drop one reference to a blob, deleting it when no rows reference it anymore
+     */
+    public void release(String hash) {
+        if (hash == null) {
+            return;
+        }
+        imageBlobRepository.decrementRefCount(hash);
+
+        Optional<ImageBlob.StorageLocation> location = imageBlobRepository.findLocationByHash(hash);
+        if (location.isEmpty()) {
+            return;
+        }
+
+        // Only the release that actually removed the row owns the backend file
+        if (imageBlobRepository.deleteIfUnreferenced(hash) == 0 || location.get() == ImageBlob.StorageLocation.DATABASE) {
+            return;
+        }
+
+        // Delete the file only once the row is gone for good; a rollback must still find it
+        afterTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> deleteCopyIfUnused(hash, location.get()));
+    }
+
+    /**
+     * Delete a copy left in a backend (e.g. by a storage migration), unless the blob still lives there
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void discardCopy(String hash, ImageBlob.StorageLocation location) {
+        if (location != ImageBlob.StorageLocation.DATABASE) {
+            deleteCopyIfUnused(hash, location);
+        }
+    }
+
+    public ImageStorageBackend getBackend(ImageBlob.StorageLocation location) {
+        ImageStorageBackend backend = backends.get(location);
+        if (backend == null) {
+            throw new IllegalStateException("No image storage backend for " + location);
+        }
+        return backend;
+    }
+
+    public long countBlobs() {
+        return imageBlobRepository.count();
+    }
+
+    public long getStoredBytes() {
+        return imageBlobRepository.sumSize();
+    }
+
+    public boolean exists(String hash) {
+        return imageBlobRepository.existsById(hash);
+    }
+
+    public static String sha256Hex(byte[] data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Run once the current transaction ends with the given status (right away without one)
+     */
+    private void afterTransaction(int completionStatus, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (completionStatus == TransactionSynchronization.STATUS_COMMITTED) {
+                action.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == completionStatus) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Delete a blob's copy in a backend unless the blob's row points at that backend.
+     *
+     * A store of the same bytes may have re-created the row after the release that
+     * scheduled this delete. The placeholder insert waits for such a store to commit
+     * or roll back, and while it is held a new store waits before writing the file.
+     */
+    private void deleteCopyIfUnused(String hash, ImageBlob.StorageLocation location) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (imageBlobRepository.insertPlaceholder(hash, location.name()) == 0) {
+                    if (imageBlobRepository.findLocationByHash(hash).orElse(null) != location) {
+                        deleteFromBackend(hash, location); // the blob lives elsewhere now
+                    }
+                    return;
+                }
+                deleteFromBackend(hash, location);
+                imageBlobRepository.deleteIfUnreferenced(hash);
+            });
+        } catch (Exception e) {
+            logger.warn("Failed to clean up image blob " + hash + " in " + location + ": " + e.getMessage());
+        }
+    }
+
+    private void deleteFromBackend(String hash, ImageBlob.StorageLocation location) {
+        try {
+            getBackend(location).delete(hash);
+        } catch (IOException e) {
+            logger.warn("Failed to delete image blob " + hash + " from " + location + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package taf.yugioh.scanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import taf.yugioh.scanner.entity.CardImage;
+import taf.yugioh.scanner.repository.CardImageRepository;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One-off migration that moves inline card_images bytes into the deduplicated image_blobs store.
+ *
+ * Runs in the background on demand. Each row is migrated in its own transaction, so the
+ * migration can be interrupted and re-run at any time - it only ever picks up rows that
+ * still hold inline bytes.
+ */
+@Service
+public class ImageDedupMigrationService {
+
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private CardImageRepository cardImageRepository;
+
+    @Autowired
+    private ImageBlobService imageBlobService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDedupMigrationService.class);
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> new Thread(r, "image-dedup"));
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile DedupReport report = DedupReport.idle();
+
+    /**
+     * image_data used to be NOT NULL; ddl-auto=update never relaxes constraints,
+     * so drop it explicitly for databases created before image_blobs existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void relaxLegacyImageDataConstraint() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE card_images ALTER COLUMN image_data DROP NOT NULL");
+        } catch (Exception e) {
+            logger.warn("Could not relax card_images.image_data constraint: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Start moving every remaining inline image into image_blobs in the background
+     *
+     * @return false if a migration is already running
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        DedupReport report = new DedupReport();
+        this.report = report;
+
+        runner.submit(() -> {
+            try {
+                migrate(report);
+            } catch (Exception e) {
+                logger.error("Image dedup migration failed: " + e.getMessage());
+            } finally {
+                report.finish();
+                running.set(false);
+                // Postgres only returns the space to the OS after VACUUM (FULL) on card_images
+                logger.info("Image dedup migration finished: " + report.migratedRows + " rows, " +
+                        report.blobsCreated + " new blobs, " + report.getBytesReclaimed() + " bytes reclaimed");
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Progress of the current (or last) migration
+     */
+    public DedupReport getReport() {
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void migrate(DedupReport report) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        long afterId = 0L;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Long> ids = cardImageRepository.findIdsWithInlineData(afterId, PageRequest.of(0, BATCH_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            for (Long id : ids) {
+                try {
+                    transaction.executeWithoutResult(status -> migrateRow(id, report));
+                } catch (Exception e) {
+                    report.failedRows++;
+                    logger.error("Dedup migration failed for card_images row " + id + ": " + e.getMessage());
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private void migrateRow(Long id, DedupReport report) {
+        CardImage cardImage = cardImageRepository.findById(id).orElse(null);
+        if (cardImage == null) {
+            return;
+        }
+
+        if (cardImage.getImageHash() == null && cardImage.getImageData() != null) {
+            byte[] data = cardImage.getImageData();
+            cardImage.setImageHash(moveToBlob(data, report));
+            cardImage.setImageData(null);
+            cardImage.setFileSize(data.length);
+        }
+
+        if (cardImage.getSmallImageHash() == null && cardImage.getImageSmallData() != null) {
+            byte[] data = cardImage.getImageSmallData();
+            cardImage.setSmallImageHash(moveToBlob(data, report));
+            cardImage.setImageSmallData(null);
+            cardImage.setSmallFileSize(data.length);
+        }
+
+        cardImageRepository.save(cardImage);
+        report.migratedRows++;
+    }
+
+    private String moveToBlob(byte[] data, DedupReport report) {
+        boolean existed = imageBlobService.exists(ImageBlobService.sha256Hex(data));
+        String hash = imageBlobService.store(data);
+
+        report.inlineBytesRemoved += data.length;
+        if (!existed) {
+            report.blobsCreated++;
+            report.blobBytesWritten += data.length;
+        }
+        return hash;
+    }
+
+    /**
+     * Written only by the migration thread, read by the status endpoint
+     */
+    public static class DedupReport {
+        private final Instant startedAt = Instant.now();
+        private volatile Instant finishedAt;
+        private volatile long migratedRows;
+        private volatile long failedRows;
+        private volatile long blobsCreated;
+        private volatile long inlineBytesRemoved;
+        private volatile long blobBytesWritten;
+
+        static DedupReport idle() {
+            DedupReport report = new DedupReport();
+            report.finishedAt = report.startedAt;
+            return report;
+        }
+
+        void finish() { this.finishedAt = Instant.now(); }
+
+        public boolean isRunning() { return finishedAt == null; }
+        public LocalDateTime getStartedAt() { return LocalDateTime.ofInstant(startedAt, ZoneOffset.UTC); }
+
+        public long getElapsedSeconds() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            return Duration.between(startedAt, end).toSeconds();
+        }
+
+        public long getMigratedRows() { return migratedRows; }
+        public long getFailedRows() { return failedRows; }
+        public long getBlobsCreated() { return blobsCreated; }
+        public long getInlineBytesRemoved() { return inlineBytesRemoved; }
+        public long getBlobBytesWritten() { return blobBytesWritten; }
+
+        public long getBytesReclaimed() {
+            return inlineBytesRemoved - blobBytesWritten;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package taf.yugioh.scanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import taf.yugioh.scanner.entity.JobCheckpoint;
+import taf.yugioh.scanner.repository.CardRepository;
+import taf.yugioh.scanner.repository.DeckCardRepository;
+import taf.yugioh.scanner.repository.JobCheckpointRepository;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads images for cards that don't have a card_images row yet.
+ *
+ * Runs on a schedule and on demand (whole catalog, one set, or one deck). Downloads run
+ * in parallel but every request still goes through {@link UpstreamRateLimiter}.
+ * Progress is checkpointed per batch so an interrupted run resumes where it stopped.
+ */
+@Service
+public class ImagePrefetchService {
+
+    private static final String JOB_NAME = "image-prefetch";
+
+    @Value("${app.images.prefetch.enabled:true}")
+    private boolean scheduledEnabled;
+
+    @Value("${app.images.prefetch.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.images.prefetch.batch-size:100}")
+    private int batchSize;
+
+    @Value("${yugioh.image.base.url:https://images.ygoprodeck.com/images}")
+    private String imageBaseUrl;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private DeckCardRepository deckCardRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private DatabaseImageService databaseImageService;
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagePrefetchService.class);
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> new Thread(r, "image-prefetch"));
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile PrefetchStatus status = PrefetchStatus.idle();
+
+    /**
+     * Nightly catch-up for cards that were saved without an image
+     */
+    @Scheduled(cron = "${app.images.prefetch.cron:0 0 4 * * *}")
+    public void scheduledPrefetch() {
+        if (scheduledEnabled) {
+            startPrefetch(null, null);
+        }
+    }
+
+    /**
+     * Start a prefetch run in the background
+     *
+     * @param setName only cards printed in this set (name or code), or null
+     * @param deckId  only cards in this deck, or null
+     * @return false if a run is already in progress
+     */
+    public boolean startPrefetch(String setName, Long deckId) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        String scope = deckId != null ? "deck:" + deckId : (setName != null ? "set:" + setName : "all");
+        status = new PrefetchStatus(scope);
+
+        runner.submit(() -> {
+            try {
+                if (deckId != null) {
+                    prefetchDeck(deckId);
+                } else {
+                    prefetchCatalog(setName);
+                }
+            } catch (Exception e) {
+                logger.error("Image prefetch (" + scope + ") failed: " + e.getMessage());
+            } finally {
+                status.finish();
+                running.set(false);
+                logger.info("Image prefetch (" + scope + ") finished: " + status.getSucceeded() + " stored, " +
+                        status.getFailed() + " failed in " + status.getElapsedSeconds() + "s");
+            }
+        });
+        return true;
+    }
+
+    public PrefetchStatus getStatus() {
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void prefetchCatalog(String setName) {
+        String checkpointName = setName != null ? JOB_NAME + ":set:" + setName.toLowerCase() : JOB_NAME;
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(checkpointName)
+                .orElseGet(() -> new JobCheckpoint(checkpointName));
+        long afterCardId = checkpoint.getLastKey() != null ? Long.parseLong(checkpoint.getLastKey()) : 0L;
+
+        status.setTotal(setName != null
+                ? cardRepository.countCardsWithoutImagesInSet(setName)
+                : cardRepository.countCardsWithoutImages());
+        if (afterCardId > 0) {
+            logger.info("Resuming image prefetch after card " + afterCardId);
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Long> batch = setName != null
+                        ? cardRepository.findCardIdsWithoutImagesInSet(setName, afterCardId, batchSize)
+                        : cardRepository.findCardIdsWithoutImages(afterCardId, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                downloadBatch(workers, batch);
+                if (Thread.currentThread().isInterrupted()) {
+                    break; // batch cut short - resume from the previous checkpoint
+                }
+
+                // Checkpoint only after the whole batch has completed
+                afterCardId = batch.get(batch.size() - 1);
+                checkpoint.setLastKey(String.valueOf(afterCardId));
+                checkpoint.setProcessedCount(checkpoint.getProcessedCount() + batch.size());
+                checkpoint = jobCheckpointRepository.save(checkpoint);
+            }
+
+            // Completed run: next run starts over and retries anything that failed
+            if (!Thread.currentThread().isInterrupted()) {
+                jobCheckpointRepository.deleteById(checkpointName);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void prefetchDeck(Long deckId) {
+        List<Long> cardIds = deckCardRepository.findCardIdsWithoutImagesByDeckId(deckId);
+        status.setTotal(cardIds.size());
+
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try {
+            downloadBatch(workers, cardIds);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void downloadBatch(ExecutorService workers, List<Long> cardIds) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long cardId : cardIds) {
+            futures.add(workers.submit(() -> downloadCardImage(cardId)));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Prefetch task failed: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    private void downloadCardImage(Long cardId) {
+        String imageUrl = imageBaseUrl + "/cards/" + cardId + ".jpg";
+        String smallImageUrl = imageBaseUrl + "/cards_small/" + cardId + ".jpg";
+
+        String stored = databaseImageService.downloadAndStoreImage(imageUrl, smallImageUrl, cardId);
+        status.recordResult(cardId, stored != null);
+    }
+
+    public static class PrefetchStatus {
+        private final String scope;
+        private final Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile long total;
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile Long lastCardId;
+
+        public PrefetchStatus(String scope) {
+            this.scope = scope;
+            this.startedAt = Instant.now();
+        }
+
+        static PrefetchStatus idle() {
+            PrefetchStatus status = new PrefetchStatus("none");
+            status.finishedAt = status.startedAt;
+            return status;
+        }
+
+        void recordResult(Long cardId, boolean success) {
+            (success ? succeeded : failed).incrementAndGet();
+            lastCardId = cardId;
+        }
+
+        void setTotal(long total) { this.total = total; }
+
+        void finish() { this.finishedAt = Instant.now(); }
+
+        public String getScope() { return scope; }
+        public boolean isRunning() { return finishedAt == null; }
+        public LocalDateTime getStartedAt() { return LocalDateTime.ofInstant(startedAt, ZoneOffset.UTC); }
+        public long getTotal() { return total; }
+        public long getSucceeded() { return succeeded.get(); }
+        public long getFailed() { return failed.get(); }
+        public long getProcessed() { return succeeded.get() + failed.get(); }
+        public Long getLastCardId() { return lastCardId; }
+
+        public long getElapsedSeconds() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            return Duration.between(startedAt, end).toSeconds();
+        }
+
+        public double getImagesPerSecond() {
+            long elapsedMillis = Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toMillis();
+            return elapsedMillis > 0 ? getProcessed() * 1000.0 / elapsedMillis : 0.0;
+        }
+
+        public Long getEtaSeconds() {
+            double rate = getImagesPerSecond();
+            long remaining = Math.max(0, total - getProcessed());
+            if (!isRunning() || rate <= 0) {
+                return isRunning() ? null : 0L;
+            }
+            return (long) Math.ceil(remaining / rate);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package taf.yugioh.scanner.service;
+
+import taf.yugioh.scanner.entity.ImageBlob;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * External store for image blob bytes (anything other than the image_blobs bytea column).
+ * Keys are the SHA-256 hex of the content.
+ */
+public interface ImageStorageBackend {
+
+    ImageBlob.StorageLocation getLocation();
+
+    void write(String hash, byte[] data) throws IOException;
+
+    Optional<byte[]> read(String hash) throws IOException;
+
+    void delete(String hash) throws IOException;
+}
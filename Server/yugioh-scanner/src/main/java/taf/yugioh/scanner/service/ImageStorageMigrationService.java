@@ -0,0 +1,326 @@
+package taf.yugioh.scanner.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import taf.yugioh.scanner.entity.ImageBlob;
+import taf.yugioh.scanner.entity.JobCheckpoint;
+import taf.yugioh.scanner.repository.ImageBlobRepository;
+import taf.yugioh.scanner.repository.JobCheckpointRepository;
+
+import jakarta.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Online migration of image blobs between storage backends (e.g. Postgres bytea to filesystem).
+ *
+ * Blobs are walked in keyset-paginated batches by hash. Each blob is copied, read back
+ * and checksum-verified outside any transaction; only the location pointer flip runs in
+ * a short transaction of its own, so readers always see a complete copy. The migrator
+ * backs off whenever the connection pool is busy and checkpoints after every batch, so
+ * it can be stopped and resumed.
+ */
+@Service
+public class ImageStorageMigrationService {
+
+    private static final String JOB_NAME = "image-storage-migration";
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    @Value("${app.images.migration.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.images.migration.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    // Back off while more than this fraction of the pool is in use
+    @Value("${app.images.migration.max-pool-usage:0.5}")
+    private double maxPoolUsage;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private ImageBlobService imageBlobService;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStorageMigrationService.class);
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> new Thread(r, "image-storage-migration"));
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean stopRequested = false;
+    private volatile MigrationStatus status = null;
+
+    /**
+     * Start migrating every blob from one backend to another in the background
+     *
+     * @return false if a migration is already running
+     */
+    public boolean start(ImageBlob.StorageLocation source, ImageBlob.StorageLocation target) {
+        if (source == target) {
+            throw new IllegalArgumentException("Source and target storage must differ");
+        }
+        // Fail fast if either side has no backend configured
+        for (ImageBlob.StorageLocation location : List.of(source, target)) {
+            if (location != ImageBlob.StorageLocation.DATABASE) {
+                imageBlobService.getBackend(location);
+            }
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        stopRequested = false;
+        status = new MigrationStatus(source, target);
+        runner.submit(() -> {
+            try {
+                migrate(source, target);
+            } catch (Exception e) {
+                logger.error("Image storage migration failed: " + e.getMessage());
+            } finally {
+                status.finish();
+                running.set(false);
+                logger.info("Image storage migration " + source + " -> " + target + " stopped: " +
+                        status.getMigrated() + " migrated, " + status.getFailed() + " failed, " +
+                        status.getBytesMoved() + " bytes moved");
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Ask a running migration to stop after the current blob (progress is kept)
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public MigrationStatus getStatus() {
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopRequested = true;
+        runner.shutdownNow();
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void migrate(ImageBlob.StorageLocation source, ImageBlob.StorageLocation target) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(tx -> imageBlobRepository.backfillDatabaseLocation());
+
+        String checkpointName = JOB_NAME + ":" + source + "-" + target;
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(checkpointName)
+                .orElseGet(() -> new JobCheckpoint(checkpointName));
+        String afterHash = checkpoint.getLastKey() != null ? checkpoint.getLastKey() : "";
+
+        while (!stopRequested) {
+            List<String> hashes = imageBlobRepository.findHashesByLocation(afterHash, source, PageRequest.of(0, batchSize));
+            if (hashes.isEmpty()) {
+                // Finished: nothing left in the source backend past the cursor
+                jobCheckpointRepository.deleteById(checkpointName);
+                return;
+            }
+
+            for (String hash : hashes) {
+                if (stopRequested) {
+                    break;
+                }
+                waitForDatabaseCapacity();
+                migrateBlob(transaction, hash, source, target);
+                afterHash = hash;
+            }
+
+            checkpoint.setLastKey(afterHash);
+            checkpoint.setProcessedCount(checkpoint.getProcessedCount() + hashes.size());
+            checkpoint = jobCheckpointRepository.save(checkpoint);
+
+            sleep(batchPauseMs);
+        }
+    }
+
+    private void migrateBlob(TransactionTemplate transaction, String hash,
+                             ImageBlob.StorageLocation source, ImageBlob.StorageLocation target) {
+        boolean copied = false;
+        try {
+            // Read and copy outside any transaction, so file I/O holds no connection or row lock
+            if (imageBlobRepository.findLocationByHash(hash).orElse(null) != source) {
+                return; // deleted or already moved since the batch was read
+            }
+            byte[] data = readSource(hash, source)
+                    .orElseThrow(() -> new IllegalStateException("Source bytes missing"));
+            verifyChecksum(hash, data, "source");
+
+            copied = true;
+            copyToTarget(hash, data, target);
+
+            // Flip the pointer only once the target copy is verified. A targeted update leaves
+            // ref_count alone, since stores and releases keep changing it while we copy.
+            Integer updated = transaction.execute(tx -> target == ImageBlob.StorageLocation.DATABASE
+                    ? imageBlobRepository.moveToDatabase(hash, source, data)
+                    : imageBlobRepository.moveToBackend(hash, source, target));
+            if (updated == null || updated == 0) {
+                // Released or moved while we were copying
+                imageBlobService.discardCopy(hash, target);
+                return;
+            }
+            copied = false;
+
+            // Source copy is only removed after the pointer flip has committed
+            imageBlobService.discardCopy(hash, source);
+            status.recordMigrated(hash, data.length);
+        } catch (Exception e) {
+            if (copied) {
+                imageBlobService.discardCopy(hash, target);
+            }
+            status.recordFailed(hash);
+            logger.error("Failed to migrate image blob " + hash + ": " + e.getMessage());
+        }
+    }
+
+    private Optional<byte[]> readSource(String hash, ImageBlob.StorageLocation source) throws IOException {
+        if (source == ImageBlob.StorageLocation.DATABASE) {
+            return imageBlobRepository.findDataByHash(hash);
+        }
+        return imageBlobService.getBackend(source).read(hash);
+    }
+
+    private void copyToTarget(String hash, byte[] data, ImageBlob.StorageLocation target) {
+        if (target == ImageBlob.StorageLocation.DATABASE) {
+            return; // written by the pointer flip
+        }
+
+        ImageStorageBackend backend = imageBlobService.getBackend(target);
+        try {
+            backend.write(hash, data);
+            byte[] written = backend.read(hash)
+                    .orElseThrow(() -> new IllegalStateException("Target copy missing after write"));
+            verifyChecksum(hash, written, "target");
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to copy to " + target + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void verifyChecksum(String hash, byte[] data, String side) {
+        if (!hash.equals(ImageBlobService.sha256Hex(data))) {
+            throw new IllegalStateException("Checksum mismatch on " + side + " copy");
+        }
+    }
+
+    /**
+     * Sleep while the connection pool is under pressure from real traffic
+     */
+    private void waitForDatabaseCapacity() {
+        HikariPoolMXBean pool = getPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+
+        int maxPoolSize = getMaxPoolSize();
+        long backoffMs = 100;
+        while (!stopRequested &&
+                (pool.getThreadsAwaitingConnection() > 0 || pool.getActiveConnections() > maxPoolSize * maxPoolUsage)) {
+            status.recordThrottle(backoffMs);
+            sleep(backoffMs);
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    private HikariPoolMXBean getPoolMXBean() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (Exception e) {
+            logger.debug("Connection pool metrics unavailable: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private int getMaxPoolSize() {
+        try {
+            return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        } catch (Exception e) {
+            return 10;
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopRequested = true;
+        }
+    }
+
+    public static class MigrationStatus {
+        private final ImageBlob.StorageLocation source;
+        private final ImageBlob.StorageLocation target;
+        private final Instant startedAt;
+        private volatile Instant finishedAt;
+        private final AtomicLong migrated = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong bytesMoved = new AtomicLong();
+        private final AtomicLong throttledMillis = new AtomicLong();
+        private volatile String lastHash;
+
+        public MigrationStatus(ImageBlob.StorageLocation source, ImageBlob.StorageLocation target) {
+            this.source = source;
+            this.target = target;
+            this.startedAt = Instant.now();
+        }
+
+        void recordMigrated(String hash, long bytes) {
+            migrated.incrementAndGet();
+            bytesMoved.addAndGet(bytes);
+            lastHash = hash;
+        }
+
+        void recordFailed(String hash) {
+            failed.incrementAndGet();
+            lastHash = hash;
+        }
+
+        void recordThrottle(long millis) { throttledMillis.addAndGet(millis); }
+
+        void finish() { this.finishedAt = Instant.now(); }
+
+        public ImageBlob.StorageLocation getSource() { return source; }
+        public ImageBlob.StorageLocation getTarget() { return target; }
+        public boolean isRunning() { return finishedAt == null; }
+        public LocalDateTime getStartedAt() { return LocalDateTime.ofInstant(startedAt, ZoneOffset.UTC); }
+        public long getMigrated() { return migrated.get(); }
+        public long getFailed() { return failed.get(); }
+        public long getBytesMoved() { return bytesMoved.get(); }
+        public long getThrottledMillis() { return throttledMillis.get(); }
+        public String getLastHash() { return lastHash; }
+    }
+}
@@ -0,0 +1,121 @@
+package taf.yugioh.scanner.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import taf.yugioh.scanner.exception.OcrOverloadedException;
+
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many OCR calls run at once.
+ *
+ * Callers beyond the concurrency limit wait in a bounded queue for at most the queue
+ * timeout; once the queue is full (or the wait times out) requests are rejected
+ * immediately with {@link OcrOverloadedException} instead of piling up request threads.
+ * Exported metrics: ocr.queue.depth, ocr.in.flight, ocr.queue.wait, ocr.service.time, ocr.rejected.
+ */
+@Component
+public class OcrDispatcher {
+
+    @Value("${app.ocr.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${app.ocr.queue-capacity:8}")
+    private int queueCapacity;
+
+    @Value("${app.ocr.queue-timeout-ms:5000}")
+    private long queueTimeoutMs;
+
+    @Value("${app.ocr.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private Semaphore slots;
+    private Timer queueWaitTimer;
+    private Timer serviceTimer;
+    private Counter rejectedQueueFull;
+    private Counter rejectedTimeout;
+
+    public OcrDispatcher(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.slots = new Semaphore(maxConcurrent, true);
+
+        Gauge.builder("ocr.queue.depth", waiting, AtomicInteger::get)
+                .description("OCR requests waiting for a slot")
+                .register(meterRegistry);
+        Gauge.builder("ocr.in.flight", inFlight, AtomicInteger::get)
+                .description("OCR requests currently running")
+                .register(meterRegistry);
+
+        queueWaitTimer = Timer.builder("ocr.queue.wait")
+                .description("Time spent waiting for an OCR slot")
+                .register(meterRegistry);
+        serviceTimer = Timer.builder("ocr.service.time")
+                .description("Time spent in the OCR server")
+                .register(meterRegistry);
+
+        rejectedQueueFull = Counter.builder("ocr.rejected").tag("reason", "queue_full").register(meterRegistry);
+        rejectedTimeout = Counter.builder("ocr.rejected").tag("reason", "timeout").register(meterRegistry);
+    }
+
+    /**
+     * Run an OCR call once a slot is free
+     *
+     * @throws OcrOverloadedException if the queue is full or no slot frees up in time
+     */
+    public <T> T dispatch(Supplier<T> ocrCall) {
+        if (waiting.incrementAndGet() > queueCapacity) {
+            waiting.decrementAndGet();
+            rejectedQueueFull.increment();
+            throw new OcrOverloadedException("OCR queue is full, try again shortly", retryAfterSeconds);
+        }
+
+        boolean acquired;
+        long waitStart = System.nanoTime();
+        try {
+            acquired = slots.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OcrOverloadedException("Interrupted while waiting for OCR", retryAfterSeconds);
+        } finally {
+            waiting.decrementAndGet();
+            queueWaitTimer.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        }
+
+        if (!acquired) {
+            rejectedTimeout.increment();
+            throw new OcrOverloadedException("Timed out waiting for OCR, try again shortly", retryAfterSeconds);
+        }
+
+        inFlight.incrementAndGet();
+        try {
+            return serviceTimer.record(ocrCall);
+        } finally {
+            inFlight.decrementAndGet();
+            slots.release();
+        }
+    }
+
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,554 @@
+package taf.yugioh.scanner.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import taf.yugioh.scanner.exception.OcrOverloadedException;
+
+import jakarta.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs and supervises the Python OCR workers (scripts/ocr_server.py).
+ *
+ * Each worker is a separate process on its own local port. A supervisor thread
+ * health-checks them, restarts workers that exit, hang or keep failing (with
+ * exponential backoff), warms new workers up with a small OCR request before they
+ * take traffic, and re-warms idle ones. Calls go to the healthy worker with the
+ * fewest requests in flight (then the lowest recent latency), and fail over to
+ * another worker on connection errors or timeouts.
+ *
+ * With app.ocr.workers.count=0 nothing is spawned and the external server at
+ * app.ocr.url is used as the only (unmanaged, but still health-checked) worker.
+ */
+@Component
+public class OcrWorkerPool {
+
+    private static final long MAX_RESTART_BACKOFF_MS = 60_000;
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    // Opt-in: 0 uses the external OCR server at app.ocr.url
+    @Value("${app.ocr.workers.count:0}")
+    private int workerCount;
+
+    @Value("${app.ocr.workers.host:127.0.0.1}")
+    private String workerHost;
+
+    @Value("${app.ocr.workers.base-port:5001}")
+    private int basePort;
+
+    @Value("${app.python.executable:python}")
+    private String pythonExecutable;
+
+    @Value("${app.python.script.path:src/main/resources/scripts/ocr_server.py}")
+    private String scriptPath;
+
+    // Used only when no workers are managed here
+    @Value("${app.ocr.url:http://127.0.0.1:5000/extract}")
+    private String externalUrl;
+
+    @Value("${app.ocr.workers.health-interval-ms:5000}")
+    private long healthIntervalMs;
+
+    // Consecutive failed health checks or calls before a worker is taken out and restarted
+    @Value("${app.ocr.workers.max-failures:3}")
+    private int maxFailures;
+
+    // Loading the EasyOCR model takes a while on a cold start
+    @Value("${app.ocr.workers.startup-timeout-seconds:180}")
+    private long startupTimeoutSeconds;
+
+    // Idle workers get a warm-up request this often so the first real scan isn't slow
+    @Value("${app.ocr.workers.keep-warm-seconds:300}")
+    private long keepWarmSeconds;
+
+    @Value("${app.ocr.timeout-ms:15000}")
+    private long ocrTimeoutMs;
+
+    @Value("${app.ocr.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private final MeterRegistry meterRegistry;
+    private final List<OcrWorker> workers = new ArrayList<>();
+    private final ScheduledExecutorService supervisor =
+            Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "ocr-supervisor"));
+
+    private RestTemplate healthClient;
+    private RestTemplate warmupClient;
+    private byte[] warmupImage;
+    private Counter restarts;
+    private Counter failovers;
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrWorkerPool.class);
+
+    public OcrWorkerPool(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        healthClient = restTemplate(Duration.ofSeconds(1), Duration.ofSeconds(2));
+        warmupClient = restTemplate(Duration.ofSeconds(2), Duration.ofMillis(Math.max(ocrTimeoutMs, 60_000)));
+        warmupImage = buildWarmupImage();
+
+        if (workerCount > 0) {
+            if (!Files.isRegularFile(Path.of(scriptPath))) {
+                throw new IllegalStateException("OCR worker script not found at " + Path.of(scriptPath).toAbsolutePath() +
+                        " - set app.python.script.path to its absolute path, or app.ocr.workers.count=0" +
+                        " to use the external OCR server");
+            }
+            for (int i = 0; i < workerCount; i++) {
+                int port = basePort + i;
+                workers.add(new OcrWorker("ocr-worker-" + port, port, "http://" + workerHost + ":" + port, true));
+            }
+            logger.info("Starting " + workerCount + " OCR workers (" + pythonExecutable + " " + scriptPath +
+                    ", ports " + basePort + "-" + (basePort + workerCount - 1) + ")");
+        } else {
+            String baseUrl = externalUrl.endsWith("/extract")
+                    ? externalUrl.substring(0, externalUrl.length() - "/extract".length()) : externalUrl;
+            workers.add(new OcrWorker("ocr-external", -1, baseUrl, false));
+            logger.info("Using external OCR server at " + baseUrl);
+        }
+
+        Gauge.builder("ocr.workers.healthy", this, pool -> pool.countHealthy())
+                .description("OCR workers currently taking requests")
+                .register(meterRegistry);
+        restarts = Counter.builder("ocr.worker.restarts").register(meterRegistry);
+        failovers = Counter.builder("ocr.worker.failovers").register(meterRegistry);
+
+        for (OcrWorker worker : workers) {
+            if (worker.managed) {
+                launch(worker);
+            } else {
+                worker.state = WorkerState.STARTING;
+                worker.startedAt = Instant.now();
+            }
+        }
+        supervisor.scheduleWithFixedDelay(this::superviseAll, 0, healthIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        supervisor.shutdownNow();
+        for (OcrWorker worker : workers) {
+            stopProcess(worker);
+        }
+    }
+
+    /**
+     * Run an OCR call against the least-loaded healthy worker, failing over to another
+     * worker if it can't be reached or times out
+     *
+     * @param call receives the worker's /extract URL
+     * @throws OcrOverloadedException if no worker is available
+     */
+    public <T> T execute(Function<String, T> call) {
+        Set<OcrWorker> tried = new HashSet<>();
+        ResourceAccessException lastError = null;
+
+        OcrWorker worker;
+        while ((worker = pickWorker(tried)) != null) {
+            tried.add(worker);
+            worker.inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                T result = call.apply(worker.baseUrl + "/extract");
+                worker.recordSuccess((System.nanoTime() - start) / 1_000_000);
+                return result;
+            } catch (ResourceAccessException e) {
+                // Connection refused, reset or timed out - the worker is down or stuck
+                lastError = e;
+                recordFailure(worker, e.getMessage());
+                failovers.increment();
+            } finally {
+                worker.inFlight.decrementAndGet();
+            }
+        }
+
+        if (lastError != null) {
+            logger.warn("OCR failed on every available worker: " + lastError.getMessage());
+        }
+        throw new OcrOverloadedException("No OCR worker available, try again shortly", retryAfterSeconds);
+    }
+
+    public List<WorkerStatus> getStatus() {
+        List<WorkerStatus> statuses = new ArrayList<>();
+        for (OcrWorker worker : workers) {
+            statuses.add(new WorkerStatus(worker));
+        }
+        return statuses;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private OcrWorker pickWorker(Set<OcrWorker> exclude) {
+        OcrWorker best = null;
+        for (OcrWorker worker : workers) {
+            if (worker.state != WorkerState.HEALTHY || exclude.contains(worker)) {
+                continue;
+            }
+            if (best == null || worker.inFlight.get() < best.inFlight.get()
+                    || (worker.inFlight.get() == best.inFlight.get() && worker.latencyMillis < best.latencyMillis)) {
+                best = worker;
+            }
+        }
+        return best;
+    }
+
+    private int countHealthy() {
+        int healthy = 0;
+        for (OcrWorker worker : workers) {
+            if (worker.state == WorkerState.HEALTHY) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    private void superviseAll() {
+        for (OcrWorker worker : workers) {
+            try {
+                supervise(worker);
+            } catch (Exception e) {
+                logger.error("OCR supervisor failed on " + worker.name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void supervise(OcrWorker worker) {
+        Instant now = Instant.now();
+
+        if (worker.managed && (worker.process == null || !worker.process.isAlive())) {
+            if (worker.state != WorkerState.DOWN) {
+                Integer exitCode = worker.process != null ? worker.process.exitValue() : null;
+                markDown(worker, "process exited" + (exitCode != null ? " with code " + exitCode : ""));
+            }
+            if (!now.isBefore(worker.nextRestartAt)) {
+                restarts.increment();
+                worker.restarts++;
+                launch(worker);
+            }
+            return;
+        }
+
+        boolean healthy = checkHealth(worker);
+        switch (worker.state) {
+            case STARTING -> {
+                if (healthy && warmUp(worker)) {
+                    worker.state = WorkerState.HEALTHY;
+                    worker.consecutiveFailures = 0;
+                    worker.restartBackoffMs = 1000;
+                    logger.info(worker.name + " is ready (" +
+                            Duration.between(worker.startedAt, Instant.now()).toSeconds() + "s after start)");
+                } else if (worker.managed && now.isAfter(worker.startedAt.plusSeconds(startupTimeoutSeconds))) {
+                    markDown(worker, "not ready after " + startupTimeoutSeconds + "s");
+                }
+            }
+            case HEALTHY, UNHEALTHY -> {
+                if (!healthy) {
+                    recordFailure(worker, "health check failed");
+                } else if (worker.state == WorkerState.UNHEALTHY) {
+                    // Only unmanaged workers stay around while unhealthy; bring them back once they answer
+                    worker.state = WorkerState.HEALTHY;
+                    worker.consecutiveFailures = 0;
+                    logger.info(worker.name + " is healthy again");
+                } else if (worker.lastUsedAt.plusSeconds(keepWarmSeconds).isBefore(now)) {
+                    warmUp(worker);
+                }
+            }
+            case DOWN -> {
+                // Unmanaged server: wait for it to come back
+                if (healthy) {
+                    worker.state = WorkerState.STARTING;
+                }
+            }
+        }
+    }
+
+    private void recordFailure(OcrWorker worker, String reason) {
+        int failures;
+        synchronized (worker) {
+            failures = ++worker.consecutiveFailures;
+        }
+        if (failures < maxFailures || worker.state != WorkerState.HEALTHY) {
+            return;
+        }
+
+        if (worker.managed) {
+            markDown(worker, reason + " (" + failures + " times in a row)");
+        } else {
+            worker.state = WorkerState.UNHEALTHY;
+            logger.warn(worker.name + " marked unhealthy: " + reason);
+        }
+    }
+
+    /**
+     * Take a worker out of rotation and, if it's ours, kill it and schedule a restart
+     */
+    private void markDown(OcrWorker worker, String reason) {
+        synchronized (worker) {
+            if (worker.state == WorkerState.DOWN && worker.process == null) {
+                return; // already handled by another thread
+            }
+            worker.state = WorkerState.DOWN;
+            if (!worker.managed) {
+                return;
+            }
+            // Detach now, but let the supervisor wait for the exit - markDown can run on a request thread
+            Process process = worker.process;
+            worker.process = null;
+            scheduleRestart(worker, reason);
+            if (process != null) {
+                try {
+                    supervisor.execute(() -> terminate(process));
+                } catch (RejectedExecutionException e) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    // Callers hold the worker's lock
+    private void scheduleRestart(OcrWorker worker, String reason) {
+        worker.nextRestartAt = Instant.now().plusMillis(worker.restartBackoffMs);
+        logger.warn(worker.name + " down (" + reason + "), restarting in " + worker.restartBackoffMs + " ms");
+        worker.restartBackoffMs = Math.min(worker.restartBackoffMs * 2, MAX_RESTART_BACKOFF_MS);
+    }
+
+    private void launch(OcrWorker worker) {
+        ProcessBuilder builder = new ProcessBuilder(pythonExecutable, scriptPath);
+        builder.environment().put("OCR_HOST", workerHost);
+        builder.environment().put("OCR_PORT", String.valueOf(worker.port));
+        builder.environment().put("PYTHONUNBUFFERED", "1");
+        builder.redirectErrorStream(true);
+
+        worker.consecutiveFailures = 0;
+        worker.startedAt = Instant.now();
+        try {
+            worker.process = builder.start();
+            worker.state = WorkerState.STARTING;
+            pipeOutput(worker);
+            logger.info("Launched " + worker.name + " (pid " + worker.process.pid() + ")");
+        } catch (IOException e) {
+            // markDown would skip this worker: it is already DOWN with no process
+            synchronized (worker) {
+                worker.process = null;
+                worker.state = WorkerState.DOWN;
+                scheduleRestart(worker, "could not start: " + e.getMessage());
+            }
+        }
+    }
+
+    private void pipeOutput(OcrWorker worker) {
+        Process process = worker.process;
+        Thread pump = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logger.debug("[" + worker.name + "] " + line);
+                }
+            } catch (IOException e) {
+                // Process went away
+            }
+        }, worker.name + "-output");
+        pump.setDaemon(true);
+        pump.start();
+    }
+
+    private void stopProcess(OcrWorker worker) {
+        Process process = worker.process;
+        if (process == null) {
+            return;
+        }
+        worker.process = null;
+        terminate(process);
+    }
+
+    private void terminate(Process process) {
+        process.destroy();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean checkHealth(OcrWorker worker) {
+        try {
+            Map<?, ?> response = healthClient.getForObject(worker.baseUrl + "/health", Map.class);
+            return response != null && "ok".equals(response.get("status"));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run a tiny OCR request so the model's first-inference cost isn't paid by a user
+     */
+    private boolean warmUp(OcrWorker worker) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("image", new ByteArrayResource(warmupImage) {
+            @Override
+            public String getFilename() {
+                return "warmup.png";
+            }
+        });
+
+        long start = System.nanoTime();
+        try {
+            warmupClient.postForObject(worker.baseUrl + "/extract", new HttpEntity<>(body, headers), Map.class);
+            worker.recordSuccess((System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Warm-up request to " + worker.name + " failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private byte[] buildWarmupImage() {
+        BufferedImage image = new BufferedImage(320, 48, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.setColor(Color.BLACK);
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 28));
+            g.drawString("Dark Magician", 12, 34);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to build OCR warm-up image", e);
+        }
+        return out.toByteArray();
+    }
+
+    private RestTemplate restTemplate(Duration connectTimeout, Duration readTimeout) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(connectTimeout);
+        factory.setReadTimeout(readTimeout);
+        return new RestTemplate(factory);
+    }
+
+    public enum WorkerState {
+        STARTING, HEALTHY, UNHEALTHY, DOWN
+    }
+
+    private static class OcrWorker {
+        private final String name;
+        private final int port;
+        private final String baseUrl;
+        private final boolean managed;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private volatile WorkerState state = WorkerState.DOWN;
+        private volatile Process process;
+        private volatile Instant startedAt = Instant.now();
+        private volatile Instant lastUsedAt = Instant.now();
+        private volatile Instant nextRestartAt = Instant.EPOCH;
+        private volatile long restartBackoffMs = 1000;
+        private volatile double latencyMillis = 0;
+        private volatile int consecutiveFailures = 0;
+        private volatile int restarts = 0;
+        private volatile long requests = 0;
+
+        OcrWorker(String name, int port, String baseUrl, boolean managed) {
+            this.name = name;
+            this.port = port;
+            this.baseUrl = baseUrl;
+            this.managed = managed;
+        }
+
+        synchronized void recordSuccess(long millis) {
+            latencyMillis = requests == 0 ? millis : latencyMillis + LATENCY_SMOOTHING * (millis - latencyMillis);
+            requests++;
+            consecutiveFailures = 0;
+            lastUsedAt = Instant.now();
+        }
+    }
+
+    public static class WorkerStatus {
+        private final String name;
+        private final String url;
+        private final boolean managed;
+        private final WorkerState state;
+        private final Long pid;
+        private final int inFlight;
+        private final long requests;
+        private final long averageLatencyMillis;
+        private final int restarts;
+        private final LocalDateTime startedAt;
+
+        WorkerStatus(OcrWorker worker) {
+            Process process = worker.process;
+            this.name = worker.name;
+            this.url = worker.baseUrl;
+            this.managed = worker.managed;
+            this.state = worker.state;
+            this.pid = process != null ? process.pid() : null;
+            this.inFlight = worker.inFlight.get();
+            this.requests = worker.requests;
+            this.averageLatencyMillis = Math.round(worker.latencyMillis);
+            this.restarts = worker.restarts;
+            this.startedAt = LocalDateTime.ofInstant(worker.startedAt, ZoneOffset.UTC);
+        }
+
+        public String getName() { return name; }
+        public String getUrl() { return url; }
+        public boolean isManaged() { return managed; }
+        public WorkerState getState() { return state; }
+        public Long getPid() { return pid; }
+        public int getInFlight() { return inFlight; }
+        public long getRequests() { return requests; }
+        public long getAverageLatencyMillis() { return averageLatencyMillis; }
+        public int getRestarts() { return restarts; }
+        public LocalDateTime getStartedAt() { return startedAt; }
+    }
+}
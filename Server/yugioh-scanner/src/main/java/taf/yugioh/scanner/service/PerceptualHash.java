@@ -0,0 +1,92 @@
+package taf.yugioh.scanner.service;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Difference hash (dHash) of a Yu-Gi-Oh card's art box.
+ *
+ * The art box is cropped by its fixed position on the card, averaged down to a 9x8
+ * grayscale grid and each bit records whether a cell is brighter than its right-hand
+ * neighbour. Similar images give hashes with a small Hamming distance, which survives
+ * rescaling, JPEG artefacts and moderate glare far better than OCR does.
+ */
+public final class PerceptualHash {
+
+    // Art box position on a standard card, as a fraction of the card size
+    private static final double ART_LEFT = 0.119;
+    private static final double ART_RIGHT = 0.881;
+    private static final double ART_TOP = 0.181;
+    private static final double ART_BOTTOM = 0.704;
+
+    private static final int GRID_WIDTH = 9;
+    private static final int GRID_HEIGHT = 8;
+
+    // Cap the pixels sampled per grid cell so large photos stay cheap
+    private static final int MAX_SAMPLES_PER_AXIS = 16;
+
+    private PerceptualHash() {
+    }
+
+    /**
+     * dHash of the art box of an image showing a whole card (edges at the image borders)
+     */
+    public static long artHash(BufferedImage card) {
+        int x0 = (int) Math.round(card.getWidth() * ART_LEFT);
+        int x1 = (int) Math.round(card.getWidth() * ART_RIGHT);
+        int y0 = (int) Math.round(card.getHeight() * ART_TOP);
+        int y1 = (int) Math.round(card.getHeight() * ART_BOTTOM);
+        return dHash(card, x0, y0, Math.max(1, x1 - x0), Math.max(1, y1 - y0));
+    }
+
+    /**
+     * dHash of a region of an image
+     */
+    public static long dHash(BufferedImage image, int x, int y, int width, int height) {
+        double[] grid = new double[GRID_WIDTH * GRID_HEIGHT];
+        for (int row = 0; row < GRID_HEIGHT; row++) {
+            for (int col = 0; col < GRID_WIDTH; col++) {
+                int cellX0 = x + col * width / GRID_WIDTH;
+                int cellX1 = x + (col + 1) * width / GRID_WIDTH;
+                int cellY0 = y + row * height / GRID_HEIGHT;
+                int cellY1 = y + (row + 1) * height / GRID_HEIGHT;
+                grid[row * GRID_WIDTH + col] = averageLuminance(image, cellX0, cellY0, cellX1, cellY1);
+            }
+        }
+
+        long hash = 0L;
+        for (int row = 0; row < GRID_HEIGHT; row++) {
+            for (int col = 0; col < GRID_WIDTH - 1; col++) {
+                hash <<= 1;
+                if (grid[row * GRID_WIDTH + col] > grid[row * GRID_WIDTH + col + 1]) {
+                    hash |= 1L;
+                }
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static double averageLuminance(BufferedImage image, int x0, int y0, int x1, int y1) {
+        x1 = Math.max(x1, x0 + 1);
+        y1 = Math.max(y1, y0 + 1);
+        int stepX = Math.max(1, (x1 - x0) / MAX_SAMPLES_PER_AXIS);
+        int stepY = Math.max(1, (y1 - y0) / MAX_SAMPLES_PER_AXIS);
+
+        double sum = 0;
+        int count = 0;
+        for (int py = y0; py < y1 && py < image.getHeight(); py += stepY) {
+            for (int px = x0; px < x1 && px < image.getWidth(); px += stepX) {
+                int rgb = image.getRGB(px, py);
+                int r = (rgb >> 16) & 0xFF;
+                int g = (rgb >> 8) & 0xFF;
+                int b = rgb & 0xFF;
+                sum += 0.299 * r + 0.587 * g + 0.114 * b;
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : 0;
+    }
+}
@@ -0,0 +1,75 @@
+package taf.yugioh.scanner.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import taf.yugioh.scanner.dto.PublicDeckPage;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of public deck feed pages, keyed by cursor and page size.
+ *
+ * Anonymous browsing mostly hits the first few pages, so those are served from memory
+ * for a few seconds. Any change that can affect the feed (visibility, name, cards of a
+ * public deck) clears it; the TTL only bounds staleness from paths that don't.
+ */
+@Component
+public class PublicDeckFeedCache {
+
+    @Value("${app.decks.public-feed.cache-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${app.decks.public-feed.cache-max-pages:50}")
+    private int maxPages;
+
+    // LRU cache: cursor|limit -> page
+    private final Map<String, CachedPage> pages = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+                    return size() > maxPages;
+                }
+            });
+
+    // Bumped on every invalidation so a page built before it is never stored after it
+    private volatile long generation = 0;
+
+    public PublicDeckPage get(String cursor, int limit, Supplier<PublicDeckPage> loader) {
+        String key = (cursor != null ? cursor : "") + "|" + limit;
+        long now = System.currentTimeMillis();
+
+        CachedPage cached = pages.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.page;
+        }
+
+        long loadGeneration = generation;
+        PublicDeckPage page = loader.get();
+        synchronized (pages) {
+            if (loadGeneration == generation) {
+                pages.put(key, new CachedPage(page, now + ttlSeconds * 1000));
+            }
+        }
+        return page;
+    }
+
+    public void invalidate() {
+        synchronized (pages) {
+            generation++;
+            pages.clear();
+        }
+    }
+
+    private static class CachedPage {
+        private final PublicDeckPage page;
+        private final long expiresAt;
+
+        CachedPage(PublicDeckPage page, long expiresAt) {
+            this.page = page;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
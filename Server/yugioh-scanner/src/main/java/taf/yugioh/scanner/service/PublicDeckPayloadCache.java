@@ -0,0 +1,145 @@
+package taf.yugioh.scanner.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import taf.yugioh.scanner.dto.ApiResponse;
+import taf.yugioh.scanner.dto.DeckCardDTO;
+import taf.yugioh.scanner.dto.DeckResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized public deck responses, keyed by deck id and version.
+ *
+ * Hot shared decks are served as ready-made JSON bytes (and a pre-gzipped copy for
+ * clients that accept it) instead of rebuilding the DeckResponse and its card DTOs
+ * on every request. An entry is only used while its version matches the deck's
+ * current version, and writes evict it explicitly. The payload also carries card
+ * data (names, image URLs) that changes without a deck write, so card and image
+ * writes evict every payload containing that card, and the ETag hashes the body.
+ */
+@Component
+public class PublicDeckPayloadCache {
+
+    @Value("${app.decks.public-payload.cache-max-decks:200}")
+    private int maxDecks;
+
+    // Smaller payloads aren't worth a gzip copy
+    @Value("${app.decks.public-payload.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    // Same mapper as the HTTP message converters, so cached bytes match a normal response
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    // LRU cache: deck id -> payload
+    private final Map<Long, Payload> payloads = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Payload> eldest) {
+                    return size() > maxDecks;
+                }
+            });
+
+    /**
+     * Get the payload for a deck version, building and caching it on a miss
+     *
+     * @return null if the loader failed (deck gone or no longer public)
+     */
+    public Payload get(Long deckId, long version, Supplier<ApiResponse<DeckResponse>> loader) {
+        Payload cached = payloads.get(deckId);
+        if (cached != null && cached.getVersion() == version) {
+            return cached;
+        }
+
+        ApiResponse<DeckResponse> response = loader.get();
+        if (!response.isSuccess()) {
+            return null;
+        }
+
+        byte[] json = jsonMapper.writeValueAsBytes(response);
+        Payload payload = new Payload(response.getData().getVersion(), json,
+                json.length >= gzipMinBytes ? gzip(json) : null, cardIdsOf(response.getData()));
+
+        synchronized (payloads) {
+            // Never replace a newer version built by a concurrent request
+            Payload current = payloads.get(deckId);
+            if (current == null || current.getVersion() < payload.getVersion()) {
+                payloads.put(deckId, payload);
+            }
+        }
+        return payload;
+    }
+
+    public void evict(Long deckId) {
+        payloads.remove(deckId);
+    }
+
+    /**
+     * Drop every payload that shows this card (its data or image changed)
+     */
+    public void evictCard(Long cardId) {
+        synchronized (payloads) {
+            payloads.values().removeIf(payload -> payload.getCardIds().contains(cardId));
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private Set<Long> cardIdsOf(DeckResponse deck) {
+        Set<Long> cardIds = new HashSet<>();
+        for (List<DeckCardDTO> section : List.of(deck.getMainDeck(), deck.getExtraDeck(), deck.getSideDeck())) {
+            if (section != null) {
+                section.forEach(card -> cardIds.add(card.getCardId()));
+            }
+        }
+        return cardIds;
+    }
+
+    private byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to gzip deck payload", e);
+        }
+        return out.toByteArray();
+    }
+
+    public static class Payload {
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzipped;
+        private final Set<Long> cardIds;
+        private final String etag;
+
+        public Payload(long version, byte[] json, byte[] gzipped, Set<Long> cardIds) {
+            this.version = version;
+            this.json = json;
+            this.gzipped = gzipped;
+            this.cardIds = cardIds;
+            // Deck version plus a checksum of the body, so a card data change also changes the tag
+            CRC32 crc = new CRC32();
+            crc.update(json);
+            this.etag = "W/\"" + version + "-" + Long.toHexString(crc.getValue()) + "\"";
+        }
+
+        public long getVersion() { return version; }
+        public Set<Long> getCardIds() { return cardIds; }
+        public String getEtag() { return etag; }
+        public byte[] getJson() { return json; }
+        public byte[] getGzipped() { return gzipped; }
+    }
+}
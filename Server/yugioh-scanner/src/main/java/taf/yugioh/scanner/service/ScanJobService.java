@@ -0,0 +1,260 @@
+package taf.yugioh.scanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import taf.yugioh.scanner.exception.OcrOverloadedException;
+import taf.yugioh.scanner.model.CardResponse;
+import taf.yugioh.scanner.model.ScanJob;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs card scans in the background so upload requests return immediately.
+ *
+ * Jobs live in a bounded in-memory store and expire after a TTL. Clients follow a job
+ * by polling or over server-sent events (uploaded -> OCR done -> resolved -> image ready).
+ */
+@Service
+public class ScanJobService {
+
+    private static final long IMAGE_WAIT_MS = 10_000;
+    private static final long IMAGE_POLL_MS = 500;
+    private static final long SSE_TIMEOUT_MS = 60_000;
+
+    @Value("${app.scan.jobs.max-jobs:500}")
+    private int maxJobs;
+
+    // Each queued job holds its upload (up to the request size limit), so keep the queue short
+    @Value("${app.scan.jobs.max-queued:16}")
+    private int maxQueued;
+
+    @Value("${app.scan.jobs.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${app.scan.jobs.workers:4}")
+    private int workers;
+
+    @Autowired
+    private CardOCRService cardOcrService;
+
+    @Autowired
+    private YugiohApiService yugiohApiService;
+
+    @Autowired
+    private DatabaseImageService databaseImageService;
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanJobService.class);
+
+    private Map<String, ScanJob> jobs;
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private final ScheduledExecutorService imageWatcher =
+            Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "scan-image-watch"));
+
+    @PostConstruct
+    public void init() {
+        // Insertion ordered, so the oldest finished jobs are dropped first once the store is full
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued), r -> new Thread(r, "scan-job"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        imageWatcher.shutdownNow();
+    }
+
+    /**
+     * Queue a scan of an uploaded image
+     *
+     * @throws OcrOverloadedException if too many scans are already queued
+     */
+    public ScanJob submit(byte[] imageData, String filename) {
+        ScanJob job = new ScanJob(UUID.randomUUID().toString());
+        synchronized (jobs) {
+            if (jobs.size() >= maxJobs && !evictOldestFinishedJob()) {
+                throw new OcrOverloadedException("Too many scans in progress, try again shortly", 5);
+            }
+            jobs.put(job.getId(), job);
+        }
+
+        try {
+            executor.execute(() -> runScan(job, imageData, filename));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new OcrOverloadedException("Too many scans in progress, try again shortly", 5);
+        }
+        return job;
+    }
+
+    public Optional<ScanJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Subscribe to a job's progress; the current state is sent immediately
+     */
+    public Optional<SseEmitter> subscribe(String jobId) {
+        ScanJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        List<SseEmitter> jobEmitters = emitters.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>());
+        jobEmitters.add(emitter);
+        emitter.onCompletion(() -> jobEmitters.remove(emitter));
+        emitter.onTimeout(() -> jobEmitters.remove(emitter));
+        emitter.onError(e -> jobEmitters.remove(emitter));
+
+        // Send the current state (and close straight away if the job already finished)
+        send(emitter, job);
+        if (job.isDone()) {
+            emitter.complete();
+        }
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Drop jobs older than the TTL
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(ttlSeconds);
+        synchronized (jobs) {
+            jobs.values().removeIf(job -> job.getUpdatedAt().isBefore(cutoff));
+        }
+        emitters.keySet().removeIf(jobId -> !jobs.containsKey(jobId));
+    }
+
+    // ==================== Helper Methods ====================
+
+    // Callers hold the jobs lock. Queued and running jobs are never dropped.
+    private boolean evictOldestFinishedJob() {
+        Iterator<ScanJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ScanJob job = iterator.next();
+            if (job.isDone()) {
+                iterator.remove();
+                emitters.remove(job.getId());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runScan(ScanJob job, byte[] imageData, String filename) {
+        try {
+            String imageHash = cardOcrService.hashImage(imageData);
+            CardImagePreprocessor.PreparedImage prepared = cardOcrService.prepare(imageData);
+            CardResponse knownCard = cardOcrService.findCardIdWithoutOcr(imageHash, prepared)
+                    .map(yugiohApiService::getCardById)
+                    .orElse(null);
+            if (knownCard != null) {
+                job.setCardName(knownCard.getName());
+                job.setCard(knownCard);
+                update(job, ScanJob.Stage.RESOLVED, "Card found successfully (recognised without OCR)", false);
+                finishWithImage(job, knownCard);
+                return;
+            }
+
+            String cardName = cardOcrService.extractCardName(prepared, imageData, filename);
+            if (cardName == null || cardName.trim().isEmpty()) {
+                update(job, ScanJob.Stage.FAILED, "Could not extract card name from image", true);
+                return;
+            }
+            job.setCardName(cardName);
+            update(job, ScanJob.Stage.OCR_DONE, "Card name extracted: '" + cardName + "'", false);
+
+            CardResponse card = yugiohApiService.getCardByName(cardName);
+            if (card == null) {
+                update(job, ScanJob.Stage.NOT_FOUND,
+                        "Card name extracted: '" + cardName + "' but not found in database", true);
+                return;
+            }
+            job.setCard(card);
+            cardOcrService.cacheResult(imageHash, card.getId());
+            update(job, ScanJob.Stage.RESOLVED, "Card found successfully", false);
+
+            finishWithImage(job, card);
+        } catch (OcrOverloadedException e) {
+            update(job, ScanJob.Stage.FAILED, e.getMessage(), true);
+        } catch (Exception e) {
+            logger.error("Scan job " + job.getId() + " failed: " + e.getMessage());
+            update(job, ScanJob.Stage.FAILED, "Error processing image: " + e.getMessage(), true);
+        }
+    }
+
+    private void finishWithImage(ScanJob job, CardResponse card) {
+        // Images of newly seen cards are downloaded in the background - watch for them briefly,
+        // without holding a scan worker
+        if (databaseImageService.imageExists(card.getId())) {
+            update(job, ScanJob.Stage.IMAGE_READY, "Card image ready", true);
+            return;
+        }
+        scheduleImageCheck(job, card.getId(), System.currentTimeMillis() + IMAGE_WAIT_MS);
+    }
+
+    private void scheduleImageCheck(ScanJob job, Long cardId, long deadline) {
+        try {
+            imageWatcher.schedule(() -> checkImage(job, cardId, deadline), IMAGE_POLL_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            update(job, ScanJob.Stage.RESOLVED, "Card found, image still downloading", true);
+        }
+    }
+
+    private void checkImage(ScanJob job, Long cardId, long deadline) {
+        try {
+            if (databaseImageService.imageExists(cardId)) {
+                update(job, ScanJob.Stage.IMAGE_READY, "Card image ready", true);
+            } else if (System.currentTimeMillis() >= deadline) {
+                update(job, ScanJob.Stage.RESOLVED, "Card found, image still downloading", true);
+            } else {
+                scheduleImageCheck(job, cardId, deadline);
+            }
+        } catch (Exception e) {
+            logger.error("Image check for scan job " + job.getId() + " failed: " + e.getMessage());
+            update(job, ScanJob.Stage.RESOLVED, "Card found, image still downloading", true);
+        }
+    }
+
+    private void update(ScanJob job, ScanJob.Stage stage, String message, boolean done) {
+        job.advance(stage, message, done);
+
+        List<SseEmitter> jobEmitters = emitters.get(job.getId());
+        if (jobEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : jobEmitters) {
+            send(emitter, job);
+            if (done) {
+                emitter.complete();
+            }
+        }
+        if (done) {
+            emitters.remove(job.getId());
+        }
+    }
+
+    private void send(SseEmitter emitter, ScanJob job) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(job.getStage().name().toLowerCase())
+                    .data(job));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away - the emitter callbacks clean it up
+            emitter.completeWithError(e);
+        }
+    }
+}
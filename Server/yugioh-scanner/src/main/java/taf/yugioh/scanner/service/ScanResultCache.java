@@ -0,0 +1,73 @@
+package taf.yugioh.scanner.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU cache of upload content hash (SHA-256) -> resolved card id.
+ *
+ * Re-uploads of the same photo and client retries skip OCR entirely.
+ * Only successful resolutions are cached. Exported metrics: ocr.scan.cache (tagged
+ * result=hit|miss), ocr.scan.cache.size and ocr.scan.cache.hit.rate.
+ */
+@Component
+public class ScanResultCache {
+
+    @Value("${app.ocr.scan-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final MeterRegistry meterRegistry;
+
+    private Map<String, Long> cache;
+    private Counter hits;
+    private Counter misses;
+
+    public ScanResultCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        });
+
+        hits = Counter.builder("ocr.scan.cache").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("ocr.scan.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("ocr.scan.cache.size", cache, Map::size)
+                .description("Cached scan results")
+                .register(meterRegistry);
+        Gauge.builder("ocr.scan.cache.hit.rate", this, ScanResultCache::getHitRate)
+                .description("Share of scans answered from the cache")
+                .register(meterRegistry);
+    }
+
+    public Optional<Long> get(String imageHash) {
+        Long cardId = cache.get(imageHash);
+        (cardId != null ? hits : misses).increment();
+        return Optional.ofNullable(cardId);
+    }
+
+    public void put(String imageHash, Long cardId) {
+        if (imageHash != null && cardId != null) {
+            cache.put(imageHash, cardId);
+        }
+    }
+
+    public double getHitRate() {
+        double total = hits.count() + misses.count();
+        return total > 0 ? hits.count() / total : 0.0;
+    }
+}
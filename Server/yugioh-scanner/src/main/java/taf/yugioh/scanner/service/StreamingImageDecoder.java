@@ -0,0 +1,293 @@
+package taf.yugioh.scanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import taf.yugioh.scanner.exception.ImageUploadRejectedException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Decodes image uploads straight off the request stream.
+ *
+ * Multipart bodies are parsed incrementally (no Tomcat temp file, no byte[] copy of the
+ * upload). The first bytes are sniffed so non-images are rejected before the rest is
+ * read, the image header is checked against the size limits before any pixels are
+ * decoded, and large photos are decoded with source subsampling so a 12MP photo never
+ * exists at full resolution on the heap. The SHA-256 of the upload is computed on the
+ * fly, so it matches {@link ImageBlobService#sha256Hex} of the same bytes.
+ */
+@Component
+public class StreamingImageDecoder {
+
+    private static final int SNIFF_BYTES = 12;
+
+    @Value("${app.upload.max-image-bytes:10485760}")
+    private long maxImageBytes;
+
+    // Decompression-bomb guard, checked against the header before decoding
+    @Value("${app.upload.max-pixels:100000000}")
+    private long maxPixels;
+
+    // Photos are subsampled while decoding so their long edge is about this size
+    @Value("${app.upload.decode-max-edge:2000}")
+    private int decodeMaxEdge;
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingImageDecoder.class);
+
+    static {
+        // Never let ImageIO spool streams to temp files
+        ImageIO.setUseCache(false);
+    }
+
+    /**
+     * Read an image upload from a request body, either as the named part of a
+     * multipart/form-data body or as a raw image/* body
+     *
+     * @throws ImageUploadRejectedException if the upload is missing, not an image or too large
+     */
+    public DecodedUpload decodeRequest(String contentType, long contentLength, InputStream body,
+                                       String partName) throws IOException {
+        String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        if (type.startsWith("multipart/form-data")) {
+            // Allow a little room for the boundaries and other small form fields
+            if (contentLength > maxImageBytes + 64 * 1024) {
+                throw tooLarge();
+            }
+            return decodeMultipart(body, contentType, partName);
+        }
+        if (type.startsWith("image/") || type.startsWith("application/octet-stream")) {
+            if (contentLength > maxImageBytes) {
+                throw tooLarge();
+            }
+            return decode(body, null);
+        }
+        throw new ImageUploadRejectedException("File must be an image", HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    /**
+     * Read the named file part of a multipart/form-data body
+     *
+     * @throws ImageUploadRejectedException if the part is missing, not an image or too large
+     */
+    public DecodedUpload decodeMultipart(InputStream body, String contentType, String partName) throws IOException {
+        String boundary = StreamingMultipartReader.boundaryOf(contentType);
+        if (boundary == null) {
+            throw new ImageUploadRejectedException("Malformed multipart request", HttpStatus.BAD_REQUEST);
+        }
+
+        StreamingMultipartReader reader = new StreamingMultipartReader(body, boundary);
+        StreamingMultipartReader.Part part;
+        while ((part = reader.nextPart()) != null) {
+            if (partName.equals(part.getName())) {
+                String partType = part.getContentType();
+                if (partType != null && !partType.toLowerCase(Locale.ROOT).startsWith("image/")
+                        && !partType.equalsIgnoreCase("application/octet-stream")) {
+                    throw new ImageUploadRejectedException("File must be an image", HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+                }
+                return decode(part.getBody(), part.getFilename());
+            }
+        }
+        throw new ImageUploadRejectedException("No image file provided", HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Read a raw image request body (Content-Type: image/*)
+     */
+    public DecodedUpload decode(InputStream in, String filename) throws IOException {
+        long start = System.nanoTime();
+        CountingLimitedInputStream counted = new CountingLimitedInputStream(in, maxImageBytes);
+        BufferedInputStream buffered = new BufferedInputStream(counted, 64 * 1024);
+
+        String format = sniffFormat(buffered);
+        if (format == null) {
+            throw new ImageUploadRejectedException(counted.getCount() == 0
+                    ? "No image file provided" : "File must be an image", HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        }
+
+        MessageDigest digest = sha256();
+        DigestInputStream digesting = new DigestInputStream(buffered, digest);
+
+        BufferedImage image;
+        int width;
+        int height;
+        int subsampling;
+        Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName(format);
+        if (!readers.hasNext()) {
+            throw new ImageUploadRejectedException("Unsupported image format", HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        }
+        ImageReader reader = readers.next();
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(digesting)) {
+            reader.setInput(iis, true, true);
+
+            // Only the header has been read at this point
+            width = reader.getWidth(0);
+            height = reader.getHeight(0);
+            if ((long) width * height > maxPixels) {
+                throw new ImageUploadRejectedException("Image dimensions too large (" + width + "x" + height + ")",
+                        HttpStatus.PAYLOAD_TOO_LARGE);
+            }
+
+            subsampling = Math.max(1, Math.max(width, height) / decodeMaxEdge);
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            image = reader.read(0, param);
+        } catch (ImageUploadRejectedException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            if (counted.isLimitExceeded()) {
+                throw tooLarge();
+            }
+            throw new ImageUploadRejectedException("Could not decode image: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        } finally {
+            reader.dispose();
+        }
+
+        // Trailing bytes (EXIF thumbnails, padding) still count towards the hash and the limit
+        digesting.transferTo(OutputStream.nullOutputStream());
+
+        logger.debug("Decoded " + width + "x" + height + " " + format + " upload (" + counted.getCount() +
+                " bytes, subsampling " + subsampling + ") in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return new DecodedUpload(image, HexFormat.of().formatHex(digest.digest()), filename,
+                counted.getCount(), width, height);
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Identify the format from its magic bytes (only formats ImageIO can decode)
+     */
+    private String sniffFormat(BufferedInputStream in) throws IOException {
+        in.mark(SNIFF_BYTES);
+        byte[] header = in.readNBytes(SNIFF_BYTES);
+        in.reset();
+
+        if (startsWith(header, 0xFF, 0xD8, 0xFF)) {
+            return "jpeg";
+        }
+        if (startsWith(header, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        if (startsWith(header, 'G', 'I', 'F', '8')) {
+            return "gif";
+        }
+        if (startsWith(header, 'B', 'M')) {
+            return "bmp";
+        }
+        return null;
+    }
+
+    private boolean startsWith(byte[] data, int... magic) {
+        if (data.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((data[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private ImageUploadRejectedException tooLarge() {
+        return new ImageUploadRejectedException("Image must be " + (maxImageBytes / (1024 * 1024)) + "MB or smaller",
+                HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Counts bytes and fails as soon as the limit is passed, so oversize uploads stop streaming early
+     */
+    private class CountingLimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count = 0;
+        private boolean limitExceeded = false;
+
+        CountingLimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                add(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                add(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void add(long bytes) {
+            count += bytes;
+            if (count > limit) {
+                limitExceeded = true;
+                throw tooLarge();
+            }
+        }
+
+        long getCount() { return count; }
+        boolean isLimitExceeded() { return limitExceeded; }
+    }
+
+    public static class DecodedUpload {
+        private final BufferedImage image;
+        private final String sha256;
+        private final String filename;
+        private final long byteSize;
+        private final int originalWidth;
+        private final int originalHeight;
+
+        public DecodedUpload(BufferedImage image, String sha256, String filename,
+                             long byteSize, int originalWidth, int originalHeight) {
+            this.image = image;
+            this.sha256 = sha256;
+            this.filename = filename;
+            this.byteSize = byteSize;
+            this.originalWidth = originalWidth;
+            this.originalHeight = originalHeight;
+        }
+
+        /** The decoded (possibly subsampled) photo */
+        public BufferedImage getImage() { return image; }
+        public String getSha256() { return sha256; }
+        public String getFilename() { return filename; }
+        public long getByteSize() { return byteSize; }
+        public int getOriginalWidth() { return originalWidth; }
+        public int getOriginalHeight() { return originalHeight; }
+    }
+}
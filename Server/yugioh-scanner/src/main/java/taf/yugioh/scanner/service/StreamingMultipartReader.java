@@ -0,0 +1,209 @@
+package taf.yugioh.scanner.service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal forward-only multipart/form-data parser.
+ *
+ * Parts are exposed one at a time as streams that end at the next boundary, so a part
+ * can be consumed while the request body is still arriving - nothing is buffered to
+ * heap or disk beyond a small lookahead.
+ */
+class StreamingMultipartReader {
+
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private final PushbackInputStream in;
+    private final byte[] delimiter;
+    private PartInputStream currentPart;
+    private boolean finished = false;
+
+    StreamingMultipartReader(InputStream body, String boundary) {
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        // A leading CRLF lets the first boundary match the same delimiter as the rest
+        InputStream withLeadingCrlf = new SequenceInputStream(
+                new ByteArrayInputStream(new byte[]{'\r', '\n'}), new BufferedInputStream(body, 16 * 1024));
+        this.in = new PushbackInputStream(withLeadingCrlf, delimiter.length);
+        this.currentPart = new PartInputStream(); // preamble
+    }
+
+    /**
+     * Extract the boundary from a multipart Content-Type header
+     */
+    static String boundaryOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        for (String param : contentType.split(";")) {
+            String trimmed = param.trim();
+            if (trimmed.toLowerCase(Locale.ROOT).startsWith("boundary=")) {
+                String boundary = trimmed.substring("boundary=".length());
+                return boundary.startsWith("\"") && boundary.endsWith("\"") && boundary.length() > 1
+                        ? boundary.substring(1, boundary.length() - 1) : boundary;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skip to the next part
+     *
+     * @return the part, or null when the body has no more parts
+     */
+    Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        // Discard whatever is left of the previous part (or the preamble)
+        currentPart.skipRest();
+
+        int first = in.read(), second = in.read();
+        if (first == '-' && second == '-') {
+            finished = true;
+            return null;
+        }
+        if (first != '\r' || second != '\n') {
+            throw new IOException("Malformed multipart body");
+        }
+
+        Map<String, String> headers = readHeaders();
+        currentPart = new PartInputStream();
+        return new Part(headers, currentPart);
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int total = 0;
+
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Multipart body ended inside part headers");
+            }
+            if (++total > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart part headers too large");
+            }
+            if (b == '\n') {
+                String text = line.toString(StandardCharsets.UTF_8).trim();
+                line.reset();
+                if (text.isEmpty()) {
+                    return headers;
+                }
+                int colon = text.indexOf(':');
+                if (colon > 0) {
+                    headers.put(text.substring(0, colon).trim().toLowerCase(Locale.ROOT), text.substring(colon + 1).trim());
+                }
+            } else if (b != '\r') {
+                line.write(b);
+            }
+        }
+    }
+
+    static class Part {
+        private final Map<String, String> headers;
+        private final InputStream body;
+
+        Part(Map<String, String> headers, InputStream body) {
+            this.headers = headers;
+            this.body = body;
+        }
+
+        String getName() {
+            return dispositionParam("name");
+        }
+
+        String getFilename() {
+            return dispositionParam("filename");
+        }
+
+        String getContentType() {
+            return headers.get("content-type");
+        }
+
+        InputStream getBody() {
+            return body;
+        }
+
+        private String dispositionParam(String param) {
+            String disposition = headers.get("content-disposition");
+            if (disposition == null) {
+                return null;
+            }
+            for (String item : disposition.split(";")) {
+                String trimmed = item.trim();
+                if (trimmed.toLowerCase(Locale.ROOT).startsWith(param + "=")) {
+                    String value = trimmed.substring(param.length() + 1);
+                    return value.startsWith("\"") && value.endsWith("\"") && value.length() > 1
+                            ? value.substring(1, value.length() - 1) : value;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads the current part up to (not including) the next delimiter
+     */
+    private class PartInputStream extends InputStream {
+        private boolean ended = false;
+
+        @Override
+        public int read() throws IOException {
+            if (ended) {
+                return -1;
+            }
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Multipart body ended before the closing boundary");
+            }
+            if (b != delimiter[0]) {
+                return b;
+            }
+
+            // Possible delimiter: look ahead and push back on mismatch
+            byte[] lookahead = new byte[delimiter.length - 1];
+            int read = in.readNBytes(lookahead, 0, lookahead.length);
+            boolean match = read == lookahead.length;
+            for (int i = 0; match && i < lookahead.length; i++) {
+                match = lookahead[i] == delimiter[i + 1];
+            }
+            if (match) {
+                ended = true;
+                return -1;
+            }
+            in.unread(lookahead, 0, read);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            int count = 0;
+            while (count < length) {
+                int b = read();
+                if (b < 0) {
+                    break;
+                }
+                buffer[offset + count++] = (byte) b;
+                // Don't block waiting for more once a chunk has been filled from what's buffered
+                if (in.available() == 0) {
+                    break;
+                }
+            }
+            return count == 0 ? -1 : count;
+        }
+
+        void skipRest() throws IOException {
+            while (read() >= 0) {
+                // drain
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package taf.yugioh.scanner.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Shared rate limiter for every call to YGOProDeck (card API and image downloads).
+ *
+ * YGOProDeck blocks clients for an hour above 20 requests/second, so all upstream
+ * traffic - user lookups, background saves and prefetch jobs - reserves a slot here.
+ */
+@Component
+public class UpstreamRateLimiter {
+
+    @Value("${yugioh.api.rate-limit.per-second:15}")
+    private int permitsPerSecond;
+
+    private long intervalNanos;
+    private long nextFreeSlot;
+
+    @PostConstruct
+    public void init() {
+        this.intervalNanos = 1_000_000_000L / Math.max(1, permitsPerSecond);
+        this.nextFreeSlot = System.nanoTime();
+    }
+
+    /**
+     * Block until the caller may make one upstream request
+     */
+    public void acquire() {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(nextFreeSlot, now);
+            nextFreeSlot = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for upstream rate limit", e);
+            }
+        }
+    }
+
+    public int getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
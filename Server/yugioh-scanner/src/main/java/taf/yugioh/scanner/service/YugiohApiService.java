@@ -15,7 +15,12 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.annotation.PostConstruct;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -37,6 +42,7 @@ public class YugiohApiService {
 
     private final DatabaseImageService databaseImageService;
     private final CardRepository cardRepository;
+    private final UpstreamRateLimiter rateLimiter;
     private final ObjectMapper objectMapper;
     private RestTemplate restTemplate;
 
@@ -44,9 +50,11 @@ public class YugiohApiService {
 
 
     // Constructor injection (recommended over @Autowired field injection)
-    public YugiohApiService(DatabaseImageService databaseImageService, CardRepository cardRepository) {
+    public YugiohApiService(DatabaseImageService databaseImageService, CardRepository cardRepository,
+                            UpstreamRateLimiter rateLimiter) {
         this.databaseImageService = databaseImageService;
         this.cardRepository = cardRepository;
+        this.rateLimiter = rateLimiter;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -110,6 +118,67 @@ public class YugiohApiService {
         return result;
     }
 
+    /**
+     * Get many cards by ID with one database query; only cards missing locally hit the API
+     */
+    public Map<Long, CardResponse> getCardsByIds(Collection<Long> cardIds) {
+        Map<Long, CardResponse> result = new HashMap<>();
+        if (cardIds == null || cardIds.isEmpty()) {
+            return result;
+        }
+        for (Card card : cardRepository.findByCardIdIn(new HashSet<>(cardIds))) {
+            result.put(card.getCardId(), mapToResponse(card));
+        }
+        for (Long cardId : cardIds) {
+            if (!result.containsKey(cardId)) {
+                CardResponse card = getCardById(cardId);
+                if (card != null) {
+                    result.put(cardId, card);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get many cards by name with one database query; names missing locally fall back to
+     * the API (exact, then fuzzy). Keys are the trimmed names as given.
+     */
+    public Map<String, CardResponse> getCardsByNames(Collection<String> cardNames) {
+        Map<String, CardResponse> result = new HashMap<>();
+        if (cardNames == null || cardNames.isEmpty()) {
+            return result;
+        }
+
+        Set<String> cleanNames = new HashSet<>();
+        for (String name : cardNames) {
+            if (name != null && !name.trim().isEmpty()) {
+                cleanNames.add(name.trim());
+            }
+        }
+        if (cleanNames.isEmpty()) {
+            return result;
+        }
+
+        Map<String, CardResponse> byLowerName = new HashMap<>();
+        Set<String> lowerNames = new HashSet<>();
+        cleanNames.forEach(name -> lowerNames.add(name.toLowerCase()));
+        for (Card card : cardRepository.findByLowerNameIn(lowerNames)) {
+            byLowerName.put(card.getName().toLowerCase(), mapToResponse(card));
+        }
+
+        for (String name : cleanNames) {
+            CardResponse card = byLowerName.get(name.toLowerCase());
+            if (card == null) {
+                card = getCardByName(name);
+            }
+            if (card != null) {
+                result.put(name, card);
+            }
+        }
+        return result;
+    }
+
     // ==================== Private Helper Methods ====================
 
     private CardResponse findInDatabase(String cardName) {
@@ -133,6 +202,7 @@ public class YugiohApiService {
                 builder.queryParam("num", 1).queryParam("offset", 0);
             }
 
+            rateLimiter.acquire();
             String response = restTemplate.getForObject(builder.build().toUriString(), String.class);
             if (response == null) {
                 return null;
@@ -0,0 +1,264 @@
+package taf.yugioh.scanner.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import taf.yugioh.scanner.exception.OcrOverloadedException;
+import taf.yugioh.scanner.model.CardResponse;
+import taf.yugioh.scanner.service.CardImagePreprocessor;
+import taf.yugioh.scanner.service.CardOCRService;
+import taf.yugioh.scanner.service.PerceptualHash;
+import taf.yugioh.scanner.service.YugiohApiService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Live camera scanning: the client streams low-res JPEG frames as binary messages on /ws/scan.
+ *
+ * Frames are dropped when they arrive faster than the per-connection frame cap, while the
+ * previous frame is still being recognised, or when they are near-duplicates (by dHash) of
+ * the last recognised frame - a duplicate just re-confirms the previous result. A card is
+ * pushed only once it has been recognised on several consecutive frames and differs from
+ * the last card pushed. OCR calls are capped per connection on top of the global dispatcher.
+ */
+@Component
+public class LiveScanHandler extends BinaryWebSocketHandler {
+
+    @Value("${app.scan.live.max-sessions:20}")
+    private int maxSessions;
+
+    @Value("${app.scan.live.workers:4}")
+    private int workers;
+
+    // Live scanning sends small preview frames, not full photos
+    @Value("${app.scan.live.max-frame-bytes:524288}")
+    private int maxFrameBytes;
+
+    @Value("${app.scan.live.max-frames-per-second:4}")
+    private int maxFramesPerSecond;
+
+    @Value("${app.scan.live.max-ocr-per-minute:20}")
+    private int maxOcrPerMinute;
+
+    // Max dHash distance for a frame to count as a duplicate of the previous one
+    @Value("${app.scan.live.duplicate-distance:4}")
+    private int duplicateDistance;
+
+    // Consecutive frames that must agree before a card is pushed
+    @Value("${app.scan.live.stable-frames:2}")
+    private int stableFrames;
+
+    @Autowired
+    private CardOCRService cardOcrService;
+
+    @Autowired
+    private YugiohApiService yugiohApiService;
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveScanHandler.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, LiveSession> sessions = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 2), r -> new Thread(r, "live-scan"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        if (sessions.size() >= maxSessions) {
+            session.close(CloseStatus.SERVICE_OVERLOAD.withReason("Too many live scanners, try again later"));
+            return;
+        }
+        session.setBinaryMessageSizeLimit(maxFrameBytes);
+
+        // Workers and the socket thread both send - the decorator serialises writes
+        WebSocketSession safeSession = new ConcurrentWebSocketSessionDecorator(session, 5000, 64 * 1024);
+        sessions.put(session.getId(), new LiveSession(safeSession));
+        send(safeSession, "ready", "Send JPEG frames as binary messages", null);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        LiveSession live = sessions.get(session.getId());
+        if (live == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - live.lastAcceptedAt < 1000L / Math.max(1, maxFramesPerSecond)) {
+            return; // over the frame cap
+        }
+        if (!live.busy.compareAndSet(false, true)) {
+            return; // previous frame still being recognised
+        }
+        live.lastAcceptedAt = now;
+
+        ByteBuffer payload = message.getPayload();
+        byte[] frame = new byte[payload.remaining()];
+        payload.get(frame);
+
+        try {
+            executor.execute(() -> {
+                try {
+                    processFrame(live, frame);
+                } finally {
+                    live.busy.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // All live workers busy - drop the frame, the next one will do
+            live.busy.set(false);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void processFrame(LiveSession live, byte[] frame) {
+        try {
+            CardImagePreprocessor.PreparedImage prepared = cardOcrService.prepare(frame);
+            if (prepared == null) {
+                return;
+            }
+
+            long frameHash = PerceptualHash.artHash(prepared.getCard());
+            if (live.lastFrameHash != null && PerceptualHash.distance(frameHash, live.lastFrameHash) <= duplicateDistance) {
+                // Same view as last time: re-confirm the previous result without recognising again
+                confirm(live, live.candidateCardId);
+                return;
+            }
+
+            Long cardId = recognise(live, frame, prepared);
+            if (cardId != null) {
+                // Only a view that was actually recognised may be reused; a shed or over-budget
+                // frame must not make the next similar frames skip recognition
+                live.lastFrameHash = frameHash;
+            }
+            confirm(live, cardId);
+        } catch (OcrOverloadedException e) {
+            // Shed this frame; the camera will send another
+        } catch (Exception e) {
+            logger.error("Live scan frame failed: " + e.getMessage());
+        }
+    }
+
+    private Long recognise(LiveSession live, byte[] frame, CardImagePreprocessor.PreparedImage prepared) {
+        String imageHash = cardOcrService.hashImage(frame);
+        Optional<Long> known = cardOcrService.findCardIdWithoutOcr(imageHash, prepared);
+        if (known.isPresent()) {
+            return known.get();
+        }
+
+        // Only OCR frames where a card was actually found, within the per-connection budget
+        if (!prepared.isCardDetected() || !live.tryAcquireOcr(maxOcrPerMinute)) {
+            return null;
+        }
+        String cardName = cardOcrService.extractCardName(prepared, frame, "frame.jpg");
+        if (cardName == null || cardName.trim().isEmpty()) {
+            return null;
+        }
+        CardResponse card = yugiohApiService.getCardByName(cardName);
+        if (card == null) {
+            return null;
+        }
+        cardOcrService.cacheResult(imageHash, card.getId());
+        return card.getId();
+    }
+
+    /**
+     * Count consecutive agreeing frames and push a card once it is stable and new
+     */
+    private void confirm(LiveSession live, Long cardId) {
+        if (cardId == null) {
+            live.candidateCardId = null;
+            live.candidateFrames = 0;
+            return;
+        }
+
+        if (cardId.equals(live.candidateCardId)) {
+            live.candidateFrames++;
+        } else {
+            live.candidateCardId = cardId;
+            live.candidateFrames = 1;
+        }
+
+        if (live.candidateFrames >= stableFrames && !cardId.equals(live.lastPushedCardId)) {
+            CardResponse card = yugiohApiService.getCardById(cardId);
+            if (card != null) {
+                live.lastPushedCardId = cardId;
+                send(live.session, "card", "Card found successfully", card);
+            }
+        }
+    }
+
+    private void send(WebSocketSession session, String type, String message, Object data) {
+        try {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("type", type);
+            payload.put("message", message);
+            payload.put("data", data);
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(payload)));
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Could not send to live scan session " + session.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private static class LiveSession {
+        private final WebSocketSession session;
+        private final AtomicBoolean busy = new AtomicBoolean(false);
+        private final Deque<Long> ocrCalls = new ArrayDeque<>();
+        private volatile long lastAcceptedAt = 0L;
+        private volatile Long lastFrameHash;
+        private volatile Long candidateCardId;
+        private volatile int candidateFrames;
+        private volatile Long lastPushedCardId;
+
+        LiveSession(WebSocketSession session) {
+            this.session = session;
+        }
+
+        // Sliding one-minute window of OCR calls for this connection
+        synchronized boolean tryAcquireOcr(int maxPerMinute) {
+            long now = System.currentTimeMillis();
+            while (!ocrCalls.isEmpty() && now - ocrCalls.peekFirst() > 60_000) {
+                ocrCalls.pollFirst();
+            }
+            if (ocrCalls.size() >= maxPerMinute) {
+                return false;
+            }
+            ocrCalls.addLast(now);
+            return true;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 import os
 import sys
 import easyocr
+from easyocr.utils import reformat_input
 import logging
 from flask import Flask, request, jsonify
 
@@ -37,47 +38,76 @@ def clean_name_for_api(card_name):
 
     return ' '.join(capitalized_words).strip()
 
-@app.route('/extract', methods=['POST'])
-def extract():
-    file_path = None
-    try:
-        # Get image path from request
-        data = request.json
-        file_path = data.get('image_path')
+MAX_CANDIDATES = 8
 
-        if not file_path or not os.path.exists(file_path):
-            return jsonify({'error': 'File not found'}), 400
+def read_image_from_request():
+    """Image bytes from a multipart 'image' part, a raw image body, or (legacy) a local file path"""
+    if 'image' in request.files:
+        return request.files['image'].read()
 
-        # Perform OCR
-        result = reader.readtext(file_path)
+    if request.mimetype and request.mimetype.startswith('image/'):
+        return request.get_data()
 
-        if not result:
-            return jsonify({'card_name': None})
+    data = request.get_json(silent=True) or {}
+    file_path = data.get('image_path')
+    if file_path and os.path.exists(file_path):
+        return file_path
 
-        # Filter results (Logic preserved from your original script)
-        valid_detections = []
-        for detection in result:
-            text = detection[1].strip()
-            confidence = detection[2]
-            if len(text) >= 3 and confidence > 0.5:
-                bbox = detection[0]
-                top_y = bbox[0][1]
-                valid_detections.append((top_y, text))
+    return None
+
+@app.route('/health', methods=['GET'])
+def health():
+    """Liveness for the Java supervisor (the model is loaded before the server starts listening)"""
+    return jsonify({'status': 'ok'})
 
-        if not valid_detections:
-            return jsonify({'card_name': None})
+@app.route('/extract', methods=['POST'])
+def extract():
+    try:
+        image = read_image_from_request()
 
-        # Sort by Y position to get the title
-        valid_detections.sort(key=lambda x: x[0])
-        raw_name = valid_detections[0][1]
-        cleaned_name = clean_name_for_api(raw_name)
+        if not image:
+            return jsonify({'error': 'No image provided'}), 400
 
-        return jsonify({'card_name': cleaned_name})
+        # Decode once (bytes or path, the same way EasyOCR would) and reuse the array
+        # for both OCR and the image size
+        decoded, _ = reformat_input(image)
+        result = reader.readtext(decoded)
+        height, width = int(decoded.shape[0]), int(decoded.shape[1])
+
+        # Every readable line is returned as a candidate (top to bottom) so the
+        # Java side can re-rank them against the card catalog
+        candidates = []
+        for detection in result or []:
+            text = detection[1].strip()
+            confidence = float(detection[2])
+            if len(text) < 2:
+                continue
+            xs = [float(point[0]) for point in detection[0]]
+            ys = [float(point[1]) for point in detection[0]]
+            candidates.append({
+                'text': text,
+                'cleaned': clean_name_for_api(text),
+                'confidence': confidence,
+                'bbox': [min(xs), min(ys), max(xs), max(ys)],
+            })
+        candidates.sort(key=lambda c: c['bbox'][1])
+
+        # Legacy single answer: topmost confident line (logic preserved from the original script)
+        valid = [c for c in candidates if len(c['text']) >= 3 and c['confidence'] > 0.5]
+        card_name = valid[0]['cleaned'] if valid else None
+
+        return jsonify({
+            'card_name': card_name,
+            'candidates': candidates[:MAX_CANDIDATES],
+            'image_width': width,
+            'image_height': height,
+        })
 
     except Exception as e:
         logger.error(f"Error processing image: {str(e)}")
         return jsonify({'error': str(e)}), 500
 
 if __name__ == '__main__':
-    # Run on localhost port 5000
-    app.run(host='127.0.0.1', port=5000)
\ No newline at end of file
+    # Run on localhost port 5000 by default; set OCR_HOST=0.0.0.0 to serve other nodes.
+    # When supervised by the Java app, OCR_HOST/OCR_PORT are set per worker.
+    app.run(host=os.environ.get('OCR_HOST', '127.0.0.1'), port=int(os.environ.get('OCR_PORT', '5000')))
\ No newline at end of file
@@ -0,0 +1,54 @@
+package taf.yugioh.scanner.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckEtagsTest {
+
+    @Test
+    void readTagsAreWeakAndWriteTagsStrong() {
+        assertEquals("W/\"7\"", DeckEtags.forRead(7, true));
+        assertEquals("W/\"7-summary\"", DeckEtags.forRead(7, false));
+        assertEquals("\"7\"", DeckEtags.forWrite(7));
+    }
+
+    @Test
+    void ifNoneMatchComparesWeaklyAcrossATagList() {
+        String etag = DeckEtags.forRead(7, true);
+
+        assertTrue(DeckEtags.matchesIfNoneMatch("W/\"7\"", etag));
+        assertTrue(DeckEtags.matchesIfNoneMatch("\"7\"", etag));
+        assertTrue(DeckEtags.matchesIfNoneMatch("\"5\", W/\"7\"", etag));
+        assertTrue(DeckEtags.matchesIfNoneMatch("*", etag));
+        assertFalse(DeckEtags.matchesIfNoneMatch("W/\"7-summary\"", etag));
+        assertFalse(DeckEtags.matchesIfNoneMatch("\"70\"", etag));
+        assertFalse(DeckEtags.matchesIfNoneMatch(null, etag));
+        assertFalse(DeckEtags.matchesIfNoneMatch(" ", etag));
+    }
+
+    @Test
+    void ifMatchWithoutPreconditionIsNull() {
+        assertNull(DeckEtags.parseIfMatch(null));
+        assertNull(DeckEtags.parseIfMatch(""));
+        assertNull(DeckEtags.parseIfMatch(" * "));
+    }
+
+    @Test
+    void ifMatchUsesStrongComparison() {
+        assertEquals(List.of(7L), DeckEtags.parseIfMatch("\"7\""));
+        // Weak and summary tags never satisfy If-Match
+        assertEquals(List.of(), DeckEtags.parseIfMatch("W/\"7\""));
+        assertEquals(List.of(), DeckEtags.parseIfMatch("\"7-summary\""));
+        assertEquals(List.of(), DeckEtags.parseIfMatch("\"not-a-version\""));
+    }
+
+    @Test
+    void ifMatchIsParsedAsAList() {
+        assertEquals(List.of(1L, 2L), DeckEtags.parseIfMatch("\"1\", \"2\""));
+        assertEquals(List.of(3L), DeckEtags.parseIfMatch("W/\"1\",\"3\" , \"3-summary\""));
+        assertEquals(List.of(4L), DeckEtags.parseIfMatch("\"a,b\", \"4\""));
+    }
+}
@@ -0,0 +1,96 @@
+package taf.yugioh.scanner.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Radius search over art hashes, checked against a brute-force scan
+ */
+class BkTreeTest {
+
+    @Test
+    void emptyTreeFindsNothing() {
+        BkTree tree = new BkTree();
+
+        assertEquals(0, tree.size());
+        assertTrue(tree.search(0L, 64).isEmpty());
+    }
+
+    @Test
+    void radiusIsInclusive() {
+        BkTree tree = new BkTree();
+        tree.add(0b0000L, 1L);
+        tree.add(0b0011L, 2L);
+        tree.add(0b0111L, 3L);
+
+        assertEquals(Set.of(1L), cardIds(tree.search(0L, 0)));
+        assertEquals(Set.of(1L, 2L), cardIds(tree.search(0L, 2)));
+        assertEquals(Set.of(1L, 2L, 3L), cardIds(tree.search(0L, 3)));
+
+        BkTree.Match match = tree.search(0b0111L, 0).get(0);
+        assertEquals(3L, match.getCardId());
+        assertEquals(0, match.getDistance());
+    }
+
+    @Test
+    void identicalHashesShareANode() {
+        BkTree tree = new BkTree();
+        tree.add(42L, 1L);
+        tree.add(42L, 2L);
+        tree.add(42L, 2L); // duplicate entry is ignored
+
+        assertEquals(2, tree.size());
+        assertEquals(Set.of(1L, 2L), cardIds(tree.search(42L, 0)));
+    }
+
+    @Test
+    void removedEntriesStillRouteToTheirChildren() {
+        BkTree tree = new BkTree();
+        tree.add(0L, 1L);
+        tree.add(1L, 2L);
+        tree.add(3L, 3L);
+
+        tree.remove(0L, 1L);
+        tree.remove(0L, 99L); // unknown card id
+        tree.remove(-1L, 2L); // unknown hash
+
+        assertEquals(2, tree.size());
+        assertEquals(Set.of(2L, 3L), cardIds(tree.search(0L, 2)));
+    }
+
+    @Test
+    void searchMatchesBruteForce() {
+        Random random = new Random(7);
+        long[] hashes = new long[2_000];
+        BkTree tree = new BkTree();
+        for (int i = 0; i < hashes.length; i++) {
+            // Flip a few bits of a handful of base hashes, so there are real clusters
+            hashes[i] = (random.nextInt(20) * 0x9E3779B97F4A7C15L) ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+            tree.add(hashes[i], (long) i);
+        }
+
+        for (int q = 0; q < 50; q++) {
+            long query = hashes[random.nextInt(hashes.length)] ^ (1L << random.nextInt(64));
+            for (int radius : new int[] {0, 3, 10}) {
+                Set<Long> expected = new HashSet<>();
+                for (int i = 0; i < hashes.length; i++) {
+                    if (PerceptualHash.distance(query, hashes[i]) <= radius) {
+                        expected.add((long) i);
+                    }
+                }
+                assertEquals(expected, cardIds(tree.search(query, radius)), "radius " + radius);
+            }
+        }
+    }
+
+    private Set<Long> cardIds(List<BkTree.Match> matches) {
+        return matches.stream().map(BkTree.Match::getCardId).collect(Collectors.toSet());
+    }
+}
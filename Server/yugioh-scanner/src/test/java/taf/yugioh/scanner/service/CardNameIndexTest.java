@@ -0,0 +1,160 @@
+package taf.yugioh.scanner.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import taf.yugioh.scanner.model.OcrCandidate;
+import taf.yugioh.scanner.repository.CardRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OCR re-ranking against the card catalog. Plain JUnit, the repository is mocked.
+ */
+class CardNameIndexTest {
+
+    private final CardRepository cardRepository = mock(CardRepository.class);
+    private final CardNameIndex index = new CardNameIndex();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "cardRepository", cardRepository);
+        ReflectionTestUtils.setField(index, "minSimilarity", 0.75);
+        load("Pot of Greed", "Dark Magician", "Blue-Eyes White Dragon");
+    }
+
+    @Test
+    void normalisesCaseAndPunctuation() {
+        assertEquals("blue eyes white dragon", CardNameIndex.normalise("  Blue-Eyes   WHITE Dragon! "));
+        assertEquals("", CardNameIndex.normalise(null));
+        assertEquals("", CardNameIndex.normalise("--"));
+    }
+
+    @Test
+    void similarityIsOneMinusNormalisedEditDistance() {
+        assertEquals(1.0, CardNameIndex.similarity("", ""));
+        assertEquals(1.0, CardNameIndex.similarity("pot of greed", "pot of greed"));
+        assertEquals(0.75, CardNameIndex.similarity("pot of greed", "pot of grxxx"), 1e-9);
+        assertEquals(0.0, CardNameIndex.similarity("abc", ""));
+    }
+
+    @Test
+    void returnsTheStoredNameForANoisyLine() {
+        assertEquals(Optional.of("Blue-Eyes White Dragon"),
+                index.bestMatch(List.of(line("BLUE EYES WHITE DRAG0N", 0.9, 10)), 1000.0));
+    }
+
+    @Test
+    void acceptsSimilarityAtTheThresholdAndRejectsBelowIt() {
+        // 3 edits in 12 characters: similarity exactly 0.75
+        assertEquals(Optional.of("Pot of Greed"), index.bestMatch(List.of(line("pot of grxxx", 1.0, 0)), 1000.0));
+        // 4 edits: 0.67, the raw OCR text is used instead
+        assertEquals(Optional.empty(), index.bestMatch(List.of(line("pot xf grxxx", 1.0, 0)), 1000.0));
+    }
+
+    @Test
+    void positionBreaksTiesBetweenExactMatches() {
+        List<OcrCandidate> lines = List.of(line("Pot of Greed", 0.9, 900), line("Dark Magician", 0.9, 20));
+
+        // The line nearer the top of the image is the card name
+        assertEquals(Optional.of("Dark Magician"), index.bestMatch(lines, 1000.0));
+    }
+
+    @Test
+    void equalScoresKeepTheFirstLine() {
+        // Without an image height every line gets the same position prior
+        List<OcrCandidate> lines = List.of(line("Pot of Greed", 0.9, 900), line("Dark Magician", 0.9, 20));
+
+        assertEquals(Optional.of("Pot of Greed"), index.bestMatch(lines, null));
+    }
+
+    @Test
+    void scoreWeighsSimilarityPositionAndConfidence() {
+        // Top line, fully confident, similarity 0.77: 0.7 * 0.769 + 0.15 + 0.15 = 0.838
+        OcrCandidate nearMatchAtTop = line("dark magicxxx", 1.0, 0);
+
+        // Exact match at the bottom: 0.7 + 0.15 * 0.05 + 0.15 * 0.9 = 0.843
+        assertEquals(Optional.of("Pot of Greed"),
+                index.bestMatch(List.of(nearMatchAtTop, line("Pot of Greed", 0.9, 950)), 1000.0));
+        // Same line read with less confidence: 0.7 + 0.15 * 0.05 + 0.15 * 0.5 = 0.783
+        assertEquals(Optional.of("Dark Magician"),
+                index.bestMatch(List.of(nearMatchAtTop, line("Pot of Greed", 0.5, 950)), 1000.0));
+    }
+
+    @Test
+    void confidenceIsClampedToOne() {
+        // An out-of-range confidence must not let a lower line beat the top one
+        List<OcrCandidate> lines = List.of(line("Pot of Greed", 50.0, 900), line("Dark Magician", 1.0, 0));
+
+        assertEquals(Optional.of("Dark Magician"), index.bestMatch(lines, 1000.0));
+    }
+
+    @Test
+    void emptyAndShortInputMatchNothing() {
+        assertEquals(Optional.empty(), index.bestMatch(null, 1000.0));
+        assertEquals(Optional.empty(), index.bestMatch(List.of(), 1000.0));
+        assertEquals(Optional.empty(), index.bestMatch(List.of(line("Po", 1.0, 0)), 1000.0));
+        assertEquals(Optional.empty(), index.bestMatch(List.of(line(null, 1.0, 0)), 1000.0));
+    }
+
+    @Test
+    void onlyTheFirstEightLinesAreConsidered() {
+        List<OcrCandidate> lines = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            lines.add(line("zzzz", 1.0, i));
+        }
+        lines.add(line("Pot of Greed", 1.0, 8));
+
+        assertEquals(Optional.empty(), index.bestMatch(lines, 1000.0));
+    }
+
+    @Test
+    void findsTheExactNameAmongManySimilarOnes() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            names.add("Elemental HERO Number " + i);
+        }
+        load(names.toArray(new String[0]));
+
+        assertEquals(Optional.of("Elemental HERO Number 57"),
+                index.bestMatch(List.of(line("ELEMENTAL HERO NUMBER 57", 0.8, 0)), 1000.0));
+    }
+
+    @Test
+    void reloadReplacesTheNamesAndKeepsThemOnFailure() {
+        assertEquals(3, index.size());
+
+        load("Mirror Force");
+        assertEquals(1, index.size());
+        assertEquals(Optional.empty(), index.bestMatch(List.of(line("Pot of Greed", 1.0, 0)), 1000.0));
+        assertEquals(Optional.of("Mirror Force"), index.bestMatch(List.of(line("Mirror Force", 1.0, 0)), 1000.0));
+
+        when(cardRepository.findAllNames()).thenThrow(new IllegalStateException("database down"));
+        index.reload();
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void emptyIndexMatchesNothing() {
+        load();
+
+        assertEquals(0, index.size());
+        assertEquals(Optional.empty(), index.bestMatch(List.of(line("Pot of Greed", 1.0, 0)), 1000.0));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void load(String... names) {
+        when(cardRepository.findAllNames()).thenReturn(List.of(names));
+        index.reload();
+    }
+
+    private OcrCandidate line(String text, double confidence, double top) {
+        return new OcrCandidate(text, text, confidence, new double[] {0, top, 100, top + 20});
+    }
+}
@@ -0,0 +1,52 @@
+package taf.yugioh.scanner.service;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import taf.yugioh.scanner.dto.ApiResponse;
+import taf.yugioh.scanner.dto.DeckBatchRequest;
+import taf.yugioh.scanner.dto.DeckBatchResponse;
+import taf.yugioh.scanner.entity.DeckCard;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batch edits are validated as a whole and written in a handful of statements
+ */
+class DeckBatchEditTest extends DeckServiceTestSupport {
+
+    @Test
+    void rejectedBatchChangesNothing() {
+        Long deckId = deckId("Deck 0");
+
+        // Fourth copy of the spell is only rejected once the whole batch is applied
+        ApiResponse<DeckBatchResponse> rejected = deckService.applyBatch(user, deckId, new DeckBatchRequest(List.of(
+                new DeckBatchRequest.Operation(DeckBatchRequest.OperationType.REMOVE, FUSION_ID, null, DeckCard.DeckType.MAIN, null),
+                new DeckBatchRequest.Operation(DeckBatchRequest.OperationType.ADD, SPELL_ID, 1, DeckCard.DeckType.SIDE, null))), null);
+
+        assertFalse(rejected.isSuccess());
+        assertCountersMatchRows(deckId);
+        assertEquals(4, deckService.getDeck(user, deckId, false).getData().getMainDeckCount());
+    }
+
+    @Test
+    void appliedBatchUpdatesRowsAndCounters() {
+        Long deckId = deckId("Deck 0");
+        Statistics statistics = clearedStatistics();
+
+        ApiResponse<DeckBatchResponse> applied = deckService.applyBatch(user, deckId, new DeckBatchRequest(List.of(
+                new DeckBatchRequest.Operation(DeckBatchRequest.OperationType.REMOVE, SPELL_ID, null, DeckCard.DeckType.SIDE, null),
+                new DeckBatchRequest.Operation(DeckBatchRequest.OperationType.MOVE, SPELL_ID, 1, DeckCard.DeckType.MAIN, DeckCard.DeckType.SIDE),
+                new DeckBatchRequest.Operation(DeckBatchRequest.OperationType.ADD, FUSION_ID, 1, DeckCard.DeckType.MAIN, null))), null);
+        assertTrue(applied.isSuccess(), applied.getMessage());
+        entityManager.flush();
+        assertTrue(statistics.getPrepareStatementCount() <= 8);
+
+        DeckBatchResponse result = applied.getData();
+        assertEquals(3, result.getMainDeckCount());
+        assertEquals(1, result.getExtraDeckCount());
+        assertEquals(1, result.getSideDeckCount());
+        assertCountersMatchRows(deckId);
+    }
+}
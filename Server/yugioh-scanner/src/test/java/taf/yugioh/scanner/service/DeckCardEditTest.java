@@ -0,0 +1,81 @@
+package taf.yugioh.scanner.service;
+
+import org.junit.jupiter.api.Test;
+import taf.yugioh.scanner.dto.AddCardRequest;
+import taf.yugioh.scanner.dto.DeckDeltaResponse;
+import taf.yugioh.scanner.dto.DeckResponse;
+import taf.yugioh.scanner.entity.DeckCard;
+import taf.yugioh.scanner.exception.DeckVersionMismatchException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Single card edits: counters kept in step with the rows, delta responses and version checks
+ */
+class DeckCardEditTest extends DeckServiceTestSupport {
+
+    @Test
+    void countersFollowCardEditsWithoutReloadingRows() {
+        Long deckId = deckId("Deck 0");
+
+        deckService.removeCardFromDeck(user, deckId, SPELL_ID, DeckCard.DeckType.SIDE, null, null);
+        assertCountersMatchRows(deckId);
+
+        deckService.removeCardFromDeck(user, deckId, FUSION_ID, DeckCard.DeckType.MAIN, null, null);
+        assertCountersMatchRows(deckId);
+
+        DeckResponse summary = deckService.getDeck(user, deckId, false).getData();
+        assertEquals(3, summary.getMainDeckCount());
+        assertEquals(0, summary.getExtraDeckCount());
+        assertEquals(0, summary.getSideDeckCount());
+    }
+
+    @Test
+    void deltaResponseCarriesOnlyTheChangedRow() {
+        Long deckId = deckId("Deck 1");
+        long versionBefore = deckService.getDeck(user, deckId, false).getData().getVersion();
+
+        // Extra Deck monsters added to the Main Deck land in the Extra Deck
+        DeckDeltaResponse delta = deckService.addCardToDeckDelta(
+                user, deckId, new AddCardRequest(FUSION_ID, 1, DeckCard.DeckType.MAIN), versionBefore).getData();
+
+        assertEquals(1, delta.getChanges().size());
+        assertEquals("EXTRA", delta.getChanges().get(0).getDeckType());
+        assertEquals(3, delta.getChanges().get(0).getQuantity());
+        assertEquals(3, delta.getExtraDeckCount());
+        assertTrue(delta.getVersion() > versionBefore);
+        assertCountersMatchRows(deckId);
+    }
+
+    @Test
+    void writeAgainstAnOlderVersionIsRejected() {
+        Long deckId = deckId("Deck 0");
+        long versionBefore = deckService.getDeck(user, deckId, false).getData().getVersion();
+
+        deckService.removeCardFromDeck(user, deckId, SPELL_ID, DeckCard.DeckType.SIDE, null, versionBefore);
+
+        assertThrows(DeckVersionMismatchException.class, () -> deckService.removeCardFromDeck(
+                user, deckId, SPELL_ID, DeckCard.DeckType.MAIN, 1, versionBefore));
+        assertEquals(4, deckService.getDeck(user, deckId, false).getData().getMainDeckCount());
+    }
+
+    @Test
+    void repairingOneDeckLeavesOtherDecksAlone() {
+        Long deckId = deckId("Deck 0");
+        Long otherDeckId = deckId("Deck 2");
+        entityManager.createNativeQuery("UPDATE user_decks SET main_count = NULL, is_valid = NULL WHERE id IN (:ids)")
+                .setParameter("ids", List.of(deckId, otherDeckId))
+                .executeUpdate();
+        entityManager.clear();
+
+        deckService.removeCardFromDeck(user, deckId, SPELL_ID, DeckCard.DeckType.SIDE, null, null);
+        assertCountersMatchRows(deckId);
+
+        Object otherValidity = entityManager.createNativeQuery("SELECT is_valid FROM user_decks WHERE id = :id")
+                .setParameter("id", otherDeckId)
+                .getSingleResult();
+        assertNull(otherValidity);
+    }
+}
@@ -0,0 +1,142 @@
+package taf.yugioh.scanner.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import taf.yugioh.scanner.entity.Card;
+import taf.yugioh.scanner.entity.DeckCard;
+import taf.yugioh.scanner.entity.UserDeck;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counter updates for single row changes and full rebuilds. Plain JUnit, no Spring context.
+ */
+class DeckCountersTest {
+
+    private final DeckCounters counters = new DeckCounters();
+    private final Card spell = card(1L, "spell");
+    private final Card fusion = card(2L, "fusion");
+
+    private UserDeck deck;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(counters, "deckValidator", new DeckValidator());
+        deck = new UserDeck(null, "Counter Deck");
+        deck.resetCounters();
+    }
+
+    @Test
+    void sectionCountFollowsTheDelta() {
+        counters.apply(deck, DeckCard.DeckType.MAIN, spell, 0, 3, 0);
+        counters.apply(deck, DeckCard.DeckType.SIDE, spell, 0, 2, 3);
+        counters.apply(deck, DeckCard.DeckType.MAIN, spell, 3, 1, 5);
+
+        assertEquals(1, deck.getMainCount());
+        assertEquals(0, deck.getExtraCount());
+        assertEquals(2, deck.getSideCount());
+    }
+
+    @Test
+    void overLimitCountsCardsCrossingThreeCopies() {
+        counters.apply(deck, DeckCard.DeckType.MAIN, spell, 0, 3, 0);
+        assertEquals(0, deck.getOverLimitCards());
+
+        counters.apply(deck, DeckCard.DeckType.SIDE, spell, 0, 1, 3);
+        assertEquals(1, deck.getOverLimitCards());
+
+        // Still over the limit: the card is only counted once
+        counters.apply(deck, DeckCard.DeckType.SIDE, spell, 1, 2, 4);
+        assertEquals(1, deck.getOverLimitCards());
+
+        counters.apply(deck, DeckCard.DeckType.SIDE, spell, 2, 0, 5);
+        assertEquals(0, deck.getOverLimitCards());
+    }
+
+    @Test
+    void misplacedCountsRowsNotCopies() {
+        counters.apply(deck, DeckCard.DeckType.MAIN, fusion, 0, 2, 0);
+        assertEquals(1, deck.getMisplacedCards());
+
+        counters.apply(deck, DeckCard.DeckType.MAIN, fusion, 2, 1, 2);
+        assertEquals(1, deck.getMisplacedCards());
+
+        counters.apply(deck, DeckCard.DeckType.MAIN, fusion, 1, 0, 1);
+        assertEquals(0, deck.getMisplacedCards());
+
+        // Correctly placed rows and rows without a card never count
+        counters.apply(deck, DeckCard.DeckType.EXTRA, fusion, 0, 1, 0);
+        counters.apply(deck, DeckCard.DeckType.EXTRA, null, 0, 1, 0);
+        assertEquals(0, deck.getMisplacedCards());
+    }
+
+    @Test
+    void validityFollowsEveryChange() {
+        Card trap = card(3L, "trap");
+        deck.setMainCount(39);
+        assertFalse(counters.errors(deck).isEmpty());
+
+        counters.apply(deck, DeckCard.DeckType.MAIN, trap, 0, 1, 0);
+        assertTrue(deck.getIsValid());
+
+        counters.apply(deck, DeckCard.DeckType.SIDE, trap, 0, 3, 1);
+        assertFalse(deck.getIsValid());
+
+        counters.apply(deck, DeckCard.DeckType.SIDE, trap, 3, 2, 4);
+        assertTrue(deck.getIsValid());
+    }
+
+    @Test
+    void setRebuildsEveryCounter() {
+        Map<DeckCard.DeckType, Map<Long, Integer>> quantities = new EnumMap<>(DeckCard.DeckType.class);
+        quantities.put(DeckCard.DeckType.MAIN, Map.of(1L, 3, 2L, 1));
+        quantities.put(DeckCard.DeckType.EXTRA, Map.of(2L, 2, 9L, 1));
+        quantities.put(DeckCard.DeckType.SIDE, Map.of(1L, 1, 2L, 0));
+        Map<Long, Integer> totals = Map.of(1L, 4, 2L, 3, 9L, 1);
+        Map<Long, Card> cards = new HashMap<>(Map.of(1L, spell, 2L, fusion));
+
+        counters.set(deck, quantities, totals, cards);
+
+        assertEquals(4, deck.getMainCount());
+        assertEquals(3, deck.getExtraCount());
+        assertEquals(1, deck.getSideCount());
+        assertEquals(1, deck.getOverLimitCards());
+        // The Fusion monster in the Main Deck; card 9 is unknown
+        assertEquals(1, deck.getMisplacedCards());
+        assertFalse(deck.getIsValid());
+    }
+
+    @Test
+    void errorsReportCountsAfterSizes() {
+        assertEquals(List.of(
+                "Main Deck must have at least 40 cards (currently 10)",
+                "2 card(s) exceed the 3 copy limit",
+                "1 card(s) are in the wrong deck section"), counters.errors(10, 0, 0, 2, 1));
+        assertTrue(counters.errors(40, 15, 15, 0, 0).isEmpty());
+    }
+
+    @Test
+    void misplacement() {
+        assertTrue(DeckCounters.isMisplaced(fusion, DeckCard.DeckType.MAIN));
+        assertTrue(DeckCounters.isMisplaced(spell, DeckCard.DeckType.EXTRA));
+        assertFalse(DeckCounters.isMisplaced(fusion, DeckCard.DeckType.EXTRA));
+        assertFalse(DeckCounters.isMisplaced(fusion, DeckCard.DeckType.SIDE));
+        assertFalse(DeckCounters.isMisplaced(spell, DeckCard.DeckType.SIDE));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private Card card(Long cardId, String frameType) {
+        Card card = new Card();
+        card.setCardId(cardId);
+        card.setName("Card " + cardId);
+        card.setFrameType(frameType);
+        return card;
+    }
+}
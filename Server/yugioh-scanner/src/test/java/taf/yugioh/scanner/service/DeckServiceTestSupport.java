@@ -0,0 +1,112 @@
+package taf.yugioh.scanner.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import taf.yugioh.scanner.dto.DeckResponse;
+import taf.yugioh.scanner.entity.Card;
+import taf.yugioh.scanner.entity.DeckCard;
+import taf.yugioh.scanner.entity.User;
+import taf.yugioh.scanner.entity.UserDeck;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Shared fixture for the DeckService database tests: one user with 20 decks, every other one public.
+ * Even decks hold 4 copies of a spell (3 Main, 1 Side) and a Fusion monster in the Main Deck;
+ * odd decks hold 3 copies of the spell and 2 of the Fusion monster in the Extra Deck.
+ * Subclasses share one Spring context and every test is rolled back.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+abstract class DeckServiceTestSupport {
+
+    static final int DECKS = 20;
+    static final long SPELL_ID = 990001L;
+    static final long FUSION_ID = 990002L;
+
+    @Autowired
+    DeckService deckService;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    User user;
+
+    @BeforeEach
+    void setUpDecks() {
+        user = new User("query-count-user", "query-count@example.com", "hash");
+        entityManager.persist(user);
+
+        card(SPELL_ID, "Query Count Spell", "spell");
+        card(FUSION_ID, "Query Count Fusion", "fusion");
+
+        for (int i = 0; i < DECKS; i++) {
+            UserDeck deck = new UserDeck(user, "Deck " + i);
+            deck.setIsPublic(i % 2 == 1);
+            entityManager.persist(deck);
+
+            entityManager.persist(new DeckCard(deck, SPELL_ID, 3, DeckCard.DeckType.MAIN));
+            if (i % 2 == 0) {
+                entityManager.persist(new DeckCard(deck, SPELL_ID, 1, DeckCard.DeckType.SIDE));
+                entityManager.persist(new DeckCard(deck, FUSION_ID, 1, DeckCard.DeckType.MAIN));
+            } else {
+                entityManager.persist(new DeckCard(deck, FUSION_ID, 2, DeckCard.DeckType.EXTRA));
+            }
+        }
+
+        entityManager.flush();
+        // Decks persisted directly have no counters yet
+        deckService.backfillDeckCounters();
+        entityManager.clear();
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Hibernate statistics, cleared so the next call's statements can be counted
+     */
+    Statistics clearedStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    Long deckId(String name) {
+        return deckService.getUserDecks(user).getData().stream()
+                .filter(deck -> deck.getName().equals(name))
+                .findFirst().orElseThrow().getId();
+    }
+
+    /**
+     * The stored counters must agree with a count over the deck's rows
+     */
+    void assertCountersMatchRows(Long deckId) {
+        entityManager.flush();
+        entityManager.clear();
+
+        DeckResponse counters = deckService.getDeck(user, deckId, false).getData();
+        DeckResponse rows = deckService.getDeck(user, deckId, true).getData();
+
+        assertEquals(rows.getMainDeckCount(), counters.getMainDeckCount());
+        assertEquals(rows.getExtraDeckCount(), counters.getExtraDeckCount());
+        assertEquals(rows.getSideDeckCount(), counters.getSideDeckCount());
+        assertEquals(rows.getValidationErrors().size(), counters.getValidationErrors().size());
+    }
+
+    private void card(Long cardId, String name, String frameType) {
+        Card card = new Card();
+        card.setCardId(cardId);
+        card.setName(name);
+        card.setFrameType(frameType);
+        entityManager.persist(card);
+    }
+}
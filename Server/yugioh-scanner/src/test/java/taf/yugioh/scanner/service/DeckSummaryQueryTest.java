@@ -0,0 +1,44 @@
+package taf.yugioh.scanner.service;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import taf.yugioh.scanner.dto.ApiResponse;
+import taf.yugioh.scanner.dto.DeckResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A user's deck list comes from one aggregate query over the stored counters
+ */
+class DeckSummaryQueryTest extends DeckServiceTestSupport {
+
+    @Test
+    void userDeckListingRunsOneQueryRegardlessOfDeckCount() {
+        Statistics statistics = clearedStatistics();
+
+        ApiResponse<List<DeckResponse>> response = deckService.getUserDecks(user);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(response.isSuccess());
+        assertEquals(DECKS, response.getData().size());
+    }
+
+    @Test
+    void userDeckListingMatchesFullDeckCounts() {
+        List<DeckResponse> summaries = deckService.getUserDecks(user).getData();
+
+        for (DeckResponse summary : summaries) {
+            DeckResponse full = deckService.getDeck(user, summary.getId(), true).getData();
+
+            assertEquals(full.getMainDeckCount(), summary.getMainDeckCount());
+            assertEquals(full.getExtraDeckCount(), summary.getExtraDeckCount());
+            assertEquals(full.getSideDeckCount(), summary.getSideDeckCount());
+            assertEquals(full.getTotalCards(), summary.getTotalCards());
+            assertEquals(full.getValidationErrors().size(), summary.getValidationErrors().size());
+            assertEquals("query-count-user", summary.getOwnerUsername());
+            assertFalse(summary.isValid());
+        }
+    }
+}
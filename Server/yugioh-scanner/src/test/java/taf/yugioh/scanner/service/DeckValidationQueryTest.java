@@ -0,0 +1,27 @@
+package taf.yugioh.scanner.service;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import taf.yugioh.scanner.dto.DeckResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Validating a full deck works on the rows already loaded for the response
+ */
+class DeckValidationQueryTest extends DeckServiceTestSupport {
+
+    @Test
+    void fullDeckValidationRunsNoExtraQueries() {
+        Long deckId = deckId("Deck 0");
+        entityManager.clear();
+
+        Statistics statistics = clearedStatistics();
+
+        DeckResponse deck = deckService.getDeck(user, deckId, true).getData();
+
+        // Deck row, its owner and the card rows; names for the copy-limit error come from the loaded cards
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertTrue(deck.getValidationErrors().contains("Too many copies of 'Query Count Spell' (4/3)"));
+    }
+}
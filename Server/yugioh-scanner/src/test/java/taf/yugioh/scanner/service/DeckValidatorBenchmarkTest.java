@@ -0,0 +1,86 @@
+package taf.yugioh.scanner.service;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import taf.yugioh.scanner.entity.Card;
+import taf.yugioh.scanner.entity.DeckCard;
+import taf.yugioh.scanner.entity.UserDeck;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Microbenchmark for validating a full 75-card deck (60 Main, 15 Extra).
+ * Plain JUnit, no Spring context: the validator must not need the database.
+ * The timing is only logged, so the test doesn't depend on the speed of the machine.
+ */
+class DeckValidatorBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    private static final Logger logger = LoggerFactory.getLogger(DeckValidatorBenchmarkTest.class);
+
+    private final DeckValidator validator = new DeckValidator();
+
+    @Test
+    void validatesSeventyFiveCardDeckInMicroseconds() {
+        List<DeckCard> deck = buildDeck();
+
+        DeckValidator.ValidationResult result = validator.validate(deck);
+        assertEquals(75, result.getTotalCards());
+        // One card is played 4 times and one Fusion monster sits in the Main Deck
+        assertEquals(2, result.getErrors().size());
+
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += validator.validate(deck).getErrors().size();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += validator.validate(deck).getErrors().size();
+        }
+        double microsPerValidation = (System.nanoTime() - start) / 1000.0 / MEASURED_ITERATIONS;
+
+        assertTrue(sink > 0);
+        logger.info(String.format("DeckValidator: %.2f us per 75-card deck validation", microsPerValidation));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private List<DeckCard> buildDeck() {
+        UserDeck userDeck = new UserDeck(null, "Benchmark Deck");
+        List<DeckCard> deck = new ArrayList<>();
+
+        // Main Deck: 19 cards x 3 copies + a fourth copy of card 0 + one misplaced Fusion monster
+        for (long i = 0; i < 19; i++) {
+            deck.add(row(userDeck, card(1000 + i, "Main Card " + i, "effect"), 3, DeckCard.DeckType.MAIN));
+        }
+        deck.add(row(userDeck, card(1000, "Main Card 0", "effect"), 1, DeckCard.DeckType.MAIN));
+        deck.add(row(userDeck, card(3000, "Misplaced Fusion", "fusion"), 2, DeckCard.DeckType.MAIN));
+
+        // Extra Deck: 5 cards x 3 copies
+        for (long i = 0; i < 5; i++) {
+            deck.add(row(userDeck, card(2000 + i, "Extra Card " + i, "xyz"), 3, DeckCard.DeckType.EXTRA));
+        }
+        return deck;
+    }
+
+    private DeckCard row(UserDeck userDeck, Card card, int quantity, DeckCard.DeckType deckType) {
+        DeckCard dc = new DeckCard(userDeck, card.getCardId(), quantity, deckType);
+        dc.setCard(card);
+        return dc;
+    }
+
+    private Card card(long cardId, String name, String frameType) {
+        Card card = new Card();
+        card.setCardId(cardId);
+        card.setName(name);
+        card.setFrameType(frameType);
+        return card;
+    }
+}
@@ -0,0 +1,133 @@
+package taf.yugioh.scanner.service;
+
+import org.junit.jupiter.api.Test;
+import taf.yugioh.scanner.entity.Card;
+import taf.yugioh.scanner.entity.DeckCard;
+import taf.yugioh.scanner.entity.UserDeck;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Deck building rules on in-memory rows. Plain JUnit, no Spring context.
+ */
+class DeckValidatorTest {
+
+    private final DeckValidator validator = new DeckValidator();
+    private final UserDeck deck = new UserDeck(null, "Validator Deck");
+
+    @Test
+    void legalDeckHasNoErrors() {
+        List<DeckCard> rows = mainDeck(40);
+        for (long i = 0; i < 5; i++) {
+            rows.add(row(900 + i, "Fusion " + i, "fusion", 3, DeckCard.DeckType.EXTRA));
+        }
+        rows.add(row(910L, "Side Trap", "trap", 3, DeckCard.DeckType.SIDE));
+
+        DeckValidator.ValidationResult result = validator.validate(rows);
+
+        assertTrue(result.isValid(), String.join("; ", result.getErrors()));
+        assertEquals(40, result.getMainCount());
+        assertEquals(15, result.getExtraCount());
+        assertEquals(3, result.getSideCount());
+        assertEquals(58, result.getTotalCards());
+    }
+
+    @Test
+    void sectionSizesAreCheckedAtTheirBounds() {
+        assertTrue(validator.validateSizes(40, 15, 15).isEmpty());
+        assertTrue(validator.validateSizes(60, 0, 0).isEmpty());
+
+        assertEquals(List.of("Main Deck must have at least 40 cards (currently 39)"), validator.validateSizes(39, 0, 0));
+        assertEquals(List.of("Main Deck cannot exceed 60 cards (currently 61)"), validator.validateSizes(61, 0, 0));
+        assertEquals(List.of("Extra Deck cannot exceed 15 cards (currently 16)"), validator.validateSizes(40, 16, 0));
+        assertEquals(List.of("Side Deck cannot exceed 15 cards (currently 16)"), validator.validateSizes(40, 0, 16));
+    }
+
+    @Test
+    void copiesAreCountedAcrossSections() {
+        // Cards 0-12 with 3 copies and card 13 with 1
+        List<DeckCard> rows = mainDeck(40);
+        rows.add(row(13L, "Card 13", "spell", 2, DeckCard.DeckType.SIDE));
+        rows.add(row(1L, "Card 1", "spell", 1, DeckCard.DeckType.SIDE));
+        rows.add(row(1L, "Card 1", "spell", 1, DeckCard.DeckType.SIDE));
+
+        List<String> errors = validator.validate(rows).getErrors();
+
+        // Card 13 reaches exactly 3 copies, Card 1 gets a fourth and a fifth
+        assertEquals(List.of("Too many copies of 'Card 1' (5/3)"), errors);
+    }
+
+    @Test
+    void extraDeckMonstersMustBeInTheExtraDeck() {
+        List<DeckCard> rows = mainDeck(39);
+        rows.add(row(900L, "Link Monster", "link", 1, DeckCard.DeckType.MAIN));
+        rows.add(row(901L, "Plain Spell", "spell", 1, DeckCard.DeckType.EXTRA));
+        rows.add(row(902L, "Pendulum Xyz", "XYZ_PENDULUM", 1, DeckCard.DeckType.EXTRA));
+        // Anything goes in the Side Deck
+        rows.add(row(903L, "Side Fusion", "fusion", 1, DeckCard.DeckType.SIDE));
+
+        List<String> errors = validator.validate(rows).getErrors();
+
+        assertEquals(List.of(
+                "'Link Monster' should be in Extra Deck, not Main Deck",
+                "'Plain Spell' cannot be in Extra Deck"), errors);
+    }
+
+    @Test
+    void errorsFollowRuleOrder() {
+        List<DeckCard> rows = new ArrayList<>();
+        rows.add(row(1L, "Spell", "spell", 4, DeckCard.DeckType.EXTRA));
+
+        assertEquals(List.of(
+                "Main Deck must have at least 40 cards (currently 0)",
+                "Too many copies of 'Spell' (4/3)",
+                "'Spell' cannot be in Extra Deck"), validator.validate(rows).getErrors());
+    }
+
+    @Test
+    void rowsWithoutACardAreNamedById() {
+        List<DeckCard> rows = mainDeck(40);
+        rows.add(new DeckCard(deck, 777L, 4, DeckCard.DeckType.SIDE));
+
+        List<String> errors = validator.validate(rows).getErrors();
+
+        // Placement can't be judged without the card, so only the copy limit is reported
+        assertEquals(List.of("Too many copies of 'Card ID 777' (4/3)"), errors);
+    }
+
+    @Test
+    void extraDeckCardTypes() {
+        assertTrue(DeckValidator.isExtraDeckCard("fusion"));
+        assertTrue(DeckValidator.isExtraDeckCard("Synchro"));
+        assertFalse(DeckValidator.isExtraDeckCard("effect_pendulum"));
+        assertFalse(DeckValidator.isExtraDeckCard("ritual"));
+        assertFalse(DeckValidator.isExtraDeckCard(null));
+    }
+
+    // ==================== Helper Methods ====================
+
+    // Main Deck of spells with 3 copies each (the last card takes the remainder)
+    private List<DeckCard> mainDeck(int size) {
+        List<DeckCard> rows = new ArrayList<>();
+        for (long i = 0; size > 0; i++) {
+            int copies = Math.min(3, size);
+            rows.add(row(i, "Card " + i, "spell", copies, DeckCard.DeckType.MAIN));
+            size -= copies;
+        }
+        return rows;
+    }
+
+    private DeckCard row(Long cardId, String name, String frameType, int quantity, DeckCard.DeckType deckType) {
+        Card card = new Card();
+        card.setCardId(cardId);
+        card.setName(name);
+        card.setFrameType(frameType);
+
+        DeckCard row = new DeckCard(deck, cardId, quantity, deckType);
+        row.setCard(card);
+        return row;
+    }
+}
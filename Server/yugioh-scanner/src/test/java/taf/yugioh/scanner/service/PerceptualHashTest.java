@@ -0,0 +1,124 @@
+package taf.yugioh.scanner.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerceptualHashTest {
+
+    // Same aspect ratio as a card scan
+    private static final int CARD_WIDTH = 421;
+    private static final int CARD_HEIGHT = 614;
+
+    @Test
+    void distanceCountsDifferingBits() {
+        assertEquals(0, PerceptualHash.distance(5L, 5L));
+        assertEquals(2, PerceptualHash.distance(0b0101L, 0b0110L));
+        assertEquals(64, PerceptualHash.distance(0L, -1L));
+    }
+
+    @Test
+    void flatImageHashesToZero() {
+        BufferedImage image = filled(90, 80, Color.GRAY);
+
+        // No cell is brighter than its right-hand neighbour
+        assertEquals(0L, PerceptualHash.dHash(image, 0, 0, 90, 80));
+    }
+
+    @Test
+    void brightnessFallingToTheRightSetsEveryBit() {
+        BufferedImage image = new BufferedImage(90, 80, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 90; x++) {
+            int level = 255 - x * 255 / 89;
+            for (int y = 0; y < 80; y++) {
+                image.setRGB(x, y, new Color(level, level, level).getRGB());
+            }
+        }
+
+        assertEquals(-1L, PerceptualHash.dHash(image, 0, 0, 90, 80));
+    }
+
+    @Test
+    void tinyAndOversizedRegionsDoNotFail() {
+        BufferedImage image = filled(1, 1, Color.WHITE);
+
+        assertEquals(0L, PerceptualHash.dHash(image, 0, 0, 1, 1));
+        assertEquals(0L, PerceptualHash.artHash(image));
+        // Region reaching past the image edge only samples the pixels that exist
+        assertEquals(0L, PerceptualHash.dHash(filled(10, 10, Color.BLACK), 5, 5, 50, 50));
+    }
+
+    @Test
+    void artHashIgnoresEverythingOutsideTheArtBox() {
+        BufferedImage card = card(Color.ORANGE, 1);
+        BufferedImage sameArtOtherFrame = card(Color.BLUE, 1);
+
+        assertEquals(PerceptualHash.artHash(card), PerceptualHash.artHash(sameArtOtherFrame));
+    }
+
+    @Test
+    void artHashSurvivesRescaling() {
+        BufferedImage card = card(Color.ORANGE, 1);
+        BufferedImage small = scaled(card, 168, 246);
+
+        assertTrue(PerceptualHash.distance(PerceptualHash.artHash(card), PerceptualHash.artHash(small)) <= 4);
+    }
+
+    @Test
+    void differentArtIsFarApart() {
+        long art = PerceptualHash.artHash(card(Color.ORANGE, 1));
+        long otherArt = PerceptualHash.artHash(card(Color.ORANGE, 2));
+
+        assertTrue(PerceptualHash.distance(art, otherArt) > 16);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private BufferedImage filled(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+
+    // Card with a plain frame and a pseudo-random blocky pattern in the art box
+    private BufferedImage card(Color frame, long artSeed) {
+        BufferedImage card = filled(CARD_WIDTH, CARD_HEIGHT, frame);
+        int x0 = (int) Math.round(CARD_WIDTH * 0.119);
+        int x1 = (int) Math.round(CARD_WIDTH * 0.881);
+        int y0 = (int) Math.round(CARD_HEIGHT * 0.181);
+        int y1 = (int) Math.round(CARD_HEIGHT * 0.704);
+
+        Random random = new Random(artSeed);
+        int block = 20;
+        for (int y = y0; y < y1; y += block) {
+            for (int x = x0; x < x1; x += block) {
+                int level = random.nextInt(256);
+                int color = new Color(level, level, level).getRGB();
+                for (int py = y; py < Math.min(y + block, y1); py++) {
+                    for (int px = x; px < Math.min(x + block, x1); px++) {
+                        card.setRGB(px, py, color);
+                    }
+                }
+            }
+        }
+        return card;
+    }
+
+    private BufferedImage scaled(BufferedImage image, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+}
@@ -0,0 +1,49 @@
+package taf.yugioh.scanner.service;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import taf.yugioh.scanner.dto.DeckResponse;
+import taf.yugioh.scanner.dto.PublicDeckPage;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Public decks as a plain list and as cursor pages
+ */
+class PublicDeckFeedTest extends DeckServiceTestSupport {
+
+    @Test
+    void publicDeckListRunsOneQuery() {
+        Statistics statistics = clearedStatistics();
+
+        List<DeckResponse> decks = deckService.getPublicDecks().getData();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(DECKS / 2, decks.size());
+        decks.forEach(deck -> assertEquals("query-count-user", deck.getOwnerUsername()));
+    }
+
+    @Test
+    void publicDeckPageRunsOneQueryAndWalksEveryDeck() {
+        Statistics statistics = clearedStatistics();
+
+        PublicDeckPage first = deckService.getPublicDeckPage(null, 7).getData();
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(7, first.getDecks().size());
+
+        Set<Long> seen = new HashSet<>();
+        PublicDeckPage page = first;
+        while (true) {
+            page.getDecks().forEach(deck -> assertTrue(seen.add(deck.getId())));
+            if (!page.isHasMore()) {
+                break;
+            }
+            page = deckService.getPublicDeckPage(page.getNextCursor(), 7).getData();
+        }
+        assertEquals(DECKS / 2, seen.size());
+    }
+}
@@ -0,0 +1,194 @@
+package taf.yugioh.scanner.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import taf.yugioh.scanner.exception.ImageUploadRejectedException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Upload decoding straight off a (trickling) request stream. Plain JUnit, no Spring context.
+ */
+class StreamingImageDecoderTest {
+
+    private static final String BOUNDARY = "xYzZy";
+    private static final String MULTIPART = "multipart/form-data; boundary=" + BOUNDARY;
+
+    private final StreamingImageDecoder decoder = new StreamingImageDecoder();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(decoder, "maxImageBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(decoder, "maxPixels", 1_000_000L);
+        ReflectionTestUtils.setField(decoder, "decodeMaxEdge", 2000);
+    }
+
+    @Test
+    void decodesARawImageAndHashesItsBytes() throws IOException {
+        byte[] png = png(40, 30);
+
+        StreamingImageDecoder.DecodedUpload upload = decoder.decode(trickle(png, 7), "card.png");
+
+        assertEquals(40, upload.getImage().getWidth());
+        assertEquals(30, upload.getImage().getHeight());
+        assertEquals(40, upload.getOriginalWidth());
+        assertEquals(30, upload.getOriginalHeight());
+        assertEquals(png.length, upload.getByteSize());
+        assertEquals("card.png", upload.getFilename());
+        assertEquals(ImageBlobService.sha256Hex(png), upload.getSha256());
+    }
+
+    @Test
+    void trailingBytesCountTowardsHashAndSize() throws IOException {
+        byte[] png = png(10, 10);
+        byte[] padded = concat(png, new byte[100]);
+
+        StreamingImageDecoder.DecodedUpload upload = decoder.decode(new ByteArrayInputStream(padded), null);
+
+        assertEquals(padded.length, upload.getByteSize());
+        assertEquals(ImageBlobService.sha256Hex(padded), upload.getSha256());
+    }
+
+    @Test
+    void largePhotosAreSubsampledWhileDecoding() throws IOException {
+        ReflectionTestUtils.setField(decoder, "decodeMaxEdge", 100);
+
+        StreamingImageDecoder.DecodedUpload upload = decoder.decode(new ByteArrayInputStream(png(400, 200)), null);
+
+        assertEquals(100, upload.getImage().getWidth());
+        assertEquals(50, upload.getImage().getHeight());
+        assertEquals(400, upload.getOriginalWidth());
+        assertEquals(200, upload.getOriginalHeight());
+    }
+
+    @Test
+    void rejectsNonImagesAndEmptyBodies() {
+        assertRejected(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "File must be an image",
+                () -> decoder.decode(new ByteArrayInputStream("%PDF-1.7 not an image".getBytes(StandardCharsets.US_ASCII)), null));
+        assertRejected(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "No image file provided",
+                () -> decoder.decode(new ByteArrayInputStream(new byte[0]), null));
+        // Magic bytes of a PNG, then garbage
+        assertRejected(HttpStatus.BAD_REQUEST, null,
+                () -> decoder.decode(new ByteArrayInputStream(concat(Arrays.copyOf(png(10, 10), 8), new byte[64])), null));
+    }
+
+    @Test
+    void rejectsTooManyBytesAndTooManyPixels() throws IOException {
+        byte[] png = png(50, 50);
+
+        ReflectionTestUtils.setField(decoder, "maxImageBytes", (long) png.length - 1);
+        assertRejected(HttpStatus.PAYLOAD_TOO_LARGE, null, () -> decoder.decode(new ByteArrayInputStream(png), null));
+
+        // Exactly at the limit is accepted
+        ReflectionTestUtils.setField(decoder, "maxImageBytes", (long) png.length);
+        assertNotNull(decoder.decode(new ByteArrayInputStream(png), null));
+
+        ReflectionTestUtils.setField(decoder, "maxPixels", 2499L);
+        assertRejected(HttpStatus.PAYLOAD_TOO_LARGE, "Image dimensions too large (50x50)",
+                () -> decoder.decode(new ByteArrayInputStream(png), null));
+    }
+
+    @Test
+    void findsTheNamedPartOfAMultipartBody() throws IOException {
+        byte[] png = png(20, 20);
+        byte[] body = multipart(png, "image/png");
+
+        // Small chunks put the boundaries across reads
+        for (int chunk : new int[] {1, 3, BOUNDARY.length() + 2, 4096}) {
+            StreamingImageDecoder.DecodedUpload upload = decoder.decodeRequest(MULTIPART, body.length, trickle(body, chunk), "file");
+
+            assertEquals(20, upload.getImage().getWidth(), "chunk " + chunk);
+            assertEquals("scan.png", upload.getFilename());
+            assertEquals(ImageBlobService.sha256Hex(png), upload.getSha256(), "chunk " + chunk);
+        }
+    }
+
+    @Test
+    void rejectsBadMultipartRequests() throws IOException {
+        byte[] png = png(20, 20);
+
+        assertRejected(HttpStatus.BAD_REQUEST, "No image file provided",
+                () -> decoder.decodeRequest(MULTIPART, -1, new ByteArrayInputStream(multipart(png, "image/png")), "other"));
+        assertRejected(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "File must be an image",
+                () -> decoder.decodeRequest(MULTIPART, -1, new ByteArrayInputStream(multipart(png, "text/plain")), "file"));
+        assertRejected(HttpStatus.BAD_REQUEST, "Malformed multipart request",
+                () -> decoder.decodeRequest("multipart/form-data", -1, new ByteArrayInputStream(png), "file"));
+        assertRejected(HttpStatus.PAYLOAD_TOO_LARGE, null,
+                () -> decoder.decodeRequest(MULTIPART, 1024L * 1024 + 64 * 1024 + 1, new ByteArrayInputStream(png), "file"));
+        assertRejected(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "File must be an image",
+                () -> decoder.decodeRequest("text/plain", png.length, new ByteArrayInputStream(png), "file"));
+    }
+
+    @Test
+    void acceptsRawImageRequests() throws IOException {
+        byte[] png = png(12, 8);
+
+        StreamingImageDecoder.DecodedUpload upload =
+                decoder.decodeRequest("image/png", png.length, new ByteArrayInputStream(png), "file");
+
+        assertEquals(12, upload.getOriginalWidth());
+        assertRejected(HttpStatus.PAYLOAD_TOO_LARGE, null,
+                () -> decoder.decodeRequest("image/png", 1024L * 1024 + 1, new ByteArrayInputStream(png), "file"));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private interface Upload {
+        Object run() throws IOException;
+    }
+
+    private void assertRejected(HttpStatus status, String message, Upload upload) {
+        ImageUploadRejectedException e = assertThrows(ImageUploadRejectedException.class, upload::run);
+        assertEquals(status, e.getStatus());
+        if (message != null) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 7) << 16 | (y * 5) << 8 | (x ^ y));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    // A text field, then the file part
+    private byte[] multipart(byte[] file, String fileType) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(("--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"note\"\r\n\r\n" +
+                "front side\r\n" +
+                "--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"file\"; filename=\"scan.png\"\r\n" +
+                "Content-Type: " + fileType + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        body.writeBytes(file);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        return body.toByteArray();
+    }
+
+    private StreamingMultipartReaderTest.TrickleInputStream trickle(byte[] data, int chunkSize) {
+        return new StreamingMultipartReaderTest.TrickleInputStream(data, chunkSize);
+    }
+
+    private byte[] concat(byte[] a, byte[] b) {
+        byte[] joined = new byte[a.length + b.length];
+        System.arraycopy(a, 0, joined, 0, a.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+}
@@ -0,0 +1,196 @@
+package taf.yugioh.scanner.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingMultipartReaderTest {
+
+    private static final String BOUNDARY = "----scan7MA4YWxk";
+
+    @Test
+    void boundaryOfContentType() {
+        assertEquals("abc", StreamingMultipartReader.boundaryOf("multipart/form-data; boundary=abc"));
+        assertEquals("a b", StreamingMultipartReader.boundaryOf("multipart/form-data; BOUNDARY=\"a b\"; charset=utf-8"));
+        assertNull(StreamingMultipartReader.boundaryOf("multipart/form-data"));
+        assertNull(StreamingMultipartReader.boundaryOf(null));
+    }
+
+    @Test
+    void readsEveryPartWithItsHeaders() throws IOException {
+        String body = "preamble is ignored\r\n" +
+                "--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"note\"\r\n\r\n" +
+                "hello\r\n" +
+                "--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"file\"; filename=\"card.jpg\"\r\n" +
+                "Content-Type: image/jpeg\r\n\r\n" +
+                "JPEGDATA\r\n" +
+                "--" + BOUNDARY + "--\r\n";
+        StreamingMultipartReader reader = new StreamingMultipartReader(bytes(body), BOUNDARY);
+
+        StreamingMultipartReader.Part note = reader.nextPart();
+        assertEquals("note", note.getName());
+        assertNull(note.getFilename());
+        assertNull(note.getContentType());
+        assertEquals("hello", read(note.getBody()));
+
+        StreamingMultipartReader.Part file = reader.nextPart();
+        assertEquals("file", file.getName());
+        assertEquals("card.jpg", file.getFilename());
+        assertEquals("image/jpeg", file.getContentType());
+        assertEquals("JPEGDATA", read(file.getBody()));
+
+        assertNull(reader.nextPart());
+        assertNull(reader.nextPart());
+    }
+
+    @Test
+    void unreadPartsAreSkipped() throws IOException {
+        StreamingMultipartReader reader = new StreamingMultipartReader(
+                bytes(form("first", "skipped entirely", "second", "kept")), BOUNDARY);
+
+        reader.nextPart();
+        StreamingMultipartReader.Part second = reader.nextPart();
+        assertEquals("second", second.getName());
+        assertEquals("kept", read(second.getBody()));
+        assertNull(reader.nextPart());
+    }
+
+    @Test
+    void boundariesSplitAcrossReadsAreFound() throws IOException {
+        String body = form("a", "x\r\n-", "b", "\r\r\n--" + BOUNDARY.substring(0, 5) + "y");
+
+        // Every chunk size puts the delimiter across a different read boundary
+        for (int chunk = 1; chunk <= BOUNDARY.length() + 8; chunk++) {
+            StreamingMultipartReader reader = new StreamingMultipartReader(
+                    new TrickleInputStream(body.getBytes(StandardCharsets.ISO_8859_1), chunk), BOUNDARY);
+
+            assertEquals("x\r\n-", read(reader.nextPart().getBody()), "chunk " + chunk);
+            assertEquals("\r\r\n--" + BOUNDARY.substring(0, 5) + "y", read(reader.nextPart().getBody()), "chunk " + chunk);
+            assertNull(reader.nextPart(), "chunk " + chunk);
+        }
+    }
+
+    @Test
+    void binaryContentSurvivesIntact() throws IOException {
+        byte[] data = new byte[70_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31 + (i >> 8));
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"file\"\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        body.writeBytes(data);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--").getBytes(StandardCharsets.ISO_8859_1));
+
+        StreamingMultipartReader reader = new StreamingMultipartReader(new TrickleInputStream(body.toByteArray(), 977), BOUNDARY);
+
+        assertArrayEquals(data, reader.nextPart().getBody().readAllBytes());
+    }
+
+    @Test
+    void emptyPartAndEmptyBody() throws IOException {
+        StreamingMultipartReader reader = new StreamingMultipartReader(bytes(form("empty", "")), BOUNDARY);
+        assertEquals("", read(reader.nextPart().getBody()));
+        assertNull(reader.nextPart());
+
+        StreamingMultipartReader noParts = new StreamingMultipartReader(bytes("--" + BOUNDARY + "--"), BOUNDARY);
+        assertNull(noParts.nextPart());
+    }
+
+    @Test
+    void truncatedBodiesFail() throws IOException {
+        String full = form("file", "data");
+
+        StreamingMultipartReader insidePart = new StreamingMultipartReader(
+                bytes(full.substring(0, full.indexOf("\r\n\r\ndata") + 6)), BOUNDARY);
+        InputStream part = insidePart.nextPart().getBody();
+        assertThrows(EOFException.class, part::readAllBytes);
+
+        StreamingMultipartReader insideHeaders = new StreamingMultipartReader(
+                bytes("--" + BOUNDARY + "\r\nContent-Disposition: form-da"), BOUNDARY);
+        assertThrows(EOFException.class, insideHeaders::nextPart);
+
+        StreamingMultipartReader noBoundary = new StreamingMultipartReader(bytes("no multipart here"), BOUNDARY);
+        assertThrows(EOFException.class, noBoundary::nextPart);
+    }
+
+    @Test
+    void malformedBodiesFail() {
+        StreamingMultipartReader garbageAfterBoundary = new StreamingMultipartReader(
+                bytes("--" + BOUNDARY + "xx\r\n\r\n"), BOUNDARY);
+        assertThrows(IOException.class, garbageAfterBoundary::nextPart);
+
+        String hugeHeader = "--" + BOUNDARY + "\r\nX-Padding: " + "a".repeat(9 * 1024) + "\r\n\r\nbody";
+        StreamingMultipartReader oversizeHeaders = new StreamingMultipartReader(bytes(hugeHeader), BOUNDARY);
+        IOException e = assertThrows(IOException.class, oversizeHeaders::nextPart);
+        assertEquals("Multipart part headers too large", e.getMessage());
+    }
+
+    // ==================== Helper Methods ====================
+
+    // Form with name/value pairs
+    private String form(String... fields) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < fields.length; i += 2) {
+            body.append("--").append(BOUNDARY).append("\r\n")
+                    .append("Content-Disposition: form-data; name=\"").append(fields[i]).append("\"\r\n\r\n")
+                    .append(fields[i + 1]).append("\r\n");
+        }
+        return body.append("--").append(BOUNDARY).append("--\r\n").toString();
+    }
+
+    private InputStream bytes(String text) {
+        return new TrickleInputStream(text.getBytes(StandardCharsets.ISO_8859_1), Integer.MAX_VALUE);
+    }
+
+    private String read(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Hands out at most chunkSize bytes per read and reports nothing available,
+     * like a socket whose next packet hasn't arrived yet
+     */
+    static class TrickleInputStream extends InputStream {
+        private final byte[] data;
+        private final int chunkSize;
+        private int position = 0;
+
+        TrickleInputStream(byte[] data, int chunkSize) {
+            this.data = data;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read() {
+            return position < data.length ? data[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= data.length) {
+                return -1;
+            }
+            int count = Math.min(Math.min(length, chunkSize), data.length - position);
+            System.arraycopy(data, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+    }
+}